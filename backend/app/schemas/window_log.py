@@ -32,6 +32,7 @@ class WindowLog(BaseModel):
     # -------------------------
     baselineEAR: Optional[float] = None
 
+    normalizedEAR: Optional[float] = None
     normalizedEARMean: Optional[float] = None
     normalizedEARVariance: Optional[float] = None
 
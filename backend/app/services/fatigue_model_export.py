@@ -0,0 +1,62 @@
+import struct
+from typing import List, Mapping, Optional, Sequence
+
+# Must match LogisticFatigueClassifier.java / WindowFeatures.java
+MODEL_MAGIC = 0x46444C4D  # "FDLM"
+MODEL_VERSION = 1
+
+# WindowLog field per feature index (WindowFeatures order)
+FEATURES = [
+    "normalizedEAR",
+    "normalizedEARMean",
+    "normalizedEARVariance",
+    "perclos",
+    "blinkRate",
+]
+CLASSES = ["LOW", "MEDIUM", "HIGH"]
+
+
+def feature_row(log: Mapping[str, object]) -> Optional[List[float]]:
+    """
+    FEATURES values of one WindowLog, or None when any is missing
+    (logged as null / absent). Such rows must be skipped for training:
+    substituting 0 would read as fully closed eyes.
+    """
+    row = []
+    for name in FEATURES:
+        value = log.get(name)
+        if value is None:
+            return None
+        row.append(float(value))
+    return row
+
+
+def write_logistic_model(
+    path: str,
+    mean: Sequence[float],
+    scale: Sequence[float],
+    weights: Sequence[Sequence[float]],
+    bias: Sequence[float],
+) -> None:
+    """
+    Writes a multinomial logistic regression trained on WindowLog data
+    into the on-device model format (big-endian).
+
+    weights[c][i] / bias[c] are for CLASSES[c] over standardized
+    features (x - mean[i]) / scale[i].
+    """
+    n = len(FEATURES)
+    if len(mean) != n or len(scale) != n:
+        raise ValueError(f"mean/scale must have {n} entries")
+    if len(weights) != len(CLASSES) or len(bias) != len(CLASSES):
+        raise ValueError(f"weights/bias must have {len(CLASSES)} rows")
+
+    with open(path, "wb") as f:
+        f.write(struct.pack(">iiii", MODEL_MAGIC, MODEL_VERSION, n, len(CLASSES)))
+        f.write(struct.pack(f">{n}f", *mean))
+        f.write(struct.pack(f">{n}f", *scale))
+        for row, b in zip(weights, bias):
+            if len(row) != n:
+                raise ValueError(f"each weight row must have {n} entries")
+            f.write(struct.pack(f">{n}f", *row))
+            f.write(struct.pack(">f", b))
@@ -0,0 +1,80 @@
+package com.fatiguedetector.app.alerts;
+
+import android.content.Context;
+import android.media.AudioManager;
+import android.media.ToneGenerator;
+import android.os.Build;
+import android.os.VibrationEffect;
+import android.os.Vibrator;
+
+import com.fatiguedetector.app.mediapipe.FatigueLevel;
+
+/**
+ * Fires vibration + alarm tone directly from native code, on the analysis
+ * thread, without waiting for the JS side.
+ * Patterns match the previous JS alerts (fatigueAlert.ts).
+ */
+public class AlertPlayer {
+
+  private static final long[] HIGH_PATTERN = {0, 800, 200, 800};
+  private static final long MEDIUM_VIBRATION_MS = 400;
+
+  private static final int HIGH_TONE_MS = 1_200;
+  private static final int MEDIUM_TONE_MS = 300;
+  private static final int TONE_VOLUME = 100;
+
+  private final Vibrator vibrator;
+  private ToneGenerator toneGenerator;
+
+  public AlertPlayer(Context context) {
+    vibrator = (Vibrator) context.getSystemService(Context.VIBRATOR_SERVICE);
+  }
+
+  public void play(FatigueLevel level) {
+    if (level == FatigueLevel.HIGH) {
+      vibrate(HIGH_PATTERN);
+      tone(ToneGenerator.TONE_CDMA_EMERGENCY_RINGBACK, HIGH_TONE_MS);
+    } else if (level == FatigueLevel.MEDIUM) {
+      vibrate(MEDIUM_VIBRATION_MS);
+      tone(ToneGenerator.TONE_PROP_BEEP2, MEDIUM_TONE_MS);
+    }
+  }
+
+  private void vibrate(long[] pattern) {
+    if (vibrator == null || !vibrator.hasVibrator()) return;
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+      vibrator.vibrate(VibrationEffect.createWaveform(pattern, -1));
+    } else {
+      vibrator.vibrate(pattern, -1);
+    }
+  }
+
+  private void vibrate(long ms) {
+    if (vibrator == null || !vibrator.hasVibrator()) return;
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+      vibrator.vibrate(
+          VibrationEffect.createOneShot(ms, VibrationEffect.DEFAULT_AMPLITUDE));
+    } else {
+      vibrator.vibrate(ms);
+    }
+  }
+
+  private void tone(int tone, int durationMs) {
+    try {
+      if (toneGenerator == null) {
+        toneGenerator = new ToneGenerator(AudioManager.STREAM_ALARM, TONE_VOLUME);
+      }
+      toneGenerator.startTone(tone, durationMs);
+    } catch (RuntimeException e) {
+      // Audio unavailable: vibration still fired
+      toneGenerator = null;
+    }
+  }
+
+  public void release() {
+    if (toneGenerator != null) {
+      toneGenerator.release();
+      toneGenerator = null;
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package com.fatiguedetector.app.analytics;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling (Steinarsson, 2013).
+ *
+ * Keeps the first and last point; from each of the (threshold - 2)
+ * middle buckets keeps the point forming the largest triangle with the
+ * previously kept point and the next bucket's average. Unlike striding
+ * or bucket means, peaks (eye closures, PERCLOS spikes) survive.
+ */
+final class Lttb {
+
+  private Lttb() {}
+
+  /**
+   * @param n         points used from ts / values
+   * @param threshold target point count (min 3); n or fewer returns everything
+   */
+  static WindowSeries downsample(long[] ts, float[] values, int n, int threshold) {
+    if (n <= threshold) return new WindowSeries(ts, values, n, n);
+    threshold = Math.max(3, threshold);
+    if (n <= threshold) return new WindowSeries(ts, values, n, n);
+
+    long[] outTs = new long[threshold];
+    float[] outValues = new float[threshold];
+
+    // Timestamps relative to the first point keep the doubles small
+    long t0 = ts[0];
+    double every = (double) (n - 2) / (threshold - 2);
+
+    int a = 0;
+    outTs[0] = ts[0];
+    outValues[0] = values[0];
+    int k = 1;
+
+    for (int b = 0; b < threshold - 2; b++) {
+      // next bucket average (the last point for the final bucket)
+      int nextStart = (int) Math.floor((b + 1) * every) + 1;
+      int nextEnd = Math.min(n, (int) Math.floor((b + 2) * every) + 1);
+      double avgX = 0;
+      double avgY = 0;
+      for (int i = nextStart; i < nextEnd; i++) {
+        avgX += ts[i] - t0;
+        avgY += values[i];
+      }
+      int nextLen = nextEnd - nextStart;
+      if (nextLen > 0) {
+        avgX /= nextLen;
+        avgY /= nextLen;
+      } else {
+        avgX = ts[n - 1] - t0;
+        avgY = values[n - 1];
+      }
+
+      int start = (int) Math.floor(b * every) + 1;
+      int end = (int) Math.floor((b + 1) * every) + 1;
+      double ax = ts[a] - t0;
+      double ay = values[a];
+
+      double maxArea = -1;
+      int chosen = start;
+      for (int i = start; i < end; i++) {
+        double area = Math.abs(
+            (ax - avgX) * (values[i] - ay) - (ax - (ts[i] - t0)) * (avgY - ay));
+        if (area > maxArea) {
+          maxArea = area;
+          chosen = i;
+        }
+      }
+
+      outTs[k] = ts[chosen];
+      outValues[k] = values[chosen];
+      k++;
+      a = chosen;
+    }
+
+    outTs[k] = ts[n - 1];
+    outValues[k] = values[n - 1];
+    return new WindowSeries(outTs, outValues, threshold, n);
+  }
+}
@@ -0,0 +1,95 @@
+package com.fatiguedetector.app.analytics;
+
+import com.fatiguedetector.app.mediapipe.FatigueLevel;
+
+/**
+ * Mergeable aggregate over window records: counts, level distribution
+ * and min / max / sum per metric.
+ *
+ * Used both as the write-time summary of a WindowStore segment and as a
+ * query bucket, so a bucket covering whole segments is a few merges.
+ * Metrics and levels only count "valid" records (face found, baseline
+ * locked); min / max are NaN while validCount is 0.
+ */
+public final class RollupStats {
+
+  public int count;
+  public int faceCount;
+  public int validCount;
+  public int lowConfidenceCount;
+
+  public final int[] levelCounts = new int[FatigueLevel.values().length];
+
+  public final double[] min = new double[WindowStore.METRIC_COUNT];
+  public final double[] max = new double[WindowStore.METRIC_COUNT];
+  public final double[] sum = new double[WindowStore.METRIC_COUNT];
+
+  public RollupStats() {
+    reset();
+  }
+
+  public double mean(int metric) {
+    return validCount > 0 ? sum[metric] / validCount : Double.NaN;
+  }
+
+  /** Fraction of records without a face; 0 when empty. */
+  public double noFaceRate() {
+    return count > 0 ? (count - faceCount) / (double) count : 0.0;
+  }
+
+  /** Fraction of valid records below WindowStore.LOW_CONFIDENCE. */
+  public double lowConfidenceRate() {
+    return validCount > 0 ? lowConfidenceCount / (double) validCount : 0.0;
+  }
+
+  /** Share of valid records at {@code level}; 0 when none. */
+  public double levelShare(FatigueLevel level) {
+    return validCount > 0 ? levelCounts[level.ordinal()] / (double) validCount : 0.0;
+  }
+
+  void add(boolean face, boolean valid, int level, float[] metrics, int offset,
+           int stride) {
+    count++;
+    if (!face) return;
+    faceCount++;
+    if (!valid) return;
+
+    validCount++;
+    levelCounts[level]++;
+    for (int m = 0; m < WindowStore.METRIC_COUNT; m++) {
+      double v = metrics[offset + m * stride];
+      if (validCount == 1 || v < min[m]) min[m] = v;
+      if (validCount == 1 || v > max[m]) max[m] = v;
+      sum[m] += v;
+    }
+    if (metrics[offset + WindowStore.CONFIDENCE * stride] < WindowStore.LOW_CONFIDENCE) {
+      lowConfidenceCount++;
+    }
+  }
+
+  void merge(RollupStats other) {
+    if (other.count == 0) return;
+    for (int m = 0; m < WindowStore.METRIC_COUNT; m++) {
+      if (other.validCount == 0) break;
+      min[m] = validCount == 0 ? other.min[m] : Math.min(min[m], other.min[m]);
+      max[m] = validCount == 0 ? other.max[m] : Math.max(max[m], other.max[m]);
+      sum[m] += other.sum[m];
+    }
+    count += other.count;
+    faceCount += other.faceCount;
+    validCount += other.validCount;
+    lowConfidenceCount += other.lowConfidenceCount;
+    for (int l = 0; l < levelCounts.length; l++) levelCounts[l] += other.levelCounts[l];
+  }
+
+  void reset() {
+    count = 0;
+    faceCount = 0;
+    validCount = 0;
+    lowConfidenceCount = 0;
+    java.util.Arrays.fill(levelCounts, 0);
+    java.util.Arrays.fill(min, Double.NaN);
+    java.util.Arrays.fill(max, Double.NaN);
+    java.util.Arrays.fill(sum, 0.0);
+  }
+}
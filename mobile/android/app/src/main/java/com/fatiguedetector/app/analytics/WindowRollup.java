@@ -0,0 +1,21 @@
+package com.fatiguedetector.app.analytics;
+
+/** Fixed-width buckets over a time range, plus their total. */
+public final class WindowRollup {
+
+  public final long from;
+  public final long bucketMs;
+  public final RollupStats[] buckets;
+  public final RollupStats total = new RollupStats();
+
+  WindowRollup(long from, long bucketMs, int bucketCount) {
+    this.from = from;
+    this.bucketMs = bucketMs;
+    buckets = new RollupStats[bucketCount];
+    for (int i = 0; i < bucketCount; i++) buckets[i] = new RollupStats();
+  }
+
+  public long bucketStart(int i) {
+    return from + i * bucketMs;
+  }
+}
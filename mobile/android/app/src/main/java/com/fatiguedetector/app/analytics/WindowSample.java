@@ -0,0 +1,24 @@
+package com.fatiguedetector.app.analytics;
+
+import com.fatiguedetector.app.mediapipe.FatigueLevel;
+
+/** One stored window record, copied out of a WindowStore. */
+public final class WindowSample {
+
+  public final long timestamp;
+  public final boolean faceDetected;
+  // face found and baseline locked; metrics are meaningless otherwise
+  public final boolean valid;
+  public final FatigueLevel fatigueLevel;
+  // indexed by WindowStore metric constants
+  public final float[] metrics;
+
+  WindowSample(long timestamp, boolean faceDetected, boolean valid,
+               FatigueLevel fatigueLevel, float[] metrics) {
+    this.timestamp = timestamp;
+    this.faceDetected = faceDetected;
+    this.valid = valid;
+    this.fatigueLevel = fatigueLevel;
+    this.metrics = metrics;
+  }
+}
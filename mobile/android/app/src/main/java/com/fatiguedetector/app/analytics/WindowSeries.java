@@ -0,0 +1,18 @@
+package com.fatiguedetector.app.analytics;
+
+/** Chart points (timestamp, value), time-ordered. */
+public final class WindowSeries {
+
+  public final long[] timestamps;
+  public final float[] values;
+  public final int size;
+  // valid records in the queried range before downsampling
+  public final int sourceSize;
+
+  WindowSeries(long[] timestamps, float[] values, int size, int sourceSize) {
+    this.timestamps = timestamps;
+    this.values = values;
+    this.size = size;
+    this.sourceSize = sourceSize;
+  }
+}
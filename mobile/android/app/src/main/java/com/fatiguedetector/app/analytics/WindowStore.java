@@ -0,0 +1,387 @@
+package com.fatiguedetector.app.analytics;
+
+import com.fatiguedetector.app.mediapipe.FatigueLevel;
+import com.fatiguedetector.app.mediapipe.FatigueResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded, time-ordered history of window samples with range queries.
+ *
+ * Records are appended into fixed-size columnar segments; each segment
+ * keeps a RollupStats summary updated on write. Queries binary-search
+ * the segments by time, merge the summaries of segments a bucket covers
+ * whole and scan records only at bucket edges, so a shift-length range
+ * costs a few hundred merges instead of a pass over every record.
+ *
+ * When full, the oldest segment is recycled: appends never allocate
+ * after the ring has filled once. Not thread-safe; the owner serializes
+ * access (FatigueMonitorService uses its analysis thread).
+ */
+public final class WindowStore {
+
+  // =====================================================
+  // METRICS
+  // =====================================================
+  public static final int NORM_EAR = 0;
+  public static final int PERCLOS = 1;
+  public static final int BLINK_RATE = 2;
+  public static final int CONFIDENCE = 3;
+  public static final int METRIC_COUNT = 4;
+
+  private static final String[] METRIC_NAMES =
+      {"normalizedEAR", "perclos", "blinkRate", "confidence"};
+
+  // Same gate as the JS window logger
+  public static final double LOW_CONFIDENCE = 0.4;
+
+  // =====================================================
+  // CAPACITY
+  // =====================================================
+  static final int SEGMENT_SIZE = 256;
+  public static final int DEFAULT_MAX_SEGMENTS = 256;
+  public static final int MAX_BUCKETS = 1_000;
+  private static final int MAX_SESSIONS = 64;
+
+  private static final class Segment {
+    final long[] ts = new long[SEGMENT_SIZE];
+    final boolean[] face = new boolean[SEGMENT_SIZE];
+    final boolean[] valid = new boolean[SEGMENT_SIZE];
+    final byte[] level = new byte[SEGMENT_SIZE];
+    // metric-major: metrics[m * SEGMENT_SIZE + i]
+    final float[] metrics = new float[METRIC_COUNT * SEGMENT_SIZE];
+    final RollupStats summary = new RollupStats();
+    int count;
+
+    long firstTs() {
+      return ts[0];
+    }
+
+    long lastTs() {
+      return ts[count - 1];
+    }
+
+    void add(RollupStats into, int i) {
+      into.add(face[i], valid[i], level[i], metrics, i, SEGMENT_SIZE);
+    }
+  }
+
+  // =====================================================
+  // STATE
+  // =====================================================
+  private final Segment[] ring;
+  private int head = 0;
+  private int segmentCount = 0;
+  private long lastTs = Long.MIN_VALUE;
+  private final RollupStats total = new RollupStats();
+  private boolean totalDirty = false;
+
+  private final long[] sessionStart = new long[MAX_SESSIONS];
+  private final long[] sessionEnd = new long[MAX_SESSIONS];
+  private int sessionHead = 0;
+  private int sessionCount = 0;
+
+  public WindowStore() {
+    this(DEFAULT_MAX_SEGMENTS);
+  }
+
+  /** Capacity = maxSegments * 256 records. */
+  public WindowStore(int maxSegments) {
+    ring = new Segment[Math.max(2, maxSegments)];
+  }
+
+  public static String metricName(int metric) {
+    return METRIC_NAMES[metric];
+  }
+
+  /** @return metric index, or -1 if unknown */
+  public static int metricIndex(String name) {
+    for (int m = 0; m < METRIC_COUNT; m++) {
+      if (METRIC_NAMES[m].equals(name)) return m;
+    }
+    return -1;
+  }
+
+  // =====================================================
+  // WRITE
+  // =====================================================
+  /** Hold frames count as face time but carry no metrics. */
+  public void record(FatigueResult r) {
+    append(
+        r.timestamp,
+        r.faceDetected,
+        r.faceDetected && !r.isCalibrating && !r.faceHeld,
+        r.fatigueLevel,
+        r.normalizedEAR,
+        r.perclos,
+        r.blinkRate,
+        r.confidence
+    );
+  }
+
+  /**
+   * Appends one sample. Timestamps must not go backwards; older samples
+   * are dropped. Metrics are ignored unless {@code valid}.
+   */
+  public void append(
+      long ts, boolean face, boolean valid, FatigueLevel level,
+      double normalizedEAR, double perclos, double blinkRate, double confidence
+  ) {
+    if (ts < lastTs) return;
+    lastTs = ts;
+
+    Segment seg = segmentCount > 0 ? segment(segmentCount - 1) : null;
+    if (seg == null || seg.count == SEGMENT_SIZE) seg = nextSegment();
+
+    int i = seg.count;
+    seg.ts[i] = ts;
+    seg.face[i] = face;
+    seg.valid[i] = face && valid;
+    seg.level[i] = (byte) level.ordinal();
+    seg.metrics[NORM_EAR * SEGMENT_SIZE + i] = (float) normalizedEAR;
+    seg.metrics[PERCLOS * SEGMENT_SIZE + i] = (float) perclos;
+    seg.metrics[BLINK_RATE * SEGMENT_SIZE + i] = (float) blinkRate;
+    seg.metrics[CONFIDENCE * SEGMENT_SIZE + i] = (float) confidence;
+    seg.count++;
+
+    seg.add(seg.summary, i);
+    if (!totalDirty) seg.add(total, i);
+  }
+
+  private Segment nextSegment() {
+    Segment seg;
+    if (segmentCount == ring.length) {
+      // recycle the oldest
+      seg = ring[head];
+      head = (head + 1) % ring.length;
+      segmentCount--;
+      totalDirty = true;
+    } else {
+      int slot = (head + segmentCount) % ring.length;
+      if (ring[slot] == null) ring[slot] = new Segment();
+      seg = ring[slot];
+    }
+    seg.count = 0;
+    seg.summary.reset();
+    ring[(head + segmentCount) % ring.length] = seg;
+    segmentCount++;
+    return seg;
+  }
+
+  private Segment segment(int i) {
+    return ring[(head + i) % ring.length];
+  }
+
+  // =====================================================
+  // SESSIONS
+  // =====================================================
+  public void startSession(long now) {
+    if (sessionCount > 0 && sessionEnd[lastSession()] < 0) endSession(now);
+    if (sessionCount == MAX_SESSIONS) {
+      sessionHead = (sessionHead + 1) % MAX_SESSIONS;
+      sessionCount--;
+    }
+    int slot = (sessionHead + sessionCount) % MAX_SESSIONS;
+    sessionStart[slot] = now;
+    sessionEnd[slot] = -1;
+    sessionCount++;
+  }
+
+  public void endSession(long now) {
+    if (sessionCount == 0) return;
+    int slot = lastSession();
+    if (sessionEnd[slot] < 0) sessionEnd[slot] = now;
+  }
+
+  public int getSessionCount() {
+    return sessionCount;
+  }
+
+  /** i = 0 is the oldest retained session */
+  public long getSessionStart(int i) {
+    return sessionStart[(sessionHead + i) % MAX_SESSIONS];
+  }
+
+  /** -1 while the session is running */
+  public long getSessionEnd(int i) {
+    return sessionEnd[(sessionHead + i) % MAX_SESSIONS];
+  }
+
+  private int lastSession() {
+    return (sessionHead + sessionCount - 1) % MAX_SESSIONS;
+  }
+
+  // =====================================================
+  // QUERIES
+  // =====================================================
+  public int size() {
+    int n = 0;
+    for (int s = 0; s < segmentCount; s++) n += segment(s).count;
+    return n;
+  }
+
+  public long getFirstTs() {
+    return segmentCount > 0 ? segment(0).firstTs() : -1;
+  }
+
+  public long getLastTs() {
+    return segmentCount > 0 ? segment(segmentCount - 1).lastTs() : -1;
+  }
+
+  /** Everything retained; maintained on write. */
+  public RollupStats getTotal() {
+    if (totalDirty) {
+      total.reset();
+      for (int s = 0; s < segmentCount; s++) total.merge(segment(s).summary);
+      totalDirty = false;
+    }
+    return total;
+  }
+
+  /** Aggregate over [from, to). */
+  public RollupStats rollup(long from, long to) {
+    RollupStats out = new RollupStats();
+    accumulate(from, to, out);
+    return out;
+  }
+
+  /**
+   * Buckets of {@code bucketMs} over [from, to); the bucket size is
+   * widened so that at most MAX_BUCKETS are returned.
+   */
+  public WindowRollup rollup(long from, long to, long bucketMs) {
+    long span = Math.max(1, to - from);
+    long size = Math.max(1, bucketMs);
+    if ((span + size - 1) / size > MAX_BUCKETS) {
+      size = (span + MAX_BUCKETS - 1) / MAX_BUCKETS;
+    }
+    int n = (int) ((span + size - 1) / size);
+
+    WindowRollup out = new WindowRollup(from, size, n);
+    for (int b = 0; b < n; b++) {
+      long start = from + b * size;
+      accumulate(start, Math.min(to, start + size), out.buckets[b]);
+      out.total.merge(out.buckets[b]);
+    }
+    return out;
+  }
+
+  private void accumulate(long from, long to, RollupStats into) {
+    if (to <= from) return;
+    for (int s = firstSegmentEndingAtOrAfter(from); s < segmentCount; s++) {
+      Segment seg = segment(s);
+      if (seg.firstTs() >= to) break;
+
+      if (seg.firstTs() >= from && seg.lastTs() < to) {
+        into.merge(seg.summary);
+        continue;
+      }
+      for (int i = lowerBound(seg, from); i < seg.count && seg.ts[i] < to; i++) {
+        seg.add(into, i);
+      }
+    }
+  }
+
+  /**
+   * Largest-Triangle-Three-Buckets downsampling of one metric over
+   * [from, to), valid records only.
+   *
+   * @return at most maxPoints points (all of them when fewer)
+   */
+  public WindowSeries downsample(int metric, long from, long to, int maxPoints) {
+    // Flatten the valid points in range (segments located by index)
+    int n = 0;
+    int first = firstSegmentEndingAtOrAfter(from);
+    for (int s = first; s < segmentCount; s++) {
+      Segment seg = segment(s);
+      if (seg.firstTs() >= to) break;
+      n += seg.firstTs() >= from && seg.lastTs() < to
+          ? seg.summary.validCount
+          : countValid(seg, from, to);
+    }
+
+    long[] ts = new long[n];
+    float[] values = new float[n];
+    int k = 0;
+    for (int s = first; s < segmentCount && k < n; s++) {
+      Segment seg = segment(s);
+      for (int i = lowerBound(seg, from); i < seg.count && seg.ts[i] < to; i++) {
+        if (!seg.valid[i]) continue;
+        ts[k] = seg.ts[i];
+        values[k] = seg.metrics[metric * SEGMENT_SIZE + i];
+        k++;
+      }
+    }
+
+    return Lttb.downsample(ts, values, n, maxPoints);
+  }
+
+  private static int countValid(Segment seg, long from, long to) {
+    int n = 0;
+    for (int i = lowerBound(seg, from); i < seg.count && seg.ts[i] < to; i++) {
+      if (seg.valid[i]) n++;
+    }
+    return n;
+  }
+
+  /** Up to {@code limit} most recent records, newest first. */
+  public List<WindowSample> recent(int limit) {
+    List<WindowSample> out = new ArrayList<>();
+    for (int s = segmentCount - 1; s >= 0 && out.size() < limit; s--) {
+      Segment seg = segment(s);
+      for (int i = seg.count - 1; i >= 0 && out.size() < limit; i--) {
+        float[] m = new float[METRIC_COUNT];
+        for (int j = 0; j < METRIC_COUNT; j++) m[j] = seg.metrics[j * SEGMENT_SIZE + i];
+        out.add(new WindowSample(
+            seg.ts[i],
+            seg.face[i],
+            seg.valid[i],
+            FatigueLevel.values()[seg.level[i]],
+            m));
+      }
+    }
+    return out;
+  }
+
+  // =====================================================
+  // INDEX
+  // =====================================================
+
+  /** First segment whose last record is at or after ts. */
+  private int firstSegmentEndingAtOrAfter(long ts) {
+    int lo = 0;
+    int hi = segmentCount;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (segment(mid).lastTs() < ts) lo = mid + 1;
+      else hi = mid;
+    }
+    return lo;
+  }
+
+  /** First record index in seg with ts >= t. */
+  private static int lowerBound(Segment seg, long t) {
+    int lo = 0;
+    int hi = seg.count;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (seg.ts[mid] < t) lo = mid + 1;
+      else hi = mid;
+    }
+    return lo;
+  }
+
+  // =====================================================
+  // RESET
+  // =====================================================
+  public void clear() {
+    head = 0;
+    segmentCount = 0;
+    lastTs = Long.MIN_VALUE;
+    total.reset();
+    totalDirty = false;
+    sessionHead = 0;
+    sessionCount = 0;
+  }
+}
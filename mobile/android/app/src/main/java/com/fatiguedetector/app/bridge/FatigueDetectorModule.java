@@ -1,10 +1,31 @@
 
 package com.fatiguedetector.app.bridge;
+import com.fatiguedetector.app.analytics.RollupStats;
+import com.fatiguedetector.app.analytics.WindowRollup;
+import com.fatiguedetector.app.analytics.WindowSample;
+import com.fatiguedetector.app.analytics.WindowSeries;
+import com.fatiguedetector.app.analytics.WindowStore;
+import com.fatiguedetector.app.mediapipe.ClassificationStrategy;
+import com.fatiguedetector.app.mediapipe.EyeGeometry;
+import com.fatiguedetector.app.mediapipe.EyePointAnalyzer;
+import com.fatiguedetector.app.mediapipe.FatigueAlertEngine;
+import com.fatiguedetector.app.mediapipe.FatigueLevel;
+import com.fatiguedetector.app.mediapipe.FeatureStageRunner;
+import com.fatiguedetector.app.mediapipe.LandmarkBackend;
+import com.fatiguedetector.app.mediapipe.LandmarkBenchmark;
+import com.fatiguedetector.app.mediapipe.LandmarkEngine;
 import com.fatiguedetector.app.mediapipe.MediaPipeFaceAnalyzer;
+import com.fatiguedetector.app.mediapipe.PresenceMonitor;
 import com.fatiguedetector.app.mediapipe.FatigueResult;
+import com.fatiguedetector.app.service.FatigueMonitorService;
 
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.ServiceConnection;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.os.IBinder;
 import android.util.Base64;
 
 import com.facebook.react.bridge.Arguments;
@@ -12,17 +33,168 @@ import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
-public class FatigueDetectorModule extends ReactContextBaseJavaModule {
+/**
+ * Thin RN client of FatigueMonitorService.
+ *
+ * The service owns camera, analyzer and alerting; this module binds to
+ * it, forwards configuration to the analysis thread and relays results /
+ * alerts as events. Nothing here depends on the JS thread keeping up.
+ */
+public class FatigueDetectorModule extends ReactContextBaseJavaModule
+    implements FatigueMonitorService.Listener {
 
-  private final MediaPipeFaceAnalyzer analyzer;
+  public static final String ALERT_EVENT = "FatigueAlert";
+  public static final String RESULT_EVENT = "FatigueResult";
+  public static final String MONITORING_EVENT = "FatigueMonitoring";
+  public static final String ERROR_EVENT = "FatigueError";
+
+  // Live results are relayed at most this often (alerts always go through)
+  private static final long RESULT_EVENT_INTERVAL_MS = 250;
+
+  private static final int DEFAULT_TFLITE_THREADS = 4;
+  private static final int BENCHMARK_WARMUP = 5;
+
+  private final Context appContext;
+
+  // Service calls issued before the service is connected
+  private final List<Consumer<FatigueMonitorService>> pending = new ArrayList<>();
+  private FatigueMonitorService service;
+
+  private long lastResultEventTs = -1;
+
+  private final ServiceConnection connection = new ServiceConnection() {
+    @Override
+    public void onServiceConnected(ComponentName name, IBinder binder) {
+      FatigueMonitorService s =
+          ((FatigueMonitorService.LocalBinder) binder).getService();
+      s.addListener(FatigueDetectorModule.this);
+      synchronized (pending) {
+        service = s;
+        for (Consumer<FatigueMonitorService> action : pending) {
+          action.accept(s);
+        }
+        pending.clear();
+      }
+    }
+
+    @Override
+    public void onServiceDisconnected(ComponentName name) {
+      synchronized (pending) {
+        service = null;
+      }
+    }
+  };
 
   public FatigueDetectorModule(ReactApplicationContext reactContext) {
     super(reactContext);
-    analyzer = new MediaPipeFaceAnalyzer(reactContext);
+    appContext = reactContext.getApplicationContext();
+    appContext.bindService(
+        new Intent(appContext, FatigueMonitorService.class),
+        connection,
+        Context.BIND_AUTO_CREATE);
+  }
+
+  /** Runs against the bound service, queued until bound. */
+  private void withService(Consumer<FatigueMonitorService> action) {
+    FatigueMonitorService s;
+    synchronized (pending) {
+      if (service == null) {
+        pending.add(action);
+        return;
+      }
+      s = service;
+    }
+    action.accept(s);
+  }
+
+  /** Runs on the service's analysis thread, queued until bound. */
+  private void withAnalyzer(Consumer<MediaPipeFaceAnalyzer> action) {
+    withService(s -> s.withAnalyzer(action, null));
+  }
+
+  /** As above; rejects {@code promise} if the analyzer failed to load. */
+  private void withAnalyzer(Promise promise, Consumer<MediaPipeFaceAnalyzer> action) {
+    withService(s -> s.withAnalyzer(action,
+        error -> promise.reject("ANALYZER_UNAVAILABLE", error)));
+  }
+
+  /** JS-landmarked eye points, on the analysis thread, queued until bound. */
+  private void withPointAnalyzer(Consumer<EyePointAnalyzer> action) {
+    withService(s -> s.withPointAnalyzer(action));
+  }
+
+  /** Window history, on the analysis thread, queued until bound. */
+  private void withWindowStore(Consumer<WindowStore> action) {
+    withService(s -> s.withWindowStore(action));
+  }
+
+  // =====================================================
+  // SERVICE EVENTS (analysis thread)
+  // =====================================================
+  @Override
+  public void onResult(FatigueResult r) {
+    if (!r.alertTriggered &&
+        lastResultEventTs > 0 &&
+        r.timestamp - lastResultEventTs < RESULT_EVENT_INTERVAL_MS) {
+      return;
+    }
+    lastResultEventTs = r.timestamp;
+    emit(RESULT_EVENT, toWritableMap(r));
+  }
+
+  /** Already played by the service; tell JS. */
+  @Override
+  public void onAlert(FatigueLevel level, long timestamp) {
+    WritableMap event = Arguments.createMap();
+    event.putString("level", level.name());
+    event.putDouble("timestamp", timestamp);
+    emit(ALERT_EVENT, event);
+  }
+
+  /** Also fires for the notification's Stop action, which JS never sees. */
+  @Override
+  public void onMonitoringChanged(boolean monitoring) {
+    WritableMap event = Arguments.createMap();
+    event.putBoolean("monitoring", monitoring);
+    emit(MONITORING_EVENT, event);
+  }
+
+  @Override
+  public void onAnalyzerError(String message) {
+    WritableMap event = Arguments.createMap();
+    event.putString("code", "ANALYZER_UNAVAILABLE");
+    event.putString("message", message);
+    emit(ERROR_EVENT, event);
+  }
+
+  private void emit(String eventName, WritableMap payload) {
+    ReactApplicationContext ctx = getReactApplicationContext();
+    if (!ctx.hasActiveReactInstance()) return;
+    ctx.getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+        .emit(eventName, payload);
+  }
+
+  /** Unbinds only: monitoring keeps running without JS. */
+  @Override
+  public void invalidate() {
+    synchronized (pending) {
+      if (service != null) service.removeListener(this);
+      service = null;
+      pending.clear();
+    }
+    appContext.unbindService(connection);
+    super.invalidate();
   }
 
   @Override
@@ -30,58 +202,522 @@ public class FatigueDetectorModule extends ReactContextBaseJavaModule {
     return "FatigueDetector";
   }
 
+  /**
+   * The analyzer reuses its result holder, so it is copied out here before
+   * the next frame. The map itself is handed to the bridge and cannot be
+   * pooled.
+   */
+  private static WritableMap toWritableMap(FatigueResult r) {
+    WritableMap result = Arguments.createMap();
+    result.putBoolean("faceDetected", r.faceDetected);
+    result.putBoolean("faceHeld", r.faceHeld);
+    result.putBoolean("isCalibrating", r.isCalibrating);
+    result.putDouble("leftEAR", r.leftEAR);
+    result.putDouble("rightEAR", r.rightEAR);
+    result.putDouble("avgEAR", r.avgEAR);
+    result.putDouble("baselineEAR", r.baselineEAR);
+    result.putDouble("normalizedEAR", r.normalizedEAR);
+    result.putDouble("normalizedEARMean", r.normalizedEARMean);
+    result.putDouble("normalizedEARVariance", r.normalizedEARVariance);
+    WritableArray horizons = Arguments.createArray();
+    for (int i = 0; i < r.horizonCount; i++) {
+      WritableMap h = Arguments.createMap();
+      h.putDouble("windowMs", r.horizonMs[i]);
+      h.putDouble("perclos", r.horizonPerclos[i]);
+      h.putDouble("blinkRate", r.horizonBlinkRate[i]);
+      h.putDouble("earVariance", r.horizonEarVariance[i]);
+      horizons.pushMap(h);
+    }
+    result.putArray("horizons", horizons);
+    result.putBoolean("blinkDetected", r.blinkDetected);
+    result.putDouble("blinkRate", r.blinkRate);
+    result.putDouble("blinkEntropy", r.blinkEntropy);
+    result.putDouble("perclos", r.perclos);
+    result.putString("fatigueLevel", r.fatigueLevel.name());
+    result.putDouble("confidence", r.confidence);
+    result.putString("frameQuality", r.frameQuality.name());
+    result.putInt("lowQualityFrames", r.lowQualityFrames);
+    result.putBoolean("trackedFrame", r.trackedFrame);
+    result.putDouble("trackingConfidence", r.trackingConfidence);
+    result.putInt("resolutionTier", r.resolutionTier);
+    result.putDouble("inferenceMs", r.inferenceMs);
+    result.putString("presenceMode", r.presenceMode.name());
+    result.putDouble("mouthAspectRatio", r.mouthAspectRatio);
+    result.putBoolean("yawnDetected", r.yawnDetected);
+    result.putInt("yawnCount", r.yawnCount);
+    result.putDouble("headPitch", r.headPitch);
+    result.putDouble("headYaw", r.headYaw);
+    result.putDouble("headRoll", r.headRoll);
+    result.putBoolean("headDropped", r.headDropped);
+    result.putDouble("gazeX", r.gazeX);
+    result.putDouble("gazeY", r.gazeY);
+    result.putDouble("featureStageMs", r.featureStageMs);
+    result.putString("alertLevel", r.alertLevel.name());
+    result.putBoolean("alertTriggered", r.alertTriggered);
+    result.putDouble("timestamp", r.timestamp);
+    return result;
+  }
+
+  // =====================================================
+  // MONITORING
+  // =====================================================
+
+  /** Starts the foreground service (camera + analysis). */
+  @ReactMethod
+  public void startMonitoring(Promise promise) {
+    try {
+      FatigueMonitorService.start(appContext);
+      promise.resolve(null);
+    } catch (Exception e) {
+      promise.reject("START_ERROR", e.getMessage(), e);
+    }
+  }
+
+  @ReactMethod
+  public void stopMonitoring() {
+    FatigueMonitorService.stop(appContext);
+  }
+
+  @ReactMethod
+  public void getMonitorStatus(Promise promise) {
+    FatigueMonitorService s;
+    synchronized (pending) {
+      s = service;
+    }
+    WritableMap out = Arguments.createMap();
+    out.putBoolean("bound", s != null);
+    out.putBoolean("monitoring", s != null && s.isMonitoring());
+    out.putDouble("framesAnalyzed", s != null ? s.getFramesAnalyzed() : 0);
+    out.putDouble("framesDropped", s != null ? s.getFramesDropped() : 0);
+    out.putDouble("fps", s != null ? s.getFps() : 0);
+    out.putDouble("lastFrameTs", s != null ? s.getLastFrameTs() : -1);
+    if (s != null && s.getAnalyzerError() != null) {
+      out.putString("error", s.getAnalyzerError());
+    }
+    promise.resolve(out);
+  }
+
+  /** Minimum time between analyzed camera frames. */
+  @ReactMethod
+  public void setFrameIntervalMs(double ms) {
+    withService(s -> s.setFrameIntervalMs((long) ms));
+  }
+
+  // =====================================================
+  // ANALYZER CONFIG (forwarded to the analysis thread)
+  // =====================================================
   @ReactMethod
   public void resetState() {
-    analyzer.resetState();
+    withAnalyzer(MediaPipeFaceAnalyzer::resetState);
   }
 
   @ReactMethod
-  public void analyzeFrame(String base64Image, Promise promise) {
+  public void setKeyframeInterval(int interval) {
+    withAnalyzer(a -> a.setKeyframeInterval(interval));
+  }
+
+  /** "RULES" | "MODEL"; rejects MODEL when no model is loaded */
+  @ReactMethod
+  public void setClassificationStrategy(String strategy, Promise promise) {
+    ClassificationStrategy next;
     try {
-      byte[] bytes = Base64.decode(base64Image, Base64.DEFAULT);
-      Bitmap bitmap = BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
+      next = ClassificationStrategy.valueOf(strategy);
+    } catch (IllegalArgumentException e) {
+      promise.reject("BAD_STRATEGY", "Unknown strategy: " + strategy, e);
+      return;
+    }
+    withAnalyzer(promise, a -> {
+      if (!a.setClassificationStrategy(next)) {
+        promise.reject("NO_MODEL", "No classification model loaded");
+        return;
+      }
+      promise.resolve(next.name());
+    });
+  }
 
-      if (bitmap == null) {
-        promise.reject("DECODE_ERROR", "Failed to decode bitmap");
+  /** Loads a retrained model file and switches to it */
+  @ReactMethod
+  public void loadModel(String path, Promise promise) {
+    withAnalyzer(promise, a -> {
+      try {
+        a.loadModel(path);
+        promise.resolve(a.getClassificationStrategy().name());
+      } catch (Exception e) {
+        promise.reject("MODEL_LOAD_ERROR", e.getMessage(), e);
+      }
+    });
+  }
+
+  @ReactMethod
+  public void setLatencyBudgetMs(double ms) {
+    withAnalyzer(a -> a.getResolutionGovernor().setLatencyBudgetMs(ms));
+  }
+
+  /**
+   * Optional keys: enabled, confidenceThreshold, mediumSustainMs,
+   * highSustainMs, releaseMs, cooldownMs
+   */
+  @ReactMethod
+  public void configureAlerts(ReadableMap config) {
+    // Read on the calling thread; the map must not cross threads
+    Boolean enabled = config.hasKey("enabled") ? config.getBoolean("enabled") : null;
+    Double threshold = config.hasKey("confidenceThreshold")
+        ? config.getDouble("confidenceThreshold") : null;
+    Double mediumSustainMs = config.hasKey("mediumSustainMs")
+        ? config.getDouble("mediumSustainMs") : null;
+    Double highSustainMs = config.hasKey("highSustainMs")
+        ? config.getDouble("highSustainMs") : null;
+    Double releaseMs = config.hasKey("releaseMs")
+        ? config.getDouble("releaseMs") : null;
+    Double cooldownMs = config.hasKey("cooldownMs")
+        ? config.getDouble("cooldownMs") : null;
+
+    Consumer<FatigueAlertEngine> apply = alerts -> {
+      if (enabled != null) alerts.setEnabled(enabled);
+      if (threshold != null) alerts.setConfidenceThreshold(threshold);
+      if (mediumSustainMs != null) alerts.setMediumSustainMs(mediumSustainMs.longValue());
+      if (highSustainMs != null) alerts.setHighSustainMs(highSustainMs.longValue());
+      if (releaseMs != null) alerts.setReleaseMs(releaseMs.longValue());
+      if (cooldownMs != null) alerts.setCooldownMs(cooldownMs.longValue());
+    };
+    withAnalyzer(a -> apply.accept(a.getAlertEngine()));
+    withPointAnalyzer(p -> apply.accept(p.getAlertEngine()));
+  }
+
+  /**
+   * Optional keys: enabled, interval (run on every Nth mesh frame)
+   */
+  @ReactMethod
+  public void configureFeatureStage(String name, ReadableMap config, Promise promise) {
+    Boolean enabled = config.hasKey("enabled") ? config.getBoolean("enabled") : null;
+    Integer interval = config.hasKey("interval") ? config.getInt("interval") : null;
+
+    withAnalyzer(promise, a -> {
+      FeatureStageRunner stages = a.getFeatureStages();
+      boolean known = true;
+      if (enabled != null) {
+        known = stages.setEnabled(name, enabled);
+      }
+      if (known && interval != null) {
+        known = stages.setInterval(name, interval);
+      }
+      if (!known) {
+        promise.reject("UNKNOWN_STAGE", "No feature stage named " + name);
         return;
       }
+      promise.resolve(null);
+    });
+  }
 
-      FatigueResult r = analyzer.analyze(bitmap);
+  /** Per-stage schedule, run count and timing. */
+  @ReactMethod
+  public void getFeatureStageStats(Promise promise) {
+    withAnalyzer(promise, a -> {
+      FeatureStageRunner stages = a.getFeatureStages();
+      WritableArray out = Arguments.createArray();
+      for (int i = 0; i < stages.getStageCount(); i++) {
+        WritableMap s = Arguments.createMap();
+        s.putString("name", stages.getStage(i).name());
+        s.putBoolean("enabled", stages.isEnabled(i));
+        s.putBoolean("active", stages.isActive(i));
+        s.putInt("interval", stages.getInterval(i));
+        s.putDouble("runs", stages.getRuns(i));
+        s.putDouble("lastMs", stages.getLastMs(i));
+        s.putDouble("avgMs", stages.getAvgMs(i));
+        out.pushMap(s);
+      }
+      promise.resolve(out);
+    });
+  }
 
-      if (r == null) {
-        if (!bitmap.isRecycled()) {
-          bitmap.recycle();
+  /** Time spent in full landmarking vs low-power presence mode. */
+  @ReactMethod
+  public void getPresenceStats(Promise promise) {
+    withAnalyzer(promise, a -> {
+      PresenceMonitor presence = a.getPresenceMonitor();
+      long now = System.currentTimeMillis();
+      WritableMap out = Arguments.createMap();
+      out.putString("mode", presence.getMode().name());
+      out.putDouble("activeMs", presence.getActiveMs(now));
+      out.putDouble("idleMs", presence.getIdleMs(now));
+      out.putInt("idleEntries", presence.getIdleEntries());
+      out.putDouble("idleSamples", presence.getIdleSamples());
+      promise.resolve(out);
+    });
+  }
+
+  /** Idle-mode sampling period (one presence check per interval). */
+  @ReactMethod
+  public void setIdleSampleIntervalMs(double ms) {
+    withAnalyzer(a -> a.getPresenceMonitor().setIdleSampleMs((long) ms));
+  }
+
+  // =====================================================
+  // LANDMARK BACKEND
+  // =====================================================
+
+  /**
+   * "MEDIAPIPE" | "TFLITE". Optional keys (TFLITE only): threads, xnnpack.
+   * Resolves with the engine name, e.g. "tflite-4t-xnn".
+   */
+  @ReactMethod
+  public void setLandmarkBackend(String backend, ReadableMap config, Promise promise) {
+    LandmarkBackend next;
+    try {
+      next = LandmarkBackend.valueOf(backend);
+    } catch (IllegalArgumentException e) {
+      promise.reject("BAD_BACKEND", "Unknown landmark backend: " + backend, e);
+      return;
+    }
+    int threads = config.hasKey("threads")
+        ? config.getInt("threads") : DEFAULT_TFLITE_THREADS;
+    boolean xnnpack = !config.hasKey("xnnpack") || config.getBoolean("xnnpack");
+
+    withAnalyzer(promise, a -> {
+      try {
+        LandmarkEngine engine = next.create(appContext, threads, xnnpack);
+        a.setLandmarkEngine(engine);
+        promise.resolve(engine.name());
+      } catch (Exception e) {
+        promise.reject("BACKEND_ERROR", e.getMessage(), e);
+      }
+    });
+  }
+
+  @ReactMethod
+  public void getLandmarkBackend(Promise promise) {
+    withAnalyzer(promise, a -> promise.resolve(a.getLandmarkEngine().name()));
+  }
+
+  /**
+   * Times each backend config ({backend, threads?, xnnpack?}) on one
+   * image, on fresh engines. Runs on the analysis thread, so live frames
+   * are held back meanwhile.
+   */
+  @ReactMethod
+  public void benchmarkLandmarkBackends(
+      String path, ReadableArray configs, int iterations, Promise promise
+  ) {
+    int n = configs.size();
+    LandmarkBackend[] backends = new LandmarkBackend[n];
+    int[] threads = new int[n];
+    boolean[] xnnpack = new boolean[n];
+    try {
+      for (int i = 0; i < n; i++) {
+        ReadableMap c = configs.getMap(i);
+        backends[i] = LandmarkBackend.valueOf(c.getString("backend"));
+        threads[i] = c.hasKey("threads") ? c.getInt("threads") : DEFAULT_TFLITE_THREADS;
+        xnnpack[i] = !c.hasKey("xnnpack") || c.getBoolean("xnnpack");
+      }
+    } catch (Exception e) {
+      promise.reject("BAD_BACKEND", e.getMessage(), e);
+      return;
+    }
+
+    Bitmap bitmap = BitmapFactory.decodeFile(path);
+    if (bitmap == null) {
+      promise.reject("DECODE_ERROR", "Failed to decode bitmap from path");
+      return;
+    }
+
+    withAnalyzer(promise, a -> {
+      WritableArray out = Arguments.createArray();
+      try {
+        int maxSide = a.getResolutionGovernor().getMaxSide();
+        for (int i = 0; i < n; i++) {
+          try (LandmarkEngine engine =
+                   backends[i].create(appContext, threads[i], xnnpack[i])) {
+            LandmarkBenchmark.Result r = LandmarkBenchmark.run(
+                engine, bitmap, maxSide, BENCHMARK_WARMUP, iterations);
+            WritableMap m = Arguments.createMap();
+            m.putString("engine", r.engine);
+            m.putInt("iterations", r.iterations);
+            m.putDouble("faceRate", r.faceRate);
+            m.putDouble("avgMs", r.avgMs);
+            m.putDouble("p50Ms", r.p50Ms);
+            m.putDouble("p90Ms", r.p90Ms);
+            m.putDouble("maxMs", r.maxMs);
+            out.pushMap(m);
+          }
         }
-        WritableMap res = Arguments.createMap();
-        res.putBoolean("faceDetected", false);
-        res.putDouble("timestamp", System.currentTimeMillis());
-        promise.resolve(res);
-        return;
+        promise.resolve(out);
+      } catch (Exception e) {
+        promise.reject("BENCHMARK_ERROR", e.getMessage(), e);
+      } finally {
+        bitmap.recycle();
       }
+    });
+  }
 
-      WritableMap result = Arguments.createMap();
-      result.putBoolean("faceDetected", r.faceDetected);
-      result.putBoolean("isCalibrating", r.isCalibrating);
-      result.putDouble("leftEAR", r.leftEAR);
-      result.putDouble("rightEAR", r.rightEAR);
-      result.putDouble("avgEAR", r.avgEAR);
-      result.putBoolean("blinkDetected", r.blinkDetected);
-      result.putDouble("blinkRate", r.blinkRate);
-      result.putDouble("blinkEntropy", r.blinkEntropy);
-      result.putDouble("perclos", r.perclos);
-      result.putString("fatigueLevel", r.fatigueLevel.name());
-      result.putDouble("confidence", r.confidence);
-      result.putDouble("timestamp", r.timestamp);
+  // =====================================================
+  // HISTORY QUERIES (aggregated natively; raw records stay here)
+  // =====================================================
 
-        if (!bitmap.isRecycled()) {
-          bitmap.recycle();
+  /**
+   * Buckets of bucketMs over [from, to): count / face / valid /
+   * low-confidence counts, level distribution and min / max / mean per
+   * metric. Bucket size widens to keep at most WindowStore.MAX_BUCKETS.
+   */
+  @ReactMethod
+  public void queryWindowRollup(double from, double to, double bucketMs, Promise promise) {
+    withWindowStore(store -> {
+      WindowRollup r = store.rollup((long) from, (long) to, (long) bucketMs);
+      WritableArray buckets = Arguments.createArray();
+      for (int i = 0; i < r.buckets.length; i++) {
+        WritableMap b = toWritableMap(r.buckets[i]);
+        b.putDouble("start", r.bucketStart(i));
+        buckets.pushMap(b);
+      }
+      WritableMap out = Arguments.createMap();
+      out.putDouble("from", r.from);
+      out.putDouble("bucketMs", r.bucketMs);
+      out.putArray("buckets", buckets);
+      out.putMap("total", toWritableMap(r.total));
+      promise.resolve(out);
+    });
+  }
+
+  /** LTTB-downsampled series of one metric over [from, to). */
+  @ReactMethod
+  public void queryWindowSeries(
+      String metric, double from, double to, int maxPoints, Promise promise
+  ) {
+    int m = WindowStore.metricIndex(metric);
+    if (m < 0) {
+      promise.reject("UNKNOWN_METRIC", "No window metric named " + metric);
+      return;
+    }
+    withWindowStore(store -> {
+      WindowSeries s = store.downsample(m, (long) from, (long) to, maxPoints);
+      WritableArray t = Arguments.createArray();
+      WritableArray v = Arguments.createArray();
+      for (int i = 0; i < s.size; i++) {
+        t.pushDouble(s.timestamps[i]);
+        v.pushDouble(s.values[i]);
+      }
+      WritableMap out = Arguments.createMap();
+      out.putString("metric", metric);
+      out.putArray("timestamps", t);
+      out.putArray("values", v);
+      out.putInt("sourceSize", s.sourceSize);
+      promise.resolve(out);
+    });
+  }
+
+  /** Monitoring sessions (oldest first) with their rollup. */
+  @ReactMethod
+  public void getWindowSessions(Promise promise) {
+    withWindowStore(store -> {
+      long now = System.currentTimeMillis();
+      WritableArray out = Arguments.createArray();
+      for (int i = 0; i < store.getSessionCount(); i++) {
+        long start = store.getSessionStart(i);
+        long end = store.getSessionEnd(i);
+        WritableMap s = toWritableMap(store.rollup(start, end < 0 ? now + 1 : end));
+        s.putDouble("startTime", start);
+        s.putDouble("endTime", end);
+        out.pushMap(s);
+      }
+      promise.resolve(out);
+    });
+  }
+
+  /** Everything retained plus the covered time range. */
+  @ReactMethod
+  public void getWindowHistoryStats(Promise promise) {
+    withWindowStore(store -> {
+      WritableMap out = toWritableMap(store.getTotal());
+      out.putDouble("firstTs", store.getFirstTs());
+      out.putDouble("lastTs", store.getLastTs());
+      promise.resolve(out);
+    });
+  }
+
+  /** Newest-first raw records; keep limit small (debug lists). */
+  @ReactMethod
+  public void getRecentWindows(int limit, Promise promise) {
+    withWindowStore(store -> {
+      WritableArray out = Arguments.createArray();
+      for (WindowSample w : store.recent(limit)) {
+        WritableMap m = Arguments.createMap();
+        m.putDouble("timestamp", w.timestamp);
+        m.putBoolean("faceDetected", w.faceDetected);
+        m.putBoolean("valid", w.valid);
+        m.putString("fatigueLevel", w.fatigueLevel.name());
+        for (int i = 0; i < WindowStore.METRIC_COUNT; i++) {
+          m.putDouble(WindowStore.metricName(i), w.metrics[i]);
         }
-      promise.resolve(result);
+        out.pushMap(m);
+      }
+      promise.resolve(out);
+    });
+  }
+
+  @ReactMethod
+  public void clearWindowHistory() {
+    withWindowStore(WindowStore::clear);
+  }
+
+  private static WritableMap toWritableMap(RollupStats r) {
+    WritableMap out = Arguments.createMap();
+    out.putInt("count", r.count);
+    out.putInt("faceCount", r.faceCount);
+    out.putInt("validCount", r.validCount);
+    out.putDouble("noFaceRate", r.noFaceRate());
+    out.putDouble("lowConfidenceRate", r.lowConfidenceRate());
+
+    WritableMap levels = Arguments.createMap();
+    for (FatigueLevel level : FatigueLevel.values()) {
+      levels.putDouble(level.name(), r.levelShare(level));
+    }
+    out.putMap("levelDistribution", levels);
+
+    WritableMap metrics = Arguments.createMap();
+    for (int m = 0; m < WindowStore.METRIC_COUNT; m++) {
+      WritableMap s = Arguments.createMap();
+      if (r.validCount > 0) {
+        s.putDouble("min", r.min[m]);
+        s.putDouble("max", r.max[m]);
+        s.putDouble("mean", r.mean(m));
+      } else {
+        s.putNull("min");
+        s.putNull("max");
+        s.putNull("mean");
+      }
+      metrics.putMap(WindowStore.metricName(m), s);
+    }
+    out.putMap("metrics", metrics);
+    return out;
+  }
+
+  // Required by NativeEventEmitter
+  @ReactMethod
+  public void addListener(String eventName) {}
+
+  @ReactMethod
+  public void removeListeners(Integer count) {}
+
+  // =====================================================
+  // STILL FRAMES (debug / tests; own analyzer, never the live monitor)
+  // =====================================================
+  @ReactMethod
+  public void analyzeFrame(String base64Image, Promise promise) {
+    try {
+      byte[] bytes = Base64.decode(base64Image, Base64.DEFAULT);
+      Bitmap bitmap = BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
+
+      if (bitmap == null) {
+        promise.reject("DECODE_ERROR", "Failed to decode bitmap");
+        return;
+      }
+
+      analyzeStill(bitmap, promise, "ANALYZE_BASE64_ERROR");
 
     } catch (Exception e) {
       promise.reject("ANALYZE_BASE64_ERROR", e.getMessage(), e);
     }
   }
+
   @ReactMethod
   public void analyzeFrameFromPath(String path, Promise promise) {
     try {
@@ -99,40 +735,66 @@ public class FatigueDetectorModule extends ReactContextBaseJavaModule {
         return;
       }
 
-      FatigueResult r = analyzer.analyze(bitmap);
+      analyzeStill(bitmap, promise, "ANALYZE_PATH_ERROR");
 
-      if (r == null) {
-        if (!bitmap.isRecycled()) {
-          bitmap.recycle();
-        }
-        WritableMap res = Arguments.createMap();
-        res.putBoolean("faceDetected", false);
-        res.putDouble("timestamp", System.currentTimeMillis());
-        promise.resolve(res);
+    } catch (Exception e) {
+      promise.reject("ANALYZE_PATH_ERROR", e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Eye points from a JS frame source, scored by their own window
+   * engine (never the live monitor's). Empty array = no face.
+   */
+  @ReactMethod
+  public void analyzeEyePoints(ReadableArray points, double timestamp, Promise promise) {
+    float[] pts = null;
+    if (points.size() > 0) {
+      if (points.size() != EyeGeometry.COORD_COUNT) {
+        promise.reject("BAD_POINTS",
+            "Expected " + EyeGeometry.COORD_COUNT + " coordinates, got " + points.size());
         return;
       }
+      pts = new float[EyeGeometry.COORD_COUNT];
+      for (int i = 0; i < pts.length; i++) pts[i] = (float) points.getDouble(i);
+    }
+    float[] eyePoints = pts;
+
+    withPointAnalyzer(a -> {
+      try {
+        promise.resolve(toWritableMap(a.analyze(eyePoints, (long) timestamp)));
+      } catch (Exception e) {
+        promise.reject("ANALYZE_POINTS_ERROR", e.getMessage(), e);
+      }
+    });
+  }
 
-      WritableMap result = Arguments.createMap();
-      result.putBoolean("faceDetected", r.faceDetected);
-      result.putBoolean("isCalibrating", r.isCalibrating);
-      result.putDouble("leftEAR", r.leftEAR);
-      result.putDouble("rightEAR", r.rightEAR);
-      result.putDouble("avgEAR", r.avgEAR);
-      result.putBoolean("blinkDetected", r.blinkDetected);
-      result.putDouble("blinkRate", r.blinkRate);
-      result.putDouble("blinkEntropy", r.blinkEntropy);
-      result.putDouble("perclos", r.perclos);
-      result.putString("fatigueLevel", r.fatigueLevel.name());
-      result.putDouble("confidence", r.confidence);
-      result.putDouble("timestamp", r.timestamp);
+  /** Temporal + baseline state of the eye-point analyzer only. */
+  @ReactMethod
+  public void resetEyePointState() {
+    withPointAnalyzer(EyePointAnalyzer::reset);
+  }
+
+  /** Temporal + baseline state of the stills analyzer only. */
+  @ReactMethod
+  public void resetStillState() {
+    withService(s -> s.withStillAnalyzer(MediaPipeFaceAnalyzer::resetState, null));
+  }
+
+  private void analyzeStill(Bitmap bitmap, Promise promise, String errorCode) {
+    withService(s -> s.withStillAnalyzer(a -> {
+      try {
+        promise.resolve(toWritableMap(a.analyze(bitmap)));
+      } catch (Exception e) {
+        promise.reject(errorCode, e.getMessage(), e);
+      } finally {
         if (!bitmap.isRecycled()) {
           bitmap.recycle();
         }
-      promise.resolve(result);
-
-    } catch (Exception e) {
-      promise.reject("ANALYZE_PATH_ERROR", e.getMessage(), e);
-    }
+      }
+    }, error -> {
+      bitmap.recycle();
+      promise.reject("ANALYZER_UNAVAILABLE", error);
+    }));
   }
-
-}
\ No newline at end of file
+}
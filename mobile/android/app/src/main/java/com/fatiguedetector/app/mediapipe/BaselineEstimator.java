@@ -0,0 +1,175 @@
+package com.fatiguedetector.app.mediapipe;
+
+/**
+ * Streaming robust open-eye EAR baseline.
+ *
+ * Keeps the most recent RESERVOIR_SIZE in-range EAR samples and uses
+ * their median as the estimate. During calibration it locks as soon as
+ * the 95% confidence half-width (from the MAD) is within LOCK_REL_CI of
+ * the median, or at MAX_LOCK_MS like the old fixed window. After locking
+ * it keeps adapting slowly from open-eye frames only, so lighting /
+ * posture drift no longer needs a full resetState().
+ *
+ * Pure Java, preallocated buffers, no allocation per sample.
+ */
+public final class BaselineEstimator {
+
+  // =====================================================
+  // CALIBRATION
+  // =====================================================
+  private static final int RESERVOIR_SIZE = 64;
+  private static final int MIN_LOCK_SAMPLES = 8;
+  private static final long MAX_LOCK_MS = 3_000;
+  private static final double LOCK_REL_CI = 0.04;
+
+  private static final double VALID_MIN_EAR = 0.15;
+  private static final double VALID_MAX_EAR = 0.35;
+  private static final double MIN_BASELINE = 0.18;
+
+  // MAD -> sigma, and median standard error factor (sqrt(pi / 2))
+  private static final double MAD_TO_SIGMA = 1.4826;
+  private static final double MEDIAN_SE_FACTOR = 1.2533;
+
+  // =====================================================
+  // DRIFT
+  // =====================================================
+  private static final int ADAPT_EVERY = 32;
+  private static final double ADAPT_GAIN = 0.1;
+  private static final double MAX_ADAPT_STEP = 0.005;
+
+  // =====================================================
+  // STATE
+  // =====================================================
+  private final double[] reservoir = new double[RESERVOIR_SIZE];
+  private final double[] sorted = new double[RESERVOIR_SIZE];
+  private int head = 0;
+  private int count = 0;
+
+  private long startTs = -1;
+  private double baseline = -1;
+  private int samplesSinceAdapt = 0;
+
+  private double lastMedian;
+  private double lastCiHalfWidth;
+
+  public boolean isLocked() {
+    return baseline > 0;
+  }
+
+  public double get() {
+    return baseline;
+  }
+
+  /** 95% CI half-width of the last estimate (EAR units) */
+  public double getCiHalfWidth() {
+    return lastCiHalfWidth;
+  }
+
+  // =====================================================
+  // CALIBRATION
+  // =====================================================
+
+  /**
+   * Feed one calibration frame.
+   *
+   * @return true when this frame locked the baseline
+   */
+  public boolean offerCalibration(double avgEAR, long now) {
+    if (isLocked()) return false;
+    if (startTs < 0) startTs = now;
+
+    if (avgEAR > VALID_MIN_EAR && avgEAR < VALID_MAX_EAR) {
+      push(avgEAR);
+    }
+
+    if (count < MIN_LOCK_SAMPLES) return false;
+
+    estimate();
+
+    boolean tight = lastCiHalfWidth <= LOCK_REL_CI * lastMedian;
+    boolean timedOut = now - startTs >= MAX_LOCK_MS;
+
+    if (tight || timedOut) {
+      baseline = Math.max(MIN_BASELINE, lastMedian);
+      samplesSinceAdapt = 0;
+      return true;
+    }
+    return false;
+  }
+
+  // =====================================================
+  // DRIFT
+  // =====================================================
+
+  /** Feed a post-lock frame the caller has classified as open-eye. */
+  public void offerOpenEye(double avgEAR) {
+    if (!isLocked()) return;
+    if (avgEAR <= VALID_MIN_EAR || avgEAR >= VALID_MAX_EAR) return;
+
+    push(avgEAR);
+    if (++samplesSinceAdapt < ADAPT_EVERY) return;
+    samplesSinceAdapt = 0;
+
+    estimate();
+    double step = ADAPT_GAIN * (lastMedian - baseline);
+    step = Math.max(-MAX_ADAPT_STEP, Math.min(MAX_ADAPT_STEP, step));
+    baseline = Math.max(MIN_BASELINE, baseline + step);
+  }
+
+  // =====================================================
+  // INTERNALS
+  // =====================================================
+  private void push(double v) {
+    reservoir[(head + count) % RESERVOIR_SIZE] = v;
+    if (count < RESERVOIR_SIZE) {
+      count++;
+    } else {
+      head = (head + 1) % RESERVOIR_SIZE;
+    }
+  }
+
+  /** Median + MAD-based CI over the reservoir. */
+  private void estimate() {
+    for (int i = 0; i < count; i++) {
+      sorted[i] = reservoir[(head + i) % RESERVOIR_SIZE];
+    }
+    insertionSort(sorted, count);
+    double median = median(sorted, count);
+
+    for (int i = 0; i < count; i++) {
+      sorted[i] = Math.abs(sorted[i] - median);
+    }
+    insertionSort(sorted, count);
+    double sigma = MAD_TO_SIGMA * median(sorted, count);
+
+    lastMedian = median;
+    lastCiHalfWidth = 1.96 * MEDIAN_SE_FACTOR * sigma / Math.sqrt(count);
+  }
+
+  private static void insertionSort(double[] a, int n) {
+    for (int i = 1; i < n; i++) {
+      double v = a[i];
+      int j = i - 1;
+      while (j >= 0 && a[j] > v) {
+        a[j + 1] = a[j];
+        j--;
+      }
+      a[j + 1] = v;
+    }
+  }
+
+  private static double median(double[] a, int n) {
+    int mid = n / 2;
+    return (n & 1) == 1 ? a[mid] : (a[mid - 1] + a[mid]) / 2.0;
+  }
+
+  public void reset() {
+    head = 0;
+    count = 0;
+    startTs = -1;
+    baseline = -1;
+    samplesSinceAdapt = 0;
+    lastMedian = 0;
+    lastCiHalfWidth = 0;
+  }
+}
@@ -0,0 +1,44 @@
+package com.fatiguedetector.app.mediapipe;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+/**
+ * Downscales frames into a reused bitmap before inference.
+ * The target is reallocated only when the output size changes.
+ */
+final class BitmapScaler {
+
+  private Bitmap scaled;
+  private Canvas scaledCanvas;
+  private final Rect scaledRect = new Rect();
+  private final Paint scalePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+  /**
+   * @param maxSide longest output side; 0 = unscaled
+   * @return {@code bitmap} itself when it already fits
+   */
+  Bitmap scaleToFit(Bitmap bitmap, int maxSide) {
+    int w = bitmap.getWidth();
+    int h = bitmap.getHeight();
+    int longest = Math.max(w, h);
+    if (maxSide <= 0 || longest <= maxSide) return bitmap;
+
+    int sw = Math.max(1, Math.round((float) w * maxSide / longest));
+    int sh = Math.max(1, Math.round((float) h * maxSide / longest));
+
+    if (scaled == null ||
+        scaled.getWidth() != sw ||
+        scaled.getHeight() != sh) {
+      if (scaled != null) scaled.recycle();
+      scaled = Bitmap.createBitmap(sw, sh, Bitmap.Config.ARGB_8888);
+      scaledCanvas = new Canvas(scaled);
+      scaledRect.set(0, 0, sw, sh);
+    }
+
+    scaledCanvas.drawBitmap(bitmap, null, scaledRect, scalePaint);
+    return scaled;
+  }
+}
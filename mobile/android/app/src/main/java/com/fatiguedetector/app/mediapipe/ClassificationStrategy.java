@@ -0,0 +1,6 @@
+package com.fatiguedetector.app.mediapipe;
+
+public enum ClassificationStrategy {
+  RULES,
+  MODEL
+}
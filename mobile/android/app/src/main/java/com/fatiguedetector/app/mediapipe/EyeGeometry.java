@@ -0,0 +1,47 @@
+package com.fatiguedetector.app.mediapipe;
+
+/**
+ * Face-mesh eye landmark layout + EAR math over a flat coordinate array.
+ *
+ * Only the 12 eye points are needed per frame, so the analyzer copies their
+ * (x, y) into a preallocated float[POINT_COUNT * 2] instead of walking the
+ * full landmark list for every distance.
+ */
+public final class EyeGeometry {
+
+  // -------------------------------------------------
+  // Landmark layout (p1..p6 per eye, EAR ordering)
+  // -------------------------------------------------
+  public static final int[] LANDMARK_INDICES = {
+      33, 160, 158, 133, 153, 144,   // left eye
+      362, 385, 387, 263, 373, 380   // right eye
+  };
+
+  public static final int POINTS_PER_EYE = 6;
+  public static final int POINT_COUNT = LANDMARK_INDICES.length;
+  public static final int COORD_COUNT = POINT_COUNT * 2;
+
+  public static final int LEFT_EYE = 0;
+  public static final int RIGHT_EYE = POINTS_PER_EYE;
+
+  private EyeGeometry() {}
+
+  private static double dist(float[] pts, int a, int b) {
+    double dx = pts[a * 2] - pts[b * 2];
+    double dy = pts[a * 2 + 1] - pts[b * 2 + 1];
+    return Math.sqrt(dx * dx + dy * dy);
+  }
+
+  /**
+   * EAR for one eye.
+   *
+   * @param pts    flat (x, y) array laid out as LANDMARK_INDICES
+   * @param offset LEFT_EYE or RIGHT_EYE
+   */
+  public static double computeEAR(float[] pts, int offset) {
+    double v1 = dist(pts, offset + 1, offset + 5);
+    double v2 = dist(pts, offset + 2, offset + 4);
+    double h  = dist(pts, offset, offset + 3);
+    return h <= 0 ? 0.0 : (v1 + v2) / (2.0 * h);
+  }
+}
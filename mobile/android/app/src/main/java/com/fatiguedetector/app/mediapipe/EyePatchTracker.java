@@ -0,0 +1,258 @@
+package com.fatiguedetector.app.mediapipe;
+
+/**
+ * Cheap eyelid-point tracker used between full face-mesh keyframes.
+ *
+ * On a keyframe it stores a small luma template around each of the 12 EAR
+ * points. On the following frames every point is re-located by normalized
+ * cross-correlation (NCC) in a small search window around its last
+ * position, with parabolic sub-pixel refinement, so EAR is still derived
+ * from the individual eyelid points rather than a rigid eye shift.
+ *
+ * Works on a square ARGB "work frame" (the camera frame scaled to
+ * frameSize x frameSize); only the ROI around the eyes is ever read.
+ * All buffers are preallocated.
+ */
+public final class EyePatchTracker {
+
+  // =====================================================
+  // TUNING
+  // =====================================================
+  private static final int PATCH_RADIUS = 4;          // 9x9 template
+  private static final int PATCH_SIDE = PATCH_RADIUS * 2 + 1;
+  private static final int PATCH_AREA = PATCH_SIDE * PATCH_SIDE;
+  private static final int SEARCH_RADIUS = 6;          // px per frame
+
+  private static final double MIN_POINT_NCC = 0.4;
+  private static final double MIN_MEAN_NCC = 0.6;
+
+  // =====================================================
+  // STATE
+  // =====================================================
+  private final int frameSize;
+  private final float[] luma;
+
+  private final float[] templates =
+      new float[EyeGeometry.POINT_COUNT * PATCH_AREA];
+  private final float[] templateNorms = new float[EyeGeometry.POINT_COUNT];
+  // sub-pixel offset of each point from its (integer) template centre
+  private final float[] residuals = new float[EyeGeometry.COORD_COUNT];
+  private final int[] roi = new int[4];
+
+  private boolean hasKeyframe = false;
+  private double confidence = 0.0;
+
+  public EyePatchTracker(int frameSize) {
+    this.frameSize = frameSize;
+    this.luma = new float[frameSize * frameSize];
+  }
+
+  public int getFrameSize() {
+    return frameSize;
+  }
+
+  public boolean hasKeyframe() {
+    return hasKeyframe;
+  }
+
+  /** Mean NCC of the last track() call, 0..1 */
+  public double getConfidence() {
+    return confidence;
+  }
+
+  public void reset() {
+    hasKeyframe = false;
+    confidence = 0.0;
+  }
+
+  // =====================================================
+  // ROI
+  // =====================================================
+
+  /**
+   * Pixel rect {x, y, w, h} around the given normalized eye points, padded
+   * by patch + search radius and clamped to the work frame. The returned
+   * array is reused.
+   */
+  public int[] roiFor(float[] eyePoints) {
+    float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+    float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+    for (int i = 0; i < EyeGeometry.POINT_COUNT; i++) {
+      float x = eyePoints[i * 2] * frameSize;
+      float y = eyePoints[i * 2 + 1] * frameSize;
+      if (x < minX) minX = x;
+      if (x > maxX) maxX = x;
+      if (y < minY) minY = y;
+      if (y > maxY) maxY = y;
+    }
+    int pad = PATCH_RADIUS + SEARCH_RADIUS + 2;
+    int x0 = clamp((int) Math.floor(minX) - pad);
+    int y0 = clamp((int) Math.floor(minY) - pad);
+    int x1 = clamp((int) Math.ceil(maxX) + pad);
+    int y1 = clamp((int) Math.ceil(maxY) + pad);
+    roi[0] = x0;
+    roi[1] = y0;
+    roi[2] = Math.max(0, x1 - x0 + 1);
+    roi[3] = Math.max(0, y1 - y0 + 1);
+    return roi;
+  }
+
+  private int clamp(int v) {
+    return Math.max(0, Math.min(frameSize - 1, v));
+  }
+
+  /**
+   * Converts the current ROI of an ARGB work frame (stride = frameSize)
+   * into the luma plane.
+   */
+  public void loadRoi(int[] argb) {
+    int x0 = roi[0], y0 = roi[1], w = roi[2], h = roi[3];
+    for (int y = y0; y < y0 + h; y++) {
+      int row = y * frameSize;
+      for (int x = x0; x < x0 + w; x++) {
+        int c = argb[row + x];
+        luma[row + x] = (77 * ((c >> 16) & 0xFF)
+                       + 150 * ((c >> 8) & 0xFF)
+                       + 29 * (c & 0xFF)) >> 8;
+      }
+    }
+  }
+
+  // =====================================================
+  // KEYFRAME
+  // =====================================================
+
+  /** Captures templates at the mesh eye points (ROI must be loaded). */
+  public void setKeyframe(float[] eyePoints) {
+    hasKeyframe = true;
+    confidence = 1.0;
+    for (int p = 0; p < EyeGeometry.POINT_COUNT; p++) {
+      float px = eyePoints[p * 2] * frameSize;
+      float py = eyePoints[p * 2 + 1] * frameSize;
+      int cx = Math.round(px);
+      int cy = Math.round(py);
+      if (!patchInside(cx, cy)) {
+        hasKeyframe = false;
+        return;
+      }
+      residuals[p * 2] = px - cx;
+      residuals[p * 2 + 1] = py - cy;
+
+      int base = p * PATCH_AREA;
+      double sum = 0;
+      for (int dy = -PATCH_RADIUS; dy <= PATCH_RADIUS; dy++) {
+        int row = (cy + dy) * frameSize;
+        for (int dx = -PATCH_RADIUS; dx <= PATCH_RADIUS; dx++) {
+          float v = luma[row + cx + dx];
+          templates[base + (dy + PATCH_RADIUS) * PATCH_SIDE + dx + PATCH_RADIUS] = v;
+          sum += v;
+        }
+      }
+      float mean = (float) (sum / PATCH_AREA);
+      double norm = 0;
+      for (int i = 0; i < PATCH_AREA; i++) {
+        float d = templates[base + i] - mean;
+        templates[base + i] = d;
+        norm += d * d;
+      }
+      templateNorms[p] = (float) Math.sqrt(norm);
+    }
+  }
+
+  // =====================================================
+  // TRACK
+  // =====================================================
+
+  /**
+   * Re-locates every point around its previous position (ROI must be
+   * loaded for these points).
+   *
+   * @param eyePoints in: previous normalized points; out: tracked points
+   * @return false on tracker loss: the keyframe is dropped, so the caller
+   *         must run the mesh (hasKeyframe() is false until setKeyframe)
+   */
+  public boolean track(float[] eyePoints) {
+    if (!hasKeyframe) {
+      confidence = 0.0;
+      return false;
+    }
+
+    double nccSum = 0;
+    boolean lost = false;
+
+    for (int p = 0; p < EyeGeometry.POINT_COUNT; p++) {
+      float rx = residuals[p * 2];
+      float ry = residuals[p * 2 + 1];
+      int cx = Math.round(eyePoints[p * 2] * frameSize - rx);
+      int cy = Math.round(eyePoints[p * 2 + 1] * frameSize - ry);
+
+      double best = -2;
+      int bx = cx, by = cy;
+      for (int sy = -SEARCH_RADIUS; sy <= SEARCH_RADIUS; sy++) {
+        for (int sx = -SEARCH_RADIUS; sx <= SEARCH_RADIUS; sx++) {
+          double s = ncc(p, cx + sx, cy + sy);
+          if (s > best) {
+            best = s;
+            bx = cx + sx;
+            by = cy + sy;
+          }
+        }
+      }
+
+      if (best < MIN_POINT_NCC) lost = true;
+      nccSum += Math.max(0, best);
+
+      double fx = bx + rx + subPixel(ncc(p, bx - 1, by), best, ncc(p, bx + 1, by));
+      double fy = by + ry + subPixel(ncc(p, bx, by - 1), best, ncc(p, bx, by + 1));
+      eyePoints[p * 2] = (float) (fx / frameSize);
+      eyePoints[p * 2 + 1] = (float) (fy / frameSize);
+    }
+
+    confidence = nccSum / EyeGeometry.POINT_COUNT;
+    if (lost || confidence < MIN_MEAN_NCC) {
+      hasKeyframe = false;
+      return false;
+    }
+    return true;
+  }
+
+  private boolean patchInside(int cx, int cy) {
+    return cx - PATCH_RADIUS >= 0 && cy - PATCH_RADIUS >= 0 &&
+           cx + PATCH_RADIUS < frameSize && cy + PATCH_RADIUS < frameSize;
+  }
+
+  private double ncc(int p, int cx, int cy) {
+    if (!patchInside(cx, cy)) return -1;
+
+    double sum = 0;
+    for (int dy = -PATCH_RADIUS; dy <= PATCH_RADIUS; dy++) {
+      int row = (cy + dy) * frameSize;
+      for (int dx = -PATCH_RADIUS; dx <= PATCH_RADIUS; dx++) {
+        sum += luma[row + cx + dx];
+      }
+    }
+    double mean = sum / PATCH_AREA;
+
+    int base = p * PATCH_AREA;
+    double dot = 0;
+    double norm = 0;
+    for (int dy = -PATCH_RADIUS; dy <= PATCH_RADIUS; dy++) {
+      int row = (cy + dy) * frameSize;
+      int trow = base + (dy + PATCH_RADIUS) * PATCH_SIDE + PATCH_RADIUS;
+      for (int dx = -PATCH_RADIUS; dx <= PATCH_RADIUS; dx++) {
+        double d = luma[row + cx + dx] - mean;
+        dot += d * templates[trow + dx];
+        norm += d * d;
+      }
+    }
+    double denom = Math.sqrt(norm) * templateNorms[p];
+    return denom <= 1e-6 ? 0.0 : dot / denom;
+  }
+
+  /** Vertex offset of the parabola through (-1, a), (0, b), (1, c). */
+  private static double subPixel(double a, double b, double c) {
+    double denom = a - 2 * b + c;
+    if (denom >= 0) return 0.0;
+    return Math.max(-0.5, Math.min(0.5, 0.5 * (a - c) / denom));
+  }
+}
@@ -0,0 +1,73 @@
+package com.fatiguedetector.app.mediapipe;
+
+/**
+ * Scores eye points landmarked elsewhere (e.g. a JS frame source).
+ *
+ * Owns its window engine, baseline, presence and alert state, so this
+ * stream never mixes with the camera monitor's windows and reset() never
+ * touches the driver's baseline. Its alert engine has no listener: alert
+ * levels are reported in the result, nothing is played.
+ *
+ * Pure Java, not thread-safe: one caller thread.
+ */
+public final class EyePointAnalyzer {
+
+  // Reused every call, like the camera analyzer's result
+  private final float[] eyePoints = new float[EyeGeometry.COORD_COUNT];
+  private final FatigueResult result = new FatigueResult();
+  private final FatigueWindowEngine engine = new FatigueWindowEngine(false);
+  private final FatigueAlertEngine alertEngine = new FatigueAlertEngine();
+  private final PresenceMonitor presence =
+      new PresenceMonitor(MediaPipeFaceAnalyzer.FACE_LOST_GRACE_MS);
+
+  /** null = built-in rule cascade */
+  public void setClassifier(FatigueClassifier classifier) {
+    engine.setClassifier(classifier);
+  }
+
+  public FatigueAlertEngine getAlertEngine() {
+    return alertEngine;
+  }
+
+  /**
+   * Returns the shared result holder; read it (or copy it) before the
+   * next call.
+   *
+   * @param points flat (x, y) laid out as EyeGeometry.LANDMARK_INDICES;
+   *               null = no face in this frame
+   * @param now    frame timestamp (ms), non-decreasing
+   */
+  public FatigueResult analyze(float[] points, long now) {
+    result.inferenceMs = 0;
+    result.featureStageMs = 0;
+    if (points == null) {
+      presence.onNoFace(now);
+      if (presence.isInGrace(now)) result.setHold(now);
+      else result.setNoFace(now);
+    } else {
+      presence.onFace(now);
+      System.arraycopy(points, 0, eyePoints, 0, EyeGeometry.COORD_COUNT);
+      engine.analyze(eyePoints, now, result);
+    }
+
+    // No landmarker here: no resolution tier
+    result.resolutionTier = -1;
+    result.presenceMode = presence.getMode();
+    result.baselineEAR = engine.getBaselineEAR();
+
+    FatigueLevel fired = alertEngine.onResult(result);
+    result.alertTriggered = fired != null;
+    result.alertLevel = alertEngine.getAlertLevel();
+    return result;
+  }
+
+  public boolean hasBaseline() {
+    return engine.hasBaseline();
+  }
+
+  public void reset() {
+    presence.reset();
+    engine.reset();
+    alertEngine.reset();
+  }
+}
@@ -0,0 +1,170 @@
+package com.fatiguedetector.app.mediapipe;
+
+/**
+ * Native alert decision logic, run inside analyze() right after scoring.
+ *
+ * - A level must be sustained (continuously at or above it) for its
+ *   sustain window before the alert level escalates.
+ * - The alert level only drops after the signal has stayed below it for
+ *   releaseMs (hysteresis), so a single good frame does not cancel it.
+ * - Repeat alerts at the same level respect the cooldown; escalation to a
+ *   higher level fires immediately.
+ *
+ * Pure Java, no allocation per frame.
+ */
+public final class FatigueAlertEngine {
+
+  public interface Listener {
+    void onAlert(FatigueLevel level, long timestamp);
+  }
+
+  // =====================================================
+  // DEFAULT RULES
+  // =====================================================
+  public static final double DEFAULT_CONFIDENCE_THRESHOLD = 0.7;
+  public static final long DEFAULT_MEDIUM_SUSTAIN_MS = 5_000;
+  public static final long DEFAULT_HIGH_SUSTAIN_MS = 1_000;
+  public static final long DEFAULT_RELEASE_MS = 3_000;
+  public static final long DEFAULT_COOLDOWN_MS = 30_000;
+
+  private boolean enabled = true;
+  private double confidenceThreshold = DEFAULT_CONFIDENCE_THRESHOLD;
+  private long mediumSustainMs = DEFAULT_MEDIUM_SUSTAIN_MS;
+  private long highSustainMs = DEFAULT_HIGH_SUSTAIN_MS;
+  private long releaseMs = DEFAULT_RELEASE_MS;
+  private long cooldownMs = DEFAULT_COOLDOWN_MS;
+
+  // =====================================================
+  // STATE
+  // =====================================================
+  private long mediumSinceTs = -1;
+  private long highSinceTs = -1;
+  private long belowSinceTs = -1;
+
+  private FatigueLevel alertLevel = FatigueLevel.LOW;
+  private FatigueLevel lastAlertLevel = FatigueLevel.LOW;
+  private long lastAlertTs = -1;
+
+  private Listener listener;
+
+  public void setListener(Listener listener) {
+    this.listener = listener;
+  }
+
+  // =====================================================
+  // CONFIG
+  // =====================================================
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+    if (!enabled) reset();
+  }
+
+  public void setConfidenceThreshold(double threshold) {
+    confidenceThreshold = threshold;
+  }
+
+  public void setMediumSustainMs(long ms) {
+    mediumSustainMs = Math.max(0, ms);
+  }
+
+  public void setHighSustainMs(long ms) {
+    highSustainMs = Math.max(0, ms);
+  }
+
+  public void setReleaseMs(long ms) {
+    releaseMs = Math.max(0, ms);
+  }
+
+  public void setCooldownMs(long ms) {
+    cooldownMs = Math.max(0, ms);
+  }
+
+  public FatigueLevel getAlertLevel() {
+    return alertLevel;
+  }
+
+  // =====================================================
+  // MAIN
+  // =====================================================
+
+  /**
+   * @return the level that fired on this frame, or null
+   */
+  public FatigueLevel onResult(FatigueResult r) {
+    if (!enabled) return null;
+
+    // No signal either way: keep timers as they are
+    if (r.frameQuality != FrameQuality.OK) return null;
+
+    long now = r.timestamp;
+
+    FatigueLevel level =
+        !r.faceDetected || r.isCalibrating ||
+        r.confidence < confidenceThreshold
+            ? FatigueLevel.LOW
+            : r.fatigueLevel;
+
+    // ---- sustain timers (continuously at or above) ----
+    if (level.compareTo(FatigueLevel.MEDIUM) >= 0) {
+      if (mediumSinceTs < 0) mediumSinceTs = now;
+    } else {
+      mediumSinceTs = -1;
+    }
+
+    if (level == FatigueLevel.HIGH) {
+      if (highSinceTs < 0) highSinceTs = now;
+    } else {
+      highSinceTs = -1;
+    }
+
+    FatigueLevel sustained = FatigueLevel.LOW;
+    if (highSinceTs >= 0 && now - highSinceTs >= highSustainMs) {
+      sustained = FatigueLevel.HIGH;
+    } else if (mediumSinceTs >= 0 && now - mediumSinceTs >= mediumSustainMs) {
+      sustained = FatigueLevel.MEDIUM;
+    }
+
+    // ---- level hysteresis ----
+    boolean escalated = false;
+    if (sustained.compareTo(alertLevel) > 0) {
+      alertLevel = sustained;
+      belowSinceTs = -1;
+      escalated = true;
+    } else if (level.compareTo(alertLevel) < 0) {
+      if (belowSinceTs < 0) belowSinceTs = now;
+      if (now - belowSinceTs >= releaseMs) {
+        alertLevel = level;
+        belowSinceTs = -1;
+      }
+    } else {
+      belowSinceTs = -1;
+    }
+
+    if (alertLevel == FatigueLevel.LOW) return null;
+
+    // ---- cooldown (escalation bypasses it) ----
+    boolean cooledDown =
+        lastAlertTs < 0 || now - lastAlertTs >= cooldownMs;
+    boolean escalation =
+        escalated && alertLevel.compareTo(lastAlertLevel) > 0;
+
+    if (!cooledDown && !escalation) return null;
+
+    lastAlertTs = now;
+    lastAlertLevel = alertLevel;
+    if (listener != null) listener.onAlert(alertLevel, now);
+    return alertLevel;
+  }
+
+  // =====================================================
+  // RESET
+  // =====================================================
+  public void reset() {
+    mediumSinceTs = -1;
+    highSinceTs = -1;
+    belowSinceTs = -1;
+    alertLevel = FatigueLevel.LOW;
+    lastAlertLevel = FatigueLevel.LOW;
+    lastAlertTs = -1;
+  }
+}
@@ -0,0 +1,18 @@
+package com.fatiguedetector.app.mediapipe;
+
+/**
+ * Maps a WindowFeatures vector to a fatigue level.
+ * Implementations must not allocate per call.
+ */
+public interface FatigueClassifier {
+
+  FatigueLevel classify(float[] features);
+
+  /**
+   * Certainty of the last classification, 0..1, probability-like: about
+   * 0.5 on a class boundary, near 1 well inside the class. Feeds the
+   * confidence score together with temporal + stability terms, and that
+   * score is gated by one alert threshold whatever the strategy.
+   */
+  double lastScore();
+}
@@ -3,7 +3,9 @@ package com.fatiguedetector.app.mediapipe;
 import androidx.annotation.NonNull;
 
 /**
- * Immutable fatigue analysis result.
+ * Mutable fatigue analysis result holder.
+ * The analyzer reuses one instance per frame so the steady-state path
+ * allocates nothing; values are only valid until the next analyze call.
  * MUST stay in sync with FatigueDetector.ts FatigueResult type.
  */
 public final class FatigueResult {
@@ -11,39 +13,106 @@ public final class FatigueResult {
   // -------------------------------------------------
   // Core flags
   // -------------------------------------------------
-  public final boolean faceDetected;
-  public final boolean isCalibrating;
+  public boolean faceDetected;
+  public boolean isCalibrating;
+  // grace-period hold: face assumed present, no metrics this frame
+  public boolean faceHeld;
 
   // -------------------------------------------------
   // Eye metrics
   // -------------------------------------------------
-  public final double leftEAR;
-  public final double rightEAR;
-  public final double avgEAR;
+  public double leftEAR;
+  public double rightEAR;
+  public double avgEAR;
+  public double baselineEAR = -1;
+
+  // window statistics (0 until the baseline is locked)
+  public double normalizedEAR;
+  public double normalizedEARMean;
+  public double normalizedEARVariance;
+
+  // per-horizon window statistics (first horizonCount entries valid;
+  // 0 horizons until the baseline is locked)
+  public int horizonCount;
+  public final long[] horizonMs = new long[PaneAggregator.MAX_HORIZONS];
+  public final double[] horizonPerclos = new double[PaneAggregator.MAX_HORIZONS];
+  public final double[] horizonBlinkRate = new double[PaneAggregator.MAX_HORIZONS];
+  public final double[] horizonEarVariance = new double[PaneAggregator.MAX_HORIZONS];
 
   // -------------------------------------------------
   // Blink metrics
   // -------------------------------------------------
-  public final boolean blinkDetected;
-  public final double blinkRate;
-  public final double blinkEntropy;
+  public boolean blinkDetected;
+  public double blinkRate;
+  public double blinkEntropy;
 
   // -------------------------------------------------
   // Fatigue metrics
   // -------------------------------------------------
-  public final double perclos;
-  public final FatigueLevel fatigueLevel;
-  public final double confidence;
+  public double perclos;
+  @NonNull
+  public FatigueLevel fatigueLevel = FatigueLevel.LOW;
+  public double confidence;
+
+  // -------------------------------------------------
+  // Frame quality (pre-inference gate)
+  // -------------------------------------------------
+  @NonNull
+  public FrameQuality frameQuality = FrameQuality.OK;
+  public int lowQualityFrames;
+
+  // -------------------------------------------------
+  // Landmark source (keyframe mesh vs eye-patch tracker)
+  // -------------------------------------------------
+  public boolean trackedFrame;
+  public double trackingConfidence = 1.0;
+
+  // -------------------------------------------------
+  // Input resolution governor
+  // -------------------------------------------------
+  public int resolutionTier; // -1 = engine ignores maxSide
+  public double inferenceMs;
+
+  // -------------------------------------------------
+  // Presence mode (IDLE = low-power detector only)
+  // -------------------------------------------------
+  @NonNull
+  public PresenceMode presenceMode = PresenceMode.ACTIVE;
+
+  // -------------------------------------------------
+  // Feature stages (last value of each, 0 while not running)
+  // -------------------------------------------------
+  public double mouthAspectRatio;
+  public boolean yawnDetected;
+  public int yawnCount;
+
+  public double headPitch;
+  public double headYaw;
+  public double headRoll;
+  // pitched forward past the drop angle for long enough (microsleep cue)
+  public boolean headDropped;
+
+  public double gazeX;
+  public double gazeY;
+
+  public double featureStageMs;
+
+  // -------------------------------------------------
+  // Native alerting (hysteretic level, fired this frame)
+  // -------------------------------------------------
+  @NonNull
+  public FatigueLevel alertLevel = FatigueLevel.LOW;
+  public boolean alertTriggered;
 
   // -------------------------------------------------
   // Timestamp
   // -------------------------------------------------
-  public final long timestamp;
+  public long timestamp;
 
   // -------------------------------------------------
-  // Constructor
+  // Setters
   // -------------------------------------------------
-  public FatigueResult(
+  public FatigueResult set(
       boolean faceDetected,
       boolean isCalibrating,
       double leftEAR,
@@ -59,6 +128,7 @@ public final class FatigueResult {
   ) {
     this.faceDetected = faceDetected;
     this.isCalibrating = isCalibrating;
+    this.faceHeld = false;
     this.leftEAR = leftEAR;
     this.rightEAR = rightEAR;
     this.avgEAR = avgEAR;
@@ -69,15 +139,27 @@ public final class FatigueResult {
     this.fatigueLevel = fatigueLevel;
     this.confidence = confidence;
     this.timestamp = timestamp;
+    this.frameQuality = FrameQuality.OK;
+    this.normalizedEAR = 0;
+    this.normalizedEARMean = 0;
+    this.normalizedEARVariance = 0;
+    this.horizonCount = 0;
+    this.trackedFrame = false;
+    this.trackingConfidence = 1.0;
+    this.mouthAspectRatio = 0;
+    this.yawnDetected = false;
+    this.headPitch = 0;
+    this.headYaw = 0;
+    this.headRoll = 0;
+    this.headDropped = false;
+    this.gazeX = 0;
+    this.gazeY = 0;
+    return this;
   }
 
-  // -------------------------------------------------
-  // Factory helpers
-  // -------------------------------------------------
-
-  /** Returned when no face is detected */
-  public static FatigueResult noFace(long timestamp) {
-    return new FatigueResult(
+  /** No face detected */
+  public FatigueResult setNoFace(long timestamp) {
+    return set(
         false,
         false,
         0.0,
@@ -98,8 +180,8 @@ public final class FatigueResult {
  * Face is still considered present.
  * Confidence must NOT increase during HOLD.
  */
-  public static FatigueResult hold(long ts) {
-    return new FatigueResult(
+  public FatigueResult setHold(long ts) {
+    set(
         true,     // faceDetected (or true, your choice)
         false,     // isCalibrating
         0.0,
@@ -113,17 +195,42 @@ public final class FatigueResult {
         0.0,
         ts
     );
+    this.faceHeld = true;
+    return this;
   }
 
 
-  /** Returned during baseline calibration */
-  public static FatigueResult calibrating(
+  /**
+   * Frame skipped by the quality gate before inference.
+   * No eye metrics; does not count as face loss.
+   */
+  public FatigueResult setLowQuality(@NonNull FrameQuality quality, long ts) {
+    set(
+        false,
+        false,
+        0.0,
+        0.0,
+        0.0,
+        false,
+        0.0,
+        -1.0,
+        0.0,
+        FatigueLevel.LOW,
+        0.0,
+        ts
+    );
+    this.frameQuality = quality;
+    return this;
+  }
+
+  /** Baseline calibration in progress */
+  public FatigueResult setCalibrating(
       double leftEAR,
       double rightEAR,
       double avgEAR,
       long timestamp
   ) {
-    return new FatigueResult(
+    return set(
         true,
         true,
         leftEAR,
@@ -138,4 +245,4 @@ public final class FatigueResult {
         timestamp
     );
   }
-}
\ No newline at end of file
+}
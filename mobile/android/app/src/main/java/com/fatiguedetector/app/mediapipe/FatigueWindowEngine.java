@@ -0,0 +1,313 @@
+package com.fatiguedetector.app.mediapipe;
+
+/**
+ * Baseline + sliding-window fatigue scoring over per-frame eye points.
+ *
+ * Window statistics come from a PaneAggregator answering several
+ * horizons at once; the WINDOW_MS horizon drives classification and the
+ * others are reported alongside (short ones catch microsleeps, long ones
+ * slow build-up).
+ *
+ * Pure Java (no Android / MediaPipe types) so it runs in JVM unit tests.
+ * All window state lives in preallocated primitive buffers and the
+ * caller supplies the result holder: after warm-up, analyze() allocates
+ * nothing on the Java heap.
+ */
+public final class FatigueWindowEngine {
+
+  // =====================================================
+  // WINDOWS
+  // =====================================================
+  // Classification horizon (always aggregated)
+  private static final long WINDOW_MS = 20_000;
+  private static final int MIN_FRAMES_FOR_PERCLOS = 15;
+
+  public static final long PANE_MS = 500;
+  public static final long[] DEFAULT_HORIZONS_MS =
+      {5_000, WINDOW_MS, 60_000, 300_000};
+
+  // Blink timestamps for entropy (debug only), WINDOW_MS horizon
+  private static final int MAX_WINDOW_BLINKS = 256;
+
+  // =====================================================
+  // BLINK
+  // =====================================================
+  private static final int MIN_CLOSED_FRAMES = 1;
+  private static final int MAX_BLINK_FRAMES = 6;
+  private static final double BLINK_EAR_RATIO = 0.65;
+
+  // =====================================================
+  // BASELINE
+  // =====================================================
+  private static final int MIN_FRAMES_AFTER_BASELINE = 5;
+
+  // =====================================================
+  // STATE
+  // =====================================================
+  private final boolean debug;
+
+  private int closedFrameCount = 0;
+  private long lastBlinkTs = -1;
+  private int framesAfterBaseline = 0;
+
+  private PaneAggregator panes;
+  private int primary;
+
+  private final long[] blinkTs = new long[MAX_WINDOW_BLINKS];
+  private int blinkHead = 0;
+  private int blinkCount = 0;
+
+  private final BaselineEstimator baseline = new BaselineEstimator();
+
+  // =====================================================
+  // CLASSIFICATION
+  // =====================================================
+  private final float[] features = new float[WindowFeatures.COUNT];
+  private final FatigueClassifier ruleClassifier = new RuleFatigueClassifier();
+  private FatigueClassifier classifier = ruleClassifier;
+
+  public FatigueWindowEngine(boolean debug) {
+    this.debug = debug;
+    setHorizonsMs(DEFAULT_HORIZONS_MS);
+  }
+
+  /**
+   * Replaces the reported horizons (max PaneAggregator.MAX_HORIZONS,
+   * WINDOW_MS is added if missing). Clears window state, keeps the
+   * baseline. Not for the per-frame path.
+   */
+  public void setHorizonsMs(long... horizonsMs) {
+    long[] horizons = horizonsMs;
+    boolean hasPrimary = false;
+    for (long h : horizonsMs) hasPrimary |= h == WINDOW_MS;
+    if (!hasPrimary) {
+      horizons = java.util.Arrays.copyOf(horizonsMs, horizonsMs.length + 1);
+      horizons[horizonsMs.length] = WINDOW_MS;
+    }
+    panes = new PaneAggregator(PANE_MS, horizons);
+    primary = panes.indexOf(WINDOW_MS);
+  }
+
+  public PaneAggregator getPanes() {
+    return panes;
+  }
+
+  /** null restores the built-in rule cascade */
+  public void setClassifier(FatigueClassifier classifier) {
+    this.classifier = classifier != null ? classifier : ruleClassifier;
+  }
+
+  public FatigueClassifier getClassifier() {
+    return classifier;
+  }
+
+  public boolean hasBaseline() {
+    return baseline.isLocked();
+  }
+
+  public double getBaselineEAR() {
+    return baseline.get();
+  }
+
+  // =====================================================
+  // MAIN ANALYSIS
+  // =====================================================
+
+  /**
+   * @param eyePoints flat (x, y) array laid out as EyeGeometry.LANDMARK_INDICES
+   * @param now       frame timestamp (ms)
+   * @param out       reused result holder
+   */
+  public FatigueResult analyze(float[] eyePoints, long now, FatigueResult out) {
+    double leftEAR  = EyeGeometry.computeEAR(eyePoints, EyeGeometry.LEFT_EYE);
+    double rightEAR = EyeGeometry.computeEAR(eyePoints, EyeGeometry.RIGHT_EYE);
+    double avgEAR   = (leftEAR + rightEAR) / 2.0;
+
+    // =====================================================
+    // BASELINE
+    // =====================================================
+    if (!hasBaseline()) {
+      if (baseline.offerCalibration(avgEAR, now)) {
+        framesAfterBaseline = 0;
+      }
+
+      return out.setCalibrating(leftEAR, rightEAR, avgEAR, now);
+    }
+
+    // =====================================================
+    // POST-BASELINE
+    // =====================================================
+    framesAfterBaseline++;
+
+    double normalizedEAR = avgEAR / baseline.get();
+    normalizedEAR = Math.max(0.3, Math.min(1.3, normalizedEAR));
+
+    boolean eyeClosed = normalizedEAR < BLINK_EAR_RATIO;
+    boolean blinkDetected = false;
+
+    if (eyeClosed) {
+      closedFrameCount++;
+    } else {
+      if (closedFrameCount >= MIN_CLOSED_FRAMES &&
+          closedFrameCount <= MAX_BLINK_FRAMES) {
+        blinkDetected = true;
+        pushBlink(now);
+        lastBlinkTs = now;
+      }
+      closedFrameCount = 0;
+    }
+
+    // EAR moments only count once the post-baseline transient is over
+    panes.add(
+        now,
+        eyeClosed,
+        blinkDetected,
+        framesAfterBaseline >= MIN_FRAMES_AFTER_BASELINE,
+        normalizedEAR
+    );
+    evictOldBlinks(now);
+
+    double perclos = panes.perclos(primary, MIN_FRAMES_FOR_PERCLOS);
+
+    // Slow drift tracking (lighting / posture over a shift): every
+    // open-eye frame of a non-drowsy window, so the baseline can follow
+    // a real open-eye level down as well as up
+    if (!eyeClosed &&
+        perclos < RuleFatigueClassifier.PERCLOS_MED) {
+      baseline.offerOpenEye(avgEAR);
+    }
+
+    double blinkRate = panes.blinkRate(primary, now);
+    double earVariance = panes.earVariance(primary);
+    int earSamples = panes.earSamples(primary);
+
+    /**
+     * Expected behavior:
+     * - Stable EAR variance ≈ 0.002–0.006
+     * - Erratic / jittery ≥ 0.015
+     */
+    double stabilityScore;
+
+    if (earSamples < 8) {
+      stabilityScore = 1.0;
+    } else if (earVariance <= 0.006) {
+      stabilityScore = 1.0;
+    } else if (earVariance >= 0.02) {
+      stabilityScore = 0.4; // hard distrust
+    } else {
+      // smooth linear falloff
+      stabilityScore =
+          1.0 - ((earVariance - 0.006) / (0.02 - 0.006)) * 0.6;
+    }
+
+    // =====================================================
+    // CLASSIFICATION
+    // =====================================================
+    double earMean = panes.earMean(primary, normalizedEAR);
+
+    features[WindowFeatures.NORM_EAR] = (float) normalizedEAR;
+    features[WindowFeatures.NORM_EAR_MEAN] = (float) earMean;
+    features[WindowFeatures.NORM_EAR_VARIANCE] = (float) earVariance;
+    features[WindowFeatures.PERCLOS] = (float) perclos;
+    features[WindowFeatures.BLINK_RATE] = (float) blinkRate;
+
+    FatigueLevel fatigueLevel = classifier.classify(features);
+
+    // =====================================================
+    // CONFIDENCE
+    // =====================================================
+    double confidence;
+
+    boolean isCalibrating =
+        framesAfterBaseline < MIN_FRAMES_AFTER_BASELINE;
+
+    if (isCalibrating) {
+      confidence = 0.0;
+    } else {
+      double temporalScore = Math.min(1.0, framesAfterBaseline / 30.0);
+      double stateScore = classifier.lastScore();
+      double rawConfidence =
+        0.5 * temporalScore + 0.5 * stateScore;
+
+      confidence = Math.min(1.0, rawConfidence * stabilityScore);
+    }
+
+    out.set(
+        true,
+        isCalibrating,
+        leftEAR,
+        rightEAR,
+        avgEAR,
+        blinkDetected,
+        blinkRate,
+        debug ? computeBlinkEntropy() : -1.0,
+        perclos,
+        fatigueLevel,
+        confidence,
+        now
+    );
+    out.normalizedEAR = normalizedEAR;
+    out.normalizedEARMean = earMean;
+    out.normalizedEARVariance = earVariance;
+    publishHorizons(now, out);
+    return out;
+  }
+
+  private void publishHorizons(long now, FatigueResult out) {
+    int n = panes.getHorizonCount();
+    for (int h = 0; h < n; h++) {
+      out.horizonMs[h] = panes.getHorizonMs(h);
+      out.horizonPerclos[h] = panes.perclos(h, MIN_FRAMES_FOR_PERCLOS);
+      out.horizonBlinkRate[h] = panes.blinkRate(h, now);
+      out.horizonEarVariance[h] = panes.earVariance(h);
+    }
+    out.horizonCount = n;
+  }
+
+  // =====================================================
+  // BLINK RING (entropy only)
+  // =====================================================
+  private void pushBlink(long ts) {
+    if (blinkCount == MAX_WINDOW_BLINKS) {
+      blinkHead = (blinkHead + 1) % MAX_WINDOW_BLINKS;
+      blinkCount--;
+    }
+    blinkTs[(blinkHead + blinkCount) % MAX_WINDOW_BLINKS] = ts;
+    blinkCount++;
+  }
+
+  private void evictOldBlinks(long now) {
+    while (blinkCount > 0 &&
+           now - blinkTs[blinkHead] > WINDOW_MS) {
+      blinkHead = (blinkHead + 1) % MAX_WINDOW_BLINKS;
+      blinkCount--;
+    }
+  }
+
+  private double computeBlinkEntropy() {
+    if (blinkCount < 4) return 0.0;
+    double sum = 0;
+    long prev = blinkTs[blinkHead];
+    for (int i = 1; i < blinkCount; i++) {
+      long t = blinkTs[(blinkHead + i) % MAX_WINDOW_BLINKS];
+      sum += Math.log(t - prev + 1);
+      prev = t;
+    }
+    return sum / (blinkCount - 1);
+  }
+
+  // =====================================================
+  // RESET
+  // =====================================================
+  public void reset() {
+    closedFrameCount = 0;
+    lastBlinkTs = -1;
+    framesAfterBaseline = 0;
+
+    panes.reset();
+    blinkHead = 0;
+    blinkCount = 0;
+
+    baseline.reset();
+  }
+}
@@ -0,0 +1,39 @@
+package com.fatiguedetector.app.mediapipe;
+
+/**
+ * Optional face-mesh signal (yawn, head pose, gaze) run after the EAR path.
+ *
+ * A stage declares which landmarks it reads and how often it must run;
+ * FeatureStageRunner copies only those landmarks, schedules and times it.
+ * Stages keep their last output and publish it on every face frame, so
+ * frames where a stage was skipped still carry its most recent value.
+ *
+ * Implementations must not allocate in process() / publish().
+ */
+public interface FeatureStage {
+
+  String name();
+
+  /** Mesh landmark indices, copied into process()'s buffer as (x, y, z). */
+  int[] landmarkIndices();
+
+  /** True if process() needs the 4x4 facial transformation matrix. */
+  boolean needsTransformMatrix();
+
+  /** Default schedule: run on every Nth mesh frame (1 = every frame). */
+  int interval();
+
+  /** Lowest fatigue level at which the stage runs at all. */
+  FatigueLevel minLevel();
+
+  /**
+   * @param landmarks (x, y, z) per landmarkIndices() entry, normalized
+   * @param matrix    column-major 4x4, or null if not requested
+   */
+  void process(float[] landmarks, float[] matrix, long now);
+
+  /** Writes the last output into {@code out}. */
+  void publish(FatigueResult out);
+
+  void reset();
+}
@@ -0,0 +1,206 @@
+package com.fatiguedetector.app.mediapipe;
+
+/**
+ * Schedules and times the registered FeatureStages.
+ *
+ * - A stage runs on every interval()-th mesh frame, and only while the
+ *   current fatigue level is at least its minLevel().
+ * - Only the landmarks a stage declares are copied for it; a stage is
+ *   skipped when the engine did not produce them (e.g. no iris points)
+ *   or it needs a transformation matrix the engine does not estimate.
+ * - Per-stage run counts and latency (last / EMA) are kept for reporting.
+ *
+ * Pure Java, no allocation per frame once constructed.
+ */
+public final class FeatureStageRunner {
+
+  private static final double TIMING_ALPHA = 0.1;
+
+  private final FeatureStage[] stages;
+  private final float[][] inputs;
+  private final int[] requiredCount;
+
+  private final boolean[] enabled;
+  private final int[] intervals;
+  private final boolean[] active;
+  private final boolean[] hasOutput;
+  private final int[] framesSinceRun;
+
+  // timing
+  private final long[] runs;
+  private final double[] lastMs;
+  private final double[] avgMs;
+
+  public FeatureStageRunner(FeatureStage... stages) {
+    int n = stages.length;
+    this.stages = stages;
+    inputs = new float[n][];
+    requiredCount = new int[n];
+    enabled = new boolean[n];
+    intervals = new int[n];
+    active = new boolean[n];
+    hasOutput = new boolean[n];
+    framesSinceRun = new int[n];
+    runs = new long[n];
+    lastMs = new double[n];
+    avgMs = new double[n];
+
+    for (int i = 0; i < n; i++) {
+      int[] indices = stages[i].landmarkIndices();
+      inputs[i] = new float[indices.length * 3];
+      for (int idx : indices) {
+        requiredCount[i] = Math.max(requiredCount[i], idx + 1);
+      }
+      enabled[i] = true;
+      intervals[i] = Math.max(1, stages[i].interval());
+    }
+  }
+
+  // =====================================================
+  // CONFIG
+  // =====================================================
+
+  /** @return false if no stage has that name */
+  public boolean setEnabled(String name, boolean on) {
+    int i = indexOf(name);
+    if (i < 0) return false;
+    enabled[i] = on;
+    if (!on) deactivate(i);
+    return true;
+  }
+
+  /** @return false if no stage has that name */
+  public boolean setInterval(String name, int interval) {
+    int i = indexOf(name);
+    if (i < 0) return false;
+    intervals[i] = Math.max(1, interval);
+    return true;
+  }
+
+  /** True if any enabled stage reads the transformation matrix. */
+  public boolean needsTransformMatrix() {
+    for (int i = 0; i < stages.length; i++) {
+      if (enabled[i] && stages[i].needsTransformMatrix()) return true;
+    }
+    return false;
+  }
+
+  // =====================================================
+  // MAIN
+  // =====================================================
+
+  /**
+   * Runs the stages due on this mesh frame.
+   *
+   * @return total stage time for this frame (ms)
+   */
+  public double run(LandmarkFrame frame, FatigueLevel level, long now) {
+    double totalMs = 0;
+    float[] matrix = frame.hasTransformMatrix ? frame.transformMatrix : null;
+
+    for (int i = 0; i < stages.length; i++) {
+      FeatureStage stage = stages[i];
+
+      if (!enabled[i] || level.compareTo(stage.minLevel()) < 0) {
+        deactivate(i);
+        continue;
+      }
+      active[i] = true;
+
+      if (hasOutput[i] && ++framesSinceRun[i] < intervals[i]) continue;
+      if (stage.needsTransformMatrix() && matrix == null) continue;
+      if (frame.count < requiredCount[i]) continue;
+
+      long t0 = System.nanoTime();
+      copyLandmarks(frame, stage.landmarkIndices(), inputs[i]);
+      stage.process(inputs[i], matrix, now);
+      double ms = (System.nanoTime() - t0) / 1_000_000.0;
+
+      framesSinceRun[i] = 0;
+      hasOutput[i] = true;
+      runs[i]++;
+      lastMs[i] = ms;
+      avgMs[i] = runs[i] == 1
+          ? ms
+          : TIMING_ALPHA * ms + (1 - TIMING_ALPHA) * avgMs[i];
+      totalMs += ms;
+    }
+
+    return totalMs;
+  }
+
+  /** Publishes the latest output of every active stage. */
+  public void publish(FatigueResult out) {
+    for (int i = 0; i < stages.length; i++) {
+      if (active[i] && hasOutput[i]) stages[i].publish(out);
+    }
+  }
+
+  private static void copyLandmarks(LandmarkFrame frame, int[] indices, float[] out) {
+    for (int i = 0; i < indices.length; i++) {
+      System.arraycopy(frame.points, indices[i] * 3, out, i * 3, 3);
+    }
+  }
+
+  private void deactivate(int i) {
+    if (!active[i] && !hasOutput[i]) return;
+    active[i] = false;
+    hasOutput[i] = false;
+    framesSinceRun[i] = 0;
+    stages[i].reset();
+  }
+
+  private int indexOf(String name) {
+    for (int i = 0; i < stages.length; i++) {
+      if (stages[i].name().equals(name)) return i;
+    }
+    return -1;
+  }
+
+  // =====================================================
+  // STATS
+  // =====================================================
+  public int getStageCount() {
+    return stages.length;
+  }
+
+  public FeatureStage getStage(int i) {
+    return stages[i];
+  }
+
+  public boolean isEnabled(int i) {
+    return enabled[i];
+  }
+
+  public boolean isActive(int i) {
+    return active[i];
+  }
+
+  public int getInterval(int i) {
+    return intervals[i];
+  }
+
+  public long getRuns(int i) {
+    return runs[i];
+  }
+
+  public double getLastMs(int i) {
+    return lastMs[i];
+  }
+
+  public double getAvgMs(int i) {
+    return avgMs[i];
+  }
+
+  // =====================================================
+  // RESET
+  // =====================================================
+  public void reset() {
+    for (int i = 0; i < stages.length; i++) {
+      active[i] = false;
+      hasOutput[i] = false;
+      framesSinceRun[i] = 0;
+      stages[i].reset();
+    }
+  }
+}
@@ -0,0 +1,9 @@
+package com.fatiguedetector.app.mediapipe;
+
+public enum FrameQuality {
+  OK,
+  TOO_DARK,
+  OVEREXPOSED,
+  LOW_CONTRAST,
+  BLURRY
+}
@@ -0,0 +1,205 @@
+package com.fatiguedetector.app.mediapipe;
+
+/**
+ * Cheap pre-inference frame check.
+ *
+ * Mean luma and contrast (luma std-dev) come from a downsampled ARGB
+ * thumbnail. Sharpness (variance of the 4-neighbour Laplacian) comes
+ * from a native-resolution centre crop instead: a 48 px thumbnail has
+ * already low-passed away the detail that blur removes, so its
+ * Laplacian mostly measures scene structure. The crop is box-binned
+ * SHARPNESS_BIN x SHARPNESS_BIN first so sensor noise does not pass for
+ * detail. Frames outside the thresholds are skipped before
+ * FaceLandmarker runs so they neither cost inference nor feed noise
+ * into the EAR window.
+ */
+public final class FrameQualityGate {
+
+  // =====================================================
+  // DEFAULT THRESHOLDS (luma 0..255)
+  // =====================================================
+  public static final double DEFAULT_MIN_LUMA = 40;
+  public static final double DEFAULT_MAX_LUMA = 220;
+  public static final double DEFAULT_MIN_CONTRAST = 12;
+  // On synthetic textured frames with mild sensor noise, in focus up to
+  // ~3 px blur scores >= 35 and a 5+ px box blur scores < 20
+  public static final double DEFAULT_MIN_SHARPNESS = 25;
+
+  // =====================================================
+  // SHARPNESS CROP
+  // =====================================================
+  /** Longest centre-crop side (native px) the caller should pass. */
+  public static final int SHARPNESS_CROP = 256;
+  public static final int SHARPNESS_BIN = 4;
+
+  private final double minLuma;
+  private final double maxLuma;
+  private final double minContrast;
+  private final double minSharpness;
+
+  private float[] luma = new float[0];
+  private float[] sharpLuma = new float[0];
+
+  // =====================================================
+  // LAST METRICS
+  // =====================================================
+  private double lastMeanLuma;
+  private double lastContrast;
+  private double lastSharpness;
+
+  // =====================================================
+  // COUNTERS
+  // =====================================================
+  private int evaluatedFrames = 0;
+  private int darkFrames = 0;
+  private int overexposedFrames = 0;
+  private int lowContrastFrames = 0;
+  private int blurryFrames = 0;
+
+  public FrameQualityGate() {
+    this(
+        DEFAULT_MIN_LUMA,
+        DEFAULT_MAX_LUMA,
+        DEFAULT_MIN_CONTRAST,
+        DEFAULT_MIN_SHARPNESS
+    );
+  }
+
+  public FrameQualityGate(
+      double minLuma,
+      double maxLuma,
+      double minContrast,
+      double minSharpness
+  ) {
+    this.minLuma = minLuma;
+    this.maxLuma = maxLuma;
+    this.minContrast = minContrast;
+    this.minSharpness = minSharpness;
+  }
+
+  /**
+   * @param argb       thumbnail pixels, row-major
+   * @param width      thumbnail width
+   * @param height     thumbnail height
+   * @param crop       native-resolution centre crop, row-major
+   * @param cropWidth  crop width (at most SHARPNESS_CROP)
+   * @param cropHeight crop height (at most SHARPNESS_CROP)
+   */
+  public FrameQuality evaluate(
+      int[] argb, int width, int height,
+      int[] crop, int cropWidth, int cropHeight
+  ) {
+    int n = width * height;
+    if (luma.length < n) luma = new float[n];
+
+    double sum = 0;
+    double sumSq = 0;
+    for (int i = 0; i < n; i++) {
+      float y = luma(argb[i]);
+      luma[i] = y;
+      sum += y;
+      sumSq += y * y;
+    }
+
+    double mean = n > 0 ? sum / n : 0;
+    double variance = n > 0 ? Math.max(0, sumSq / n - mean * mean) : 0;
+
+    lastMeanLuma = mean;
+    lastContrast = Math.sqrt(variance);
+
+    int bw = cropWidth / SHARPNESS_BIN;
+    int bh = cropHeight / SHARPNESS_BIN;
+    binCrop(crop, cropWidth, bw, bh);
+    lastSharpness = laplacianVariance(sharpLuma, bw, bh);
+
+    evaluatedFrames++;
+
+    if (lastMeanLuma < minLuma) {
+      darkFrames++;
+      return FrameQuality.TOO_DARK;
+    }
+    if (lastMeanLuma > maxLuma) {
+      overexposedFrames++;
+      return FrameQuality.OVEREXPOSED;
+    }
+    if (lastContrast < minContrast) {
+      lowContrastFrames++;
+      return FrameQuality.LOW_CONTRAST;
+    }
+    if (lastSharpness < minSharpness) {
+      blurryFrames++;
+      return FrameQuality.BLURRY;
+    }
+    return FrameQuality.OK;
+  }
+
+  /** BT.601 integer approximation */
+  private static float luma(int c) {
+    return (77 * ((c >> 16) & 0xFF)
+          + 150 * ((c >> 8) & 0xFF)
+          + 29 * (c & 0xFF)) >> 8;
+  }
+
+  /** Box-averages SHARPNESS_BIN^2 crop pixels into each sharpLuma cell. */
+  private void binCrop(int[] crop, int cropWidth, int bw, int bh) {
+    if (sharpLuma.length < bw * bh) sharpLuma = new float[bw * bh];
+    float scale = 1f / (SHARPNESS_BIN * SHARPNESS_BIN);
+    for (int y = 0; y < bh; y++) {
+      for (int x = 0; x < bw; x++) {
+        float acc = 0;
+        for (int dy = 0; dy < SHARPNESS_BIN; dy++) {
+          int row = (y * SHARPNESS_BIN + dy) * cropWidth + x * SHARPNESS_BIN;
+          for (int dx = 0; dx < SHARPNESS_BIN; dx++) acc += luma(crop[row + dx]);
+        }
+        sharpLuma[y * bw + x] = acc * scale;
+      }
+    }
+  }
+
+  private static double laplacianVariance(float[] luma, int width, int height) {
+    if (width < 3 || height < 3) return 0.0;
+
+    double sum = 0;
+    double sumSq = 0;
+    int count = 0;
+    for (int y = 1; y < height - 1; y++) {
+      int row = y * width;
+      for (int x = 1; x < width - 1; x++) {
+        int i = row + x;
+        double lap = luma[i - 1] + luma[i + 1]
+                   + luma[i - width] + luma[i + width]
+                   - 4 * luma[i];
+        sum += lap;
+        sumSq += lap * lap;
+        count++;
+      }
+    }
+    double mean = sum / count;
+    return Math.max(0, sumSq / count - mean * mean);
+  }
+
+  // =====================================================
+  // ACCESSORS
+  // =====================================================
+  public double getLastMeanLuma() { return lastMeanLuma; }
+  public double getLastContrast() { return lastContrast; }
+  public double getLastSharpness() { return lastSharpness; }
+
+  public int getEvaluatedFrames() { return evaluatedFrames; }
+  public int getDarkFrames() { return darkFrames; }
+  public int getOverexposedFrames() { return overexposedFrames; }
+  public int getLowContrastFrames() { return lowContrastFrames; }
+  public int getBlurryFrames() { return blurryFrames; }
+
+  public int getLowQualityFrames() {
+    return darkFrames + overexposedFrames + lowContrastFrames + blurryFrames;
+  }
+
+  public void resetCounters() {
+    evaluatedFrames = 0;
+    darkFrames = 0;
+    overexposedFrames = 0;
+    lowContrastFrames = 0;
+    blurryFrames = 0;
+  }
+}
@@ -0,0 +1,63 @@
+package com.fatiguedetector.app.mediapipe;
+
+/**
+ * Iris position inside each eye opening, averaged over both eyes.
+ *
+ * gazeX / gazeY are offsets from the eye centre in eye-width /
+ * eye-height units (0 = looking at the camera, about ±0.5 at the
+ * corners). Needs the iris landmarks (468+), and is only run once the
+ * driver is already flagged, where it separates "eyes closing" from
+ * "looking down at the dashboard".
+ */
+public final class GazeStage implements FeatureStage {
+
+  public static final String NAME = "gaze";
+
+  // per eye: outer corner, inner corner, upper lid, lower lid, iris centre
+  private static final int[] LANDMARKS = {
+      33, 133, 159, 145, 468,
+      362, 263, 386, 374, 473
+  };
+  private static final int POINTS_PER_EYE = 5;
+
+  private double gazeX;
+  private double gazeY;
+
+  @Override public String name() { return NAME; }
+  @Override public int[] landmarkIndices() { return LANDMARKS; }
+  @Override public boolean needsTransformMatrix() { return false; }
+  @Override public int interval() { return 2; }
+  @Override public FatigueLevel minLevel() { return FatigueLevel.MEDIUM; }
+
+  @Override
+  public void process(float[] lm, float[] matrix, long now) {
+    double x = 0;
+    double y = 0;
+    for (int eye = 0; eye < 2; eye++) {
+      int o = eye * POINTS_PER_EYE * 3;
+      x += ratio(lm[o + 12], lm[o], lm[o + 3]);
+      y += ratio(lm[o + 13], lm[o + 7], lm[o + 10]);
+    }
+    gazeX = x / 2.0 - 0.5;
+    gazeY = y / 2.0 - 0.5;
+  }
+
+  /** Position of {@code v} between {@code a} and {@code b} (0..1). */
+  private static double ratio(float v, float a, float b) {
+    float span = b - a;
+    if (Math.abs(span) < 1e-6f) return 0.5;
+    return (v - a) / span;
+  }
+
+  @Override
+  public void publish(FatigueResult out) {
+    out.gazeX = gazeX;
+    out.gazeY = gazeY;
+  }
+
+  @Override
+  public void reset() {
+    gazeX = 0;
+    gazeY = 0;
+  }
+}
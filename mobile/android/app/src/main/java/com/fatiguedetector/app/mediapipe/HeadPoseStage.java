@@ -0,0 +1,87 @@
+package com.fatiguedetector.app.mediapipe;
+
+/**
+ * Head pitch / yaw / roll (degrees) from MediaPipe's facial
+ * transformation matrix. Positive pitch = chin down (the face's +y axis
+ * tips toward the camera).
+ *
+ * EAR is unreliable when the head is turned well away from the camera
+ * (mirror checks, shoulder checks), so while yaw is off-axis, or the head
+ * is tilted back past MAX_PITCH_UP_DEG, the published confidence is
+ * scaled down and such frames cannot sustain an alert on their own.
+ * Pitching forward never lowers it: a dropping head is one of the signs
+ * of a microsleep. Held past HEAD_DROP_DEG for HEAD_DROP_MS it is
+ * published as headDropped.
+ */
+public final class HeadPoseStage implements FeatureStage {
+
+  public static final String NAME = "headPose";
+
+  private static final int[] NO_LANDMARKS = {};
+
+  private static final double MAX_FRONTAL_YAW_DEG = 30.0;
+  private static final double MAX_PITCH_UP_DEG = 25.0;
+  private static final double OFF_AXIS_CONFIDENCE = 0.5;
+
+  private static final double HEAD_DROP_DEG = 20.0;
+  private static final long HEAD_DROP_MS = 1_500;
+
+  private double pitch;
+  private double yaw;
+  private double roll;
+  private long dropSinceTs = -1;
+  private boolean dropped;
+
+  @Override public String name() { return NAME; }
+  @Override public int[] landmarkIndices() { return NO_LANDMARKS; }
+  @Override public boolean needsTransformMatrix() { return true; }
+  @Override public int interval() { return 5; }
+  @Override public FatigueLevel minLevel() { return FatigueLevel.LOW; }
+
+  @Override
+  public void process(float[] lm, float[] m, long now) {
+    // column-major: R(row, col) = m[col * 4 + row]
+    double r00 = m[0], r10 = m[1], r20 = m[2];
+    double r21 = m[6], r22 = m[10];
+
+    pitch = Math.toDegrees(Math.atan2(r21, r22));
+    yaw = Math.toDegrees(Math.asin(Math.max(-1.0, Math.min(1.0, -r20))));
+    roll = Math.toDegrees(Math.atan2(r10, r00));
+
+    if (pitch > HEAD_DROP_DEG) {
+      if (dropSinceTs < 0) dropSinceTs = now;
+      dropped = now - dropSinceTs >= HEAD_DROP_MS;
+    } else {
+      dropSinceTs = -1;
+      dropped = false;
+    }
+  }
+
+  /** Turned away or tilted back: EAR is not trusted. */
+  public boolean isOffAxis() {
+    return Math.abs(yaw) > MAX_FRONTAL_YAW_DEG ||
+           pitch < -MAX_PITCH_UP_DEG;
+  }
+
+  public boolean isHeadDropped() {
+    return dropped;
+  }
+
+  @Override
+  public void publish(FatigueResult out) {
+    out.headPitch = pitch;
+    out.headYaw = yaw;
+    out.headRoll = roll;
+    out.headDropped = dropped;
+    if (isOffAxis()) out.confidence *= OFF_AXIS_CONFIDENCE;
+  }
+
+  @Override
+  public void reset() {
+    pitch = 0;
+    yaw = 0;
+    roll = 0;
+    dropSinceTs = -1;
+    dropped = false;
+  }
+}
@@ -0,0 +1,24 @@
+package com.fatiguedetector.app.mediapipe;
+
+import android.content.Context;
+
+/**
+ * MEDIAPIPE = Tasks FaceLandmarker (mesh + transformation matrix).
+ * TFLITE    = the same models on direct Interpreters (threads / XNNPACK
+ *             configurable, no transformation matrix).
+ */
+public enum LandmarkBackend {
+  MEDIAPIPE,
+  TFLITE;
+
+  /** threads / useXnnpack only apply to TFLITE */
+  public LandmarkEngine create(Context context, int threads, boolean useXnnpack) {
+    switch (this) {
+      case TFLITE:
+        return new TfLiteLandmarkEngine(context, threads, useXnnpack);
+      case MEDIAPIPE:
+      default:
+        return new MediaPipeFaceLandmarker(context);
+    }
+  }
+}
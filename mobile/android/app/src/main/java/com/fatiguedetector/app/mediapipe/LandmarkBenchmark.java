@@ -0,0 +1,78 @@
+package com.fatiguedetector.app.mediapipe;
+
+import android.graphics.Bitmap;
+
+import java.util.Arrays;
+
+/**
+ * Times a LandmarkEngine on a fixed frame, for picking a backend per
+ * device class. Runs on the caller's thread; not for the live path.
+ */
+public final class LandmarkBenchmark {
+
+  public static final class Result {
+    public final String engine;
+    public final int iterations;
+    public final double faceRate;
+    public final double avgMs;
+    public final double p50Ms;
+    public final double p90Ms;
+    public final double maxMs;
+
+    Result(String engine, int iterations, double faceRate,
+           double avgMs, double p50Ms, double p90Ms, double maxMs) {
+      this.engine = engine;
+      this.iterations = iterations;
+      this.faceRate = faceRate;
+      this.avgMs = avgMs;
+      this.p50Ms = p50Ms;
+      this.p90Ms = p90Ms;
+      this.maxMs = maxMs;
+    }
+  }
+
+  private LandmarkBenchmark() {}
+
+  /**
+   * @param warmup     untimed runs (JIT, delegate init, tracking ROI)
+   * @param iterations timed runs, at least 1
+   */
+  public static Result run(
+      LandmarkEngine engine, Bitmap frame, int maxSide,
+      int warmup, int iterations
+  ) {
+    int n = Math.max(1, iterations);
+    LandmarkFrame out = new LandmarkFrame();
+
+    for (int i = 0; i < warmup; i++) {
+      engine.detect(frame, maxSide, out);
+    }
+
+    double[] ms = new double[n];
+    int faces = 0;
+    double sum = 0;
+    for (int i = 0; i < n; i++) {
+      long t0 = System.nanoTime();
+      if (engine.detect(frame, maxSide, out)) faces++;
+      ms[i] = (System.nanoTime() - t0) / 1e6;
+      sum += ms[i];
+    }
+
+    Arrays.sort(ms);
+    return new Result(
+        engine.name(),
+        n,
+        faces / (double) n,
+        sum / n,
+        percentile(ms, 0.5),
+        percentile(ms, 0.9),
+        ms[n - 1]
+    );
+  }
+
+  /** Nearest-rank percentile of sorted values. */
+  static double percentile(double[] sorted, double p) {
+    int rank = (int) Math.ceil(p * sorted.length);
+    return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+  }
+}
@@ -0,0 +1,32 @@
+package com.fatiguedetector.app.mediapipe;
+
+import android.graphics.Bitmap;
+
+/**
+ * Face landmark backend used by MediaPipeFaceAnalyzer.
+ *
+ * Implementations fill a caller-owned LandmarkFrame so backends can be
+ * swapped and benchmarked without the analyzer knowing their types.
+ * Not thread-safe: one caller thread per engine.
+ */
+public interface LandmarkEngine extends AutoCloseable {
+
+  /** Short id for logs and benchmarks, e.g. "mediapipe", "tflite-4t-xnn". */
+  String name();
+
+  /**
+   * Whether detect() honours maxSide. When false the analyzer holds the
+   * resolution governor and reports the tier as N/A (-1).
+   */
+  boolean supportsMaxSide();
+
+  /**
+   * @param maxSide longest image side fed to the model; 0 = engine default
+   * @param out     cleared and filled; out.count == 0 when no face
+   * @return true if a face was found
+   */
+  boolean detect(Bitmap bitmap, int maxSide, LandmarkFrame out);
+
+  @Override
+  void close();
+}
@@ -0,0 +1,42 @@
+package com.fatiguedetector.app.mediapipe;
+
+/**
+ * Flat, reusable landmark buffer filled by a LandmarkEngine.
+ *
+ * points holds (x, y, z) per landmark: x / y normalized to the image,
+ * z in the same scale as x (MediaPipe convention). count is 0 when no
+ * face was found, 468 for a plain mesh and 478 with iris points.
+ */
+public final class LandmarkFrame {
+
+  public static final int MESH_LANDMARKS = 468;
+  public static final int MAX_LANDMARKS = 478;
+
+  public final float[] points = new float[MAX_LANDMARKS * 3];
+  public int count;
+
+  // column-major 4x4, only from engines that estimate it
+  public final float[] transformMatrix = new float[16];
+  public boolean hasTransformMatrix;
+
+  public boolean hasFace() {
+    return count > 0;
+  }
+
+  public float x(int i) {
+    return points[i * 3];
+  }
+
+  public float y(int i) {
+    return points[i * 3 + 1];
+  }
+
+  public float z(int i) {
+    return points[i * 3 + 2];
+  }
+
+  public void clear() {
+    count = 0;
+    hasTransformMatrix = false;
+  }
+}
@@ -0,0 +1,115 @@
+package com.fatiguedetector.app.mediapipe;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Multinomial logistic regression over WindowFeatures.
+ *
+ * Model file (big-endian, as written by DataOutputStream / struct ">"):
+ *   int     magic        'FDLM'
+ *   int     version      1
+ *   int     featureCount must equal WindowFeatures.COUNT
+ *   int     classCount   3 (LOW, MEDIUM, HIGH)
+ *   float[featureCount]  feature mean
+ *   float[featureCount]  feature scale   x' = (x - mean) / scale
+ *   classCount x { float[featureCount] weights, float bias }
+ *
+ * Evaluation is a few dozen multiply-adds into preallocated arrays.
+ */
+public final class LogisticFatigueClassifier implements FatigueClassifier {
+
+  public static final int MAGIC = 0x46444C4D; // "FDLM"
+  public static final int VERSION = 1;
+
+  private static final FatigueLevel[] LEVELS = FatigueLevel.values();
+
+  private final int featureCount;
+  private final float[] mean;
+  private final float[] scale;
+  private final float[] weights;   // [class][feature]
+  private final float[] bias;
+  private final double[] logits;
+
+  private double lastScore = 0.0;
+
+  private LogisticFatigueClassifier(
+      float[] mean, float[] scale, float[] weights, float[] bias) {
+    this.featureCount = mean.length;
+    this.mean = mean;
+    this.scale = scale;
+    this.weights = weights;
+    this.bias = bias;
+    this.logits = new double[bias.length];
+  }
+
+  public static LogisticFatigueClassifier read(InputStream in) throws IOException {
+    DataInputStream data = new DataInputStream(in);
+
+    if (data.readInt() != MAGIC) {
+      throw new IOException("Not a fatigue model file");
+    }
+    int version = data.readInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported model version " + version);
+    }
+    int features = data.readInt();
+    if (features != WindowFeatures.COUNT) {
+      throw new IOException(
+          "Model has " + features + " features, expected " + WindowFeatures.COUNT);
+    }
+    int classes = data.readInt();
+    if (classes != LEVELS.length) {
+      throw new IOException(
+          "Model has " + classes + " classes, expected " + LEVELS.length);
+    }
+
+    float[] mean = new float[features];
+    float[] scale = new float[features];
+    float[] weights = new float[classes * features];
+    float[] bias = new float[classes];
+
+    for (int i = 0; i < features; i++) mean[i] = data.readFloat();
+    for (int i = 0; i < features; i++) {
+      float s = data.readFloat();
+      scale[i] = s == 0f ? 1f : s;
+    }
+    for (int c = 0; c < classes; c++) {
+      for (int i = 0; i < features; i++) {
+        weights[c * features + i] = data.readFloat();
+      }
+      bias[c] = data.readFloat();
+    }
+
+    return new LogisticFatigueClassifier(mean, scale, weights, bias);
+  }
+
+  @Override
+  public FatigueLevel classify(float[] f) {
+    int best = 0;
+    for (int c = 0; c < logits.length; c++) {
+      double z = bias[c];
+      int row = c * featureCount;
+      for (int i = 0; i < featureCount; i++) {
+        z += weights[row + i] * ((f[i] - mean[i]) / scale[i]);
+      }
+      logits[c] = z;
+      if (z > logits[best]) best = c;
+    }
+
+    // softmax probability of the winning class
+    double denom = 0;
+    for (int c = 0; c < logits.length; c++) {
+      denom += Math.exp(logits[c] - logits[best]);
+    }
+    lastScore = 1.0 / denom;
+
+    return LEVELS[best];
+  }
+
+  @Override
+  public double lastScore() {
+    return lastScore;
+  }
+}
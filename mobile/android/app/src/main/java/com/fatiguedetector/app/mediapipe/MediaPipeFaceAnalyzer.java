@@ -2,50 +2,48 @@ package com.fatiguedetector.app.mediapipe;
 
 import android.content.Context;
 import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
 
 import com.fatiguedetector.app.BuildConfig;
-import com.google.mediapipe.tasks.components.containers.NormalizedLandmark;
-import com.google.mediapipe.tasks.vision.facelandmarker.FaceLandmarkerResult;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.List;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 
 public class MediaPipeFaceAnalyzer {
 
+  static final long FACE_LOST_GRACE_MS = 1000;
+
   // =====================================================
-  // THRESHOLDS
+  // LOW-POWER PRESENCE MODE
   // =====================================================
-  private static final double NORM_EAR_HIGH = 0.80;
-  private static final double NORM_EAR_LOW  = 0.65;
-
-  private static final double PERCLOS_MED  = 0.15;
-  private static final double PERCLOS_HIGH = 0.35;
-
-  private static final int BLINK_MED  = 15;
-  private static final int BLINK_HIGH = 25;
+  // BlazeFace short-range input size
+  private static final int IDLE_MAX_SIDE = 128;
 
-  private static final long FACE_LOST_GRACE_MS = 1000;
+  // Optional bundled model; rules are used when it is absent
+  private static final String MODEL_ASSET = "fatigue_model.bin";
 
   // =====================================================
-  // WINDOWS
+  // FRAME QUALITY GATE
   // =====================================================
-  private static final long WINDOW_MS = 20_000;
-  private static final int MIN_FRAMES_FOR_PERCLOS = 15;
+  private static final int QUALITY_THUMB_SIZE = 48;
 
   // =====================================================
-  // BLINK
+  // KEYFRAME + EYE TRACKING
   // =====================================================
-  private static final int MIN_CLOSED_FRAMES = 1;
-  private static final int MAX_BLINK_FRAMES = 6;
-  private static final double BLINK_EAR_RATIO = 0.65;
+  private static final int TRACK_FRAME_SIZE = 512;
 
   // =====================================================
-  // BASELINE
+  // FEATURE STAGES
   // =====================================================
-  private static final long BASELINE_WINDOW_MS = 3_000;
-  private static final int MIN_BASELINE_FRAMES = 8;
-  private static final int MIN_FRAMES_AFTER_BASELINE = 5;
+  private final YawnStage yawnStage = new YawnStage();
+  private final FeatureStageRunner featureStages = new FeatureStageRunner(
+      yawnStage,
+      new HeadPoseStage(),
+      new GazeStage()
+  );
 
   // =====================================================
   // DEBUG
@@ -55,275 +53,389 @@ public class MediaPipeFaceAnalyzer {
   // =====================================================
   // STATE
   // =====================================================
-  private int closedFrameCount = 0;
-  private long lastBlinkTs = -1;
-  private int framesAfterBaseline = 0;
-  private long lastFaceSeenTs = -1;
-
-  private final Deque<Long> blinkTimestamps = new ArrayDeque<>();
-  private final Deque<Boolean> eyeClosedFrames = new ArrayDeque<>();
-  private final Deque<Long> frameTimestamps = new ArrayDeque<>();
-  private final Deque<Double> earHistory = new ArrayDeque<>();  
-  private final Deque<Double> baselineEARs = new ArrayDeque<>();
-  private long baselineStartTs = -1;
-  private Double baselineEAR = null;
+  private final PresenceMonitor presence =
+      new PresenceMonitor(FACE_LOST_GRACE_MS);
+
+  // Reused every frame: the steady-state path must not allocate
+  private final float[] eyePoints = new float[EyeGeometry.COORD_COUNT];
+  private final FatigueResult result = new FatigueResult();
+  private final FatigueWindowEngine engine = new FatigueWindowEngine(DEBUG_7X);
+  private final FatigueAlertEngine alertEngine = new FatigueAlertEngine();
+  private final ResolutionGovernor governor = new ResolutionGovernor();
+
+  private LogisticFatigueClassifier model;
+  private ClassificationStrategy strategy = ClassificationStrategy.RULES;
+
+  private final FrameQualityGate qualityGate;
+  private final Bitmap qualityThumb = Bitmap.createBitmap(
+      QUALITY_THUMB_SIZE, QUALITY_THUMB_SIZE, Bitmap.Config.ARGB_8888);
+  private final Canvas qualityCanvas = new Canvas(qualityThumb);
+  private final Rect qualityRect =
+      new Rect(0, 0, QUALITY_THUMB_SIZE, QUALITY_THUMB_SIZE);
+  private final Paint qualityPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+  private final int[] qualityPixels =
+      new int[QUALITY_THUMB_SIZE * QUALITY_THUMB_SIZE];
+  private final int[] sharpnessPixels =
+      new int[FrameQualityGate.SHARPNESS_CROP * FrameQualityGate.SHARPNESS_CROP];
+
+  // 1 = full face mesh on every frame (tracker off)
+  private int keyframeInterval = 1;
+  private int framesSinceKeyframe = 0;
+  private EyePatchTracker tracker;
+  private Bitmap trackFrame;
+  private Canvas trackCanvas;
+  private Rect trackRect;
+  private int[] trackPixels;
 
   // =====================================================
-  // MEDIAPIPE
+  // LANDMARK ENGINE
   // =====================================================
-  private final MediaPipeFaceLandmarker landmarker;
+  private LandmarkEngine landmarker;
+  private final LandmarkFrame landmarks = new LandmarkFrame();
+  // null when the detector could not be created (landmarker fallback)
+  private final MediaPipeFaceDetector presenceDetector;
 
   public MediaPipeFaceAnalyzer(Context context) {
-    landmarker = new MediaPipeFaceLandmarker(context);
+    this(context, new FrameQualityGate());
   }
 
-  // =====================================================
-  // UTILS
-  // =====================================================
-  private static double dist(NormalizedLandmark a, NormalizedLandmark b) {
-    double dx = a.x() - b.x();
-    double dy = a.y() - b.y();
-    return Math.sqrt(dx * dx + dy * dy);
+  public MediaPipeFaceAnalyzer(Context context, FrameQualityGate qualityGate) {
+    this(context, qualityGate, new MediaPipeFaceLandmarker(context));
   }
 
-  private static double computeEAR(
-      List<NormalizedLandmark> lm,
-      int p1, int p2, int p3, int p4, int p5, int p6
+  public MediaPipeFaceAnalyzer(
+      Context context,
+      FrameQualityGate qualityGate,
+      LandmarkEngine landmarker
   ) {
-    double v1 = dist(lm.get(p2), lm.get(p6));
-    double v2 = dist(lm.get(p3), lm.get(p5));
-    double h  = dist(lm.get(p1), lm.get(p4));
-    return h <= 0 ? 0.0 : (v1 + v2) / (2.0 * h);
+    this.landmarker = landmarker;
+    presenceDetector = createPresenceDetector(context);
+    this.qualityGate = qualityGate;
+    loadBundledModel(context);
   }
 
-  private static double computeBlinkEntropy(Deque<Long> ts) {
-    if (ts.size() < 4) return 0.0;
-    Long[] t = ts.toArray(new Long[0]);
-    double sum = 0;
-    for (int i = 1; i < t.length; i++) {
-      sum += Math.log(t[i] - t[i - 1] + 1);
+  private static MediaPipeFaceDetector createPresenceDetector(Context context) {
+    try {
+      return new MediaPipeFaceDetector(context);
+    } catch (RuntimeException e) {
+      android.util.Log.w("Fatigue",
+          MediaPipeFaceDetector.TASK_ENTRY + " unavailable, idle mode uses the landmarker", e);
+      return null;
     }
-    return sum / (t.length - 1);
+  }
+
+  /**
+   * Swaps the landmark backend (closing the previous one). The resolution
+   * governor and tracker restart since their state belongs to the old one;
+   * the baseline and windows are kept.
+   */
+  public void setLandmarkEngine(LandmarkEngine next) {
+    if (next == landmarker) return;
+    landmarker.close();
+    landmarker = next;
+    governor.reset();
+    if (tracker != null) tracker.reset();
+    framesSinceKeyframe = 0;
+  }
+
+  public LandmarkEngine getLandmarkEngine() {
+    return landmarker;
+  }
+
+  /** Closes the landmark and presence engines; the analyzer is unusable after. */
+  public void release() {
+    landmarker.close();
+    if (presenceDetector != null) presenceDetector.close();
   }
 
   // =====================================================
-  // MAIN ANALYSIS
+  // CLASSIFICATION STRATEGY
   // =====================================================
-  public FatigueResult analyze(Bitmap bitmap) {
-    long now = System.currentTimeMillis();
+  private void loadBundledModel(Context context) {
+    try (InputStream in = context.getAssets().open(MODEL_ASSET)) {
+      model = LogisticFatigueClassifier.read(in);
+      setClassificationStrategy(ClassificationStrategy.MODEL);
+    } catch (IOException e) {
+      // No bundled model: keep the rule cascade
+      model = null;
+    }
+  }
 
-    if (bitmap == null) {
-      return FatigueResult.noFace(now);
+  /** Replaces the model with a retrained file (e.g. downloaded) and selects it. */
+  public void loadModel(String path) throws IOException {
+    try (InputStream in = new FileInputStream(path)) {
+      model = LogisticFatigueClassifier.read(in);
     }
+    setClassificationStrategy(ClassificationStrategy.MODEL);
+  }
 
-    FaceLandmarkerResult result = landmarker.processBitmap(bitmap);
+  /** @return false if MODEL was requested but no model is loaded */
+  public boolean setClassificationStrategy(ClassificationStrategy next) {
+    if (next == ClassificationStrategy.MODEL && model == null) return false;
+    strategy = next;
+    engine.setClassifier(next == ClassificationStrategy.MODEL ? model : null);
+    return true;
+  }
 
-    if (result == null || result.faceLandmarks().isEmpty()) {
-      if (lastFaceSeenTs > 0 &&
-          now - lastFaceSeenTs < FACE_LOST_GRACE_MS) {
-        return FatigueResult.hold(now);
-      }
-      return FatigueResult.noFace(now);
+  public ClassificationStrategy getClassificationStrategy() {
+    return strategy;
+  }
+
+  /** The model in use, or null for the rule cascade. */
+  public FatigueClassifier getClassifier() {
+    return strategy == ClassificationStrategy.MODEL ? model : null;
+  }
+
+  // =====================================================
+  // UTILS
+  // =====================================================
+  private static void copyEyePoints(LandmarkFrame lm, float[] out) {
+    int[] indices = EyeGeometry.LANDMARK_INDICES;
+    for (int i = 0; i < indices.length; i++) {
+      out[i * 2] = lm.x(indices[i]);
+      out[i * 2 + 1] = lm.y(indices[i]);
     }
+  }
 
-    lastFaceSeenTs = now;
+  private FrameQuality checkQuality(Bitmap bitmap) {
+    qualityCanvas.drawBitmap(bitmap, null, qualityRect, qualityPaint);
+    qualityThumb.getPixels(
+        qualityPixels, 0, QUALITY_THUMB_SIZE,
+        0, 0, QUALITY_THUMB_SIZE, QUALITY_THUMB_SIZE);
+
+    // Sharpness on native pixels: the thumbnail has lost the fine detail
+    int w = bitmap.getWidth();
+    int h = bitmap.getHeight();
+    int side = Math.min(FrameQualityGate.SHARPNESS_CROP, Math.min(w, h));
+    bitmap.getPixels(sharpnessPixels, 0, side, (w - side) / 2, (h - side) / 2, side, side);
+
+    return qualityGate.evaluate(
+        qualityPixels, QUALITY_THUMB_SIZE, QUALITY_THUMB_SIZE,
+        sharpnessPixels, side, side);
+  }
 
-    List<NormalizedLandmark> lm = result.faceLandmarks().get(0);
+  public FrameQualityGate getQualityGate() {
+    return qualityGate;
+  }
 
-    double leftEAR  = computeEAR(lm, 33, 160, 158, 133, 153, 144);
-    double rightEAR = computeEAR(lm, 362, 385, 387, 263, 373, 380);
-    double avgEAR   = (leftEAR + rightEAR) / 2.0;
+  public FatigueAlertEngine getAlertEngine() {
+    return alertEngine;
+  }
 
-    // =====================================================
-    // BASELINE
-    // =====================================================
-    if (baselineEAR == null) {
-      if (baselineStartTs < 0) baselineStartTs = now;
+  public ResolutionGovernor getResolutionGovernor() {
+    return governor;
+  }
 
-      if (avgEAR > 0.15 && avgEAR < 0.35) {
-        baselineEARs.addLast(avgEAR);
-      }
+  public FeatureStageRunner getFeatureStages() {
+    return featureStages;
+  }
 
-      if (now - baselineStartTs >= BASELINE_WINDOW_MS &&
-          baselineEARs.size() >= MIN_BASELINE_FRAMES) {
+  public PresenceMonitor getPresenceMonitor() {
+    return presence;
+  }
 
-        double sum = 0;
-        for (double v : baselineEARs) sum += v;
-        baselineEAR = Math.max(0.18, sum / baselineEARs.size());
+  /** Stages run at the higher of the window level and the alert level. */
+  private FatigueLevel stageLevel() {
+    FatigueLevel alert = alertEngine.getAlertLevel();
+    return result.fatigueLevel.compareTo(alert) >= 0
+        ? result.fatigueLevel
+        : alert;
+  }
 
-        baselineEARs.clear();
-        framesAfterBaseline = 0;
+  /** Mean eye-corner distance as a fraction of the longest image side. */
+  private double eyeWidth(Bitmap bitmap) {
+    int w = bitmap.getWidth();
+    double scale = (double) w / Math.max(1, Math.max(w, bitmap.getHeight()));
+    int l = EyeGeometry.LEFT_EYE * 2;
+    int r = EyeGeometry.RIGHT_EYE * 2;
+    double left = Math.abs(eyePoints[l + 6] - eyePoints[l]);
+    double right = Math.abs(eyePoints[r + 6] - eyePoints[r]);
+    return (left + right) / 2.0 * scale;
+  }
 
-        if (DEBUG_7X) {
-          android.util.Log.d("Fatigue", "Baseline locked: " + baselineEAR);
-        }
-      }
+  /**
+   * Runs the full face mesh every {@code interval} frames (or on tracker
+   * loss) and tracks the eyelid points in between. 1 disables tracking.
+   */
+  public void setKeyframeInterval(int interval) {
+    keyframeInterval = Math.max(1, interval);
+    if (keyframeInterval > 1 && tracker == null) {
+      tracker = new EyePatchTracker(TRACK_FRAME_SIZE);
+      trackFrame = Bitmap.createBitmap(
+          TRACK_FRAME_SIZE, TRACK_FRAME_SIZE, Bitmap.Config.ARGB_8888);
+      trackCanvas = new Canvas(trackFrame);
+      trackRect = new Rect(0, 0, TRACK_FRAME_SIZE, TRACK_FRAME_SIZE);
+      trackPixels = new int[TRACK_FRAME_SIZE * TRACK_FRAME_SIZE];
+    }
+    if (tracker != null) tracker.reset();
+    framesSinceKeyframe = 0;
+  }
 
-      return FatigueResult.calibrating(leftEAR, rightEAR, avgEAR, now);
+  private boolean trackingEnabled() {
+    return keyframeInterval > 1 && tracker != null;
+  }
+
+  /** Scales the frame into the work bitmap and loads the ROI around {@code pts}. */
+  private void loadTrackRoi(Bitmap bitmap, boolean drawn, float[] pts) {
+    if (!drawn) {
+      trackCanvas.drawBitmap(bitmap, null, trackRect, qualityPaint);
     }
+    int[] roi = tracker.roiFor(pts);
+    if (roi[2] == 0 || roi[3] == 0) return;
+    trackFrame.getPixels(
+        trackPixels, roi[1] * TRACK_FRAME_SIZE + roi[0], TRACK_FRAME_SIZE,
+        roi[0], roi[1], roi[2], roi[3]);
+    tracker.loadRoi(trackPixels);
+  }
+
+  // =====================================================
+  // MAIN ANALYSIS
+  // =====================================================
+
+  /**
+   * Returns the analyzer's shared result holder; read it (or copy it)
+   * before the next call.
+   */
+  public FatigueResult analyze(Bitmap bitmap) {
+    long now = System.currentTimeMillis();
+
+    result.inferenceMs = 0;
+    result.featureStageMs = 0;
+    analyzeFrame(bitmap, now);
+    return finish();
+  }
+
+  private FatigueResult finish() {
+    result.resolutionTier = landmarker.supportsMaxSide() ? governor.getTier() : -1;
+    result.presenceMode = presence.getMode();
+    result.baselineEAR = engine.getBaselineEAR();
+
+    // Alert straight from the pipeline, before the result reaches JS
+    FatigueLevel fired = alertEngine.onResult(result);
+    result.alertTriggered = fired != null;
+    result.alertLevel = alertEngine.getAlertLevel();
 
-    // =====================================================
-    // POST-BASELINE
-    // =====================================================
-    framesAfterBaseline++;
+    return result;
+  }
 
-    double normalizedEAR = avgEAR / baselineEAR;
-    normalizedEAR = Math.max(0.3, Math.min(1.3, normalizedEAR));
-    if (framesAfterBaseline >= MIN_FRAMES_AFTER_BASELINE) {
-      earHistory.addLast(normalizedEAR);
+  private FatigueResult analyzeFrame(Bitmap bitmap, long now) {
+    if (bitmap == null) {
+      return result.setNoFace(now);
     }
-    boolean eyeClosed = normalizedEAR < BLINK_EAR_RATIO;
-    boolean blinkDetected = false;
 
-    if (eyeClosed) {
-      closedFrameCount++;
-    } else {
-      if (closedFrameCount >= MIN_CLOSED_FRAMES &&
-          closedFrameCount <= MAX_BLINK_FRAMES) {
-        blinkDetected = true;
-        blinkTimestamps.addLast(now);
-        lastBlinkTs = now;
+    // Nobody in the seat: sampled cheap detection only. On a hit this
+    // same frame goes on to full landmarking with the baseline intact.
+    if (presence.isIdle()) {
+      if (!presence.takeIdleSample(now) || !detectPresence(bitmap)) {
+        return result.setNoFace(now);
       }
-      closedFrameCount = 0;
+      presence.wake(now);
     }
 
-    frameTimestamps.addLast(now);
-    eyeClosedFrames.addLast(eyeClosed);
-    evictOld(now);
-
-    int closed = 0;
-    for (boolean b : eyeClosedFrames) if (b) closed++;
-
-    double perclos =
-        frameTimestamps.size() >= MIN_FRAMES_FOR_PERCLOS
-            ? (double) closed / frameTimestamps.size()
-            : 0.0;
-
-    long windowStart = frameTimestamps.peekFirst();
-    double effectiveWindowMs =
-        Math.max(1, Math.min(WINDOW_MS, now - windowStart));
-
-    double blinkRate =
-        blinkTimestamps.size() * (60_000.0 / effectiveWindowMs);
-    double earVariance = computeVariance(earHistory);
-
-    /**
-     * Expected behavior:
-     * - Stable EAR variance ≈ 0.002–0.006
-     * - Erratic / jittery ≥ 0.015
-     */
-    double stabilityScore;
-
-    if (earHistory.size() < 8) {
-      stabilityScore = 1.0;
-    } else if (earVariance <= 0.006) {
-      stabilityScore = 1.0;
-    } else if (earVariance >= 0.02) {
-      stabilityScore = 0.4; // hard distrust
-    } else {
-      // smooth linear falloff
-      stabilityScore =
-          1.0 - ((earVariance - 0.006) / (0.02 - 0.006)) * 0.6;
+    // Dark / blurred / blown-out frames never reach inference
+    FrameQuality quality = checkQuality(bitmap);
+    result.lowQualityFrames = qualityGate.getLowQualityFrames();
+    if (quality != FrameQuality.OK) {
+      return result.setLowQuality(quality, now);
     }
 
-    // =====================================================
-    // CLASSIFICATION
-    // =====================================================
-    FatigueLevel fatigueLevel = FatigueLevel.LOW;
-
-    if (normalizedEAR < NORM_EAR_LOW ||
-        perclos >= PERCLOS_HIGH ||
-        blinkRate > BLINK_HIGH) {
-      fatigueLevel = FatigueLevel.HIGH;
-    } else if (normalizedEAR < NORM_EAR_HIGH ||
-               perclos >= PERCLOS_MED ||
-               blinkRate >= BLINK_MED) {
-      fatigueLevel = FatigueLevel.MEDIUM;
+    boolean hadBaseline = engine.hasBaseline();
+    boolean workFrameDrawn = false;
+
+    // Between keyframes: track eyelid points, fall back to mesh on loss
+    if (trackingEnabled() &&
+        tracker.hasKeyframe() &&
+        framesSinceKeyframe < keyframeInterval - 1) {
+      loadTrackRoi(bitmap, false, eyePoints);
+      workFrameDrawn = true;
+
+      if (tracker.track(eyePoints)) {
+        framesSinceKeyframe++;
+        presence.onFace(now);
+
+        engine.analyze(eyePoints, now, result);
+        result.trackedFrame = true;
+        result.trackingConfidence = tracker.getConfidence();
+        result.confidence *= tracker.getConfidence();
+        featureStages.publish(result);
+        logBaselineLock(hadBaseline);
+        return result;
+      }
     }
 
-    // =====================================================
-    // CONFIDENCE
-    // =====================================================
-    double confidence;
+    // Engines with fixed-size inputs get no maxSide; the governor holds
+    boolean governed = landmarker.supportsMaxSide();
+    if (governed) {
+      governor.setSourceSide(Math.max(bitmap.getWidth(), bitmap.getHeight()));
+    }
+    long t0 = System.nanoTime();
+    boolean found =
+        landmarker.detect(bitmap, governed ? governor.getMaxSide() : 0, landmarks);
+    double inferenceMs = (System.nanoTime() - t0) / 1_000_000.0;
+    result.inferenceMs = inferenceMs;
+
+    if (!found) {
+      if (governed) governor.onFrame(inferenceMs, -1, 0);
+      if (tracker != null) tracker.reset();
+      presence.onNoFace(now);
+      if (presence.isInGrace(now)) {
+        return result.setHold(now);
+      }
+      return result.setNoFace(now);
+    }
 
-    boolean isCalibrating =
-        framesAfterBaseline < MIN_FRAMES_AFTER_BASELINE;
+    presence.onFace(now);
 
-    if (isCalibrating) {
-      confidence = 0.0;
-    } else {
-      double temporalScore = Math.min(1.0, framesAfterBaseline / 30.0);
-      double stateScore = fatigueLevel == FatigueLevel.LOW ? 0.5 : 1.0;
-      double rawConfidence =
-        0.5 * temporalScore + 0.5 * stateScore;
+    copyEyePoints(landmarks, eyePoints);
 
-      confidence = Math.min(1.0, rawConfidence * stabilityScore);
+    if (trackingEnabled()) {
+      loadTrackRoi(bitmap, workFrameDrawn, eyePoints);
+      tracker.setKeyframe(eyePoints);
+      framesSinceKeyframe = 0;
     }
 
-    return new FatigueResult(
-        true,
-        isCalibrating,
-        leftEAR,
-        rightEAR,
-        avgEAR,
-        blinkDetected,
-        blinkRate,
-        DEBUG_7X ? computeBlinkEntropy(blinkTimestamps) : -1.0,
-        perclos,
-        fatigueLevel,
-        confidence,
-        now
-    );
-  }
+    engine.analyze(eyePoints, now, result);
+    if (governed) governor.onFrame(inferenceMs, result.avgEAR, eyeWidth(bitmap));
 
-  // =====================================================
-  // EVICTION
-  // =====================================================
-  private void evictOld(long now) {
-    while (!frameTimestamps.isEmpty() &&
-           now - frameTimestamps.peekFirst() > WINDOW_MS) {
-      frameTimestamps.pollFirst();
-      eyeClosedFrames.pollFirst();
-      earHistory.pollFirst();
-    }
+    // Tracked frames have no mesh: stages run on keyframes only
+    yawnStage.setFrameSize(bitmap.getWidth(), bitmap.getHeight());
+    result.featureStageMs = featureStages.run(landmarks, stageLevel(), now);
+    featureStages.publish(result);
+    logBaselineLock(hadBaseline);
 
-    while (!blinkTimestamps.isEmpty() &&
-           now - blinkTimestamps.peekFirst() > WINDOW_MS) {
-      blinkTimestamps.pollFirst();
-    }
+    return result;
   }
 
-  private static double computeVariance(Deque<Double> values) {
-    if (values.size() < 5) return 0.0;
-
-    double mean = 0;
-    for (double v : values) mean += v;
-    mean /= values.size();
+  /** Idle-mode presence check; time is reported as inferenceMs. */
+  private boolean detectPresence(Bitmap bitmap) {
+    long t0 = System.nanoTime();
+    boolean found;
+    if (presenceDetector != null) {
+      found = presenceDetector.hasFace(bitmap, IDLE_MAX_SIDE);
+    } else {
+      found = landmarker.detect(bitmap, IDLE_MAX_SIDE, landmarks);
+    }
+    result.inferenceMs = (System.nanoTime() - t0) / 1_000_000.0;
+    return found;
+  }
 
-    double var = 0;
-    for (double v : values) {
-      double d = v - mean;
-      var += d * d;
+  private void logBaselineLock(boolean hadBaseline) {
+    if (DEBUG_7X && !hadBaseline && engine.hasBaseline()) {
+      android.util.Log.d("Fatigue", "Baseline locked: " + engine.getBaselineEAR());
     }
-    return var / values.size();
   }
 
   // =====================================================
   // RESET
   // =====================================================
   public void resetState() {
-    closedFrameCount = 0;
-    lastBlinkTs = -1;
-    framesAfterBaseline = 0;
-    lastFaceSeenTs = -1;
-
-    blinkTimestamps.clear();
-    eyeClosedFrames.clear();
-    frameTimestamps.clear();
-    earHistory.clear();              
-
-    baselineEARs.clear();
-    baselineEAR = null;
-    baselineStartTs = -1;
+    presence.reset();
+    engine.reset();
+    qualityGate.resetCounters();
+    alertEngine.reset();
+    featureStages.reset();
+    yawnStage.resetCount();
+    framesSinceKeyframe = 0;
+    if (tracker != null) tracker.reset();
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,68 @@
+package com.fatiguedetector.app.mediapipe;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+
+import com.google.mediapipe.framework.image.BitmapImageBuilder;
+import com.google.mediapipe.framework.image.MPImage;
+import com.google.mediapipe.tasks.core.BaseOptions;
+import com.google.mediapipe.tasks.vision.core.RunningMode;
+import com.google.mediapipe.tasks.vision.facedetector.FaceDetector;
+import com.google.mediapipe.tasks.vision.facedetector.FaceDetectorResult;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * BlazeFace short-range detector used for presence checks only.
+ * Much cheaper than the full landmarker (no mesh, 128 px input).
+ *
+ * The model is the detector stage of the bundled face_landmarker.task,
+ * read out of the bundle, so no separate asset has to ship.
+ */
+public class MediaPipeFaceDetector {
+
+  public static final String TASK_ENTRY = "face_detector.tflite";
+
+  private static final float MIN_DETECTION_CONFIDENCE = 0.5f;
+
+  private final FaceDetector faceDetector;
+  private final BitmapScaler scaler = new BitmapScaler();
+
+  /** Throws if the detector cannot be read from the landmarker bundle. */
+  public MediaPipeFaceDetector(Context context) {
+    ByteBuffer model;
+    try {
+      model = MediaPipeFaceLandmarker.loadTaskEntry(context, TASK_ENTRY);
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot read " + TASK_ENTRY, e);
+    }
+
+    BaseOptions baseOptions =
+        BaseOptions.builder()
+            .setModelAssetBuffer(model)
+            .build();
+
+    FaceDetector.FaceDetectorOptions options =
+        FaceDetector.FaceDetectorOptions.builder()
+            .setBaseOptions(baseOptions)
+            .setRunningMode(RunningMode.IMAGE)
+            .setMinDetectionConfidence(MIN_DETECTION_CONFIDENCE)
+            .build();
+
+    faceDetector = FaceDetector.createFromOptions(context, options);
+  }
+
+  /** @param maxSide longest side fed to the detector; 0 = unscaled */
+  public boolean hasFace(Bitmap bitmap, int maxSide) {
+    if (bitmap == null) return false;
+
+    MPImage mpImage = new BitmapImageBuilder(scaler.scaleToFit(bitmap, maxSide)).build();
+    FaceDetectorResult result = faceDetector.detect(mpImage);
+    return result != null && !result.detections().isEmpty();
+  }
+
+  public void close() {
+    faceDetector.close();
+  }
+}
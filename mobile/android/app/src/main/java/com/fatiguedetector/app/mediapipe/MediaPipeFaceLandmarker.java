@@ -5,19 +5,39 @@ import android.graphics.Bitmap;
 
 import com.google.mediapipe.framework.image.BitmapImageBuilder;
 import com.google.mediapipe.framework.image.MPImage;
+import com.google.mediapipe.tasks.components.containers.NormalizedLandmark;
 import com.google.mediapipe.tasks.core.BaseOptions;
 import com.google.mediapipe.tasks.vision.core.RunningMode;
 import com.google.mediapipe.tasks.vision.facelandmarker.FaceLandmarker;
 import com.google.mediapipe.tasks.vision.facelandmarker.FaceLandmarkerResult;
 
-public class MediaPipeFaceLandmarker {
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * LandmarkEngine backed by the MediaPipe Tasks FaceLandmarker
+ * (detector + 478-point mesh + facial transformation matrix).
+ */
+public class MediaPipeFaceLandmarker implements LandmarkEngine {
+
+  public static final String NAME = "mediapipe";
+  public static final String MODEL_ASSET = "face_landmarker.task";
 
   private final FaceLandmarker faceLandmarker;
 
+  private final BitmapScaler scaler = new BitmapScaler();
+
   public MediaPipeFaceLandmarker(Context context) {
     BaseOptions baseOptions =
         BaseOptions.builder()
-            .setModelAssetPath("face_landmarker.task")
+            .setModelAssetPath(MODEL_ASSET)
             .build();
 
     FaceLandmarker.FaceLandmarkerOptions options =
@@ -25,16 +45,83 @@ public class MediaPipeFaceLandmarker {
             .setBaseOptions(baseOptions)
             .setRunningMode(RunningMode.IMAGE)
             .setNumFaces(1)
+            // Head pose stage; computed in-graph, negligible cost
+            .setOutputFacialTransformationMatrixes(true)
             .build();
 
     faceLandmarker = FaceLandmarker.createFromOptions(context, options);
   }
 
-  /** ✅ JAVA-CONTRACT METHOD */
-  public FaceLandmarkerResult processBitmap(Bitmap bitmap) {
-    if (bitmap == null) return null;
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  @Override
+  public boolean supportsMaxSide() {
+    return true;
+  }
+
+  /**
+   * @param maxSide longest side fed to MediaPipe; 0 = unscaled.
+   *                Landmarks are normalized, so callers are unaffected.
+   */
+  @Override
+  public boolean detect(Bitmap bitmap, int maxSide, LandmarkFrame out) {
+    out.clear();
+    if (bitmap == null) return false;
+
+    MPImage mpImage = new BitmapImageBuilder(scaler.scaleToFit(bitmap, maxSide)).build();
+    FaceLandmarkerResult result = faceLandmarker.detect(mpImage);
+    if (result == null || result.faceLandmarks().isEmpty()) return false;
+
+    List<NormalizedLandmark> lm = result.faceLandmarks().get(0);
+    int n = Math.min(lm.size(), LandmarkFrame.MAX_LANDMARKS);
+    float[] pts = out.points;
+    for (int i = 0; i < n; i++) {
+      NormalizedLandmark p = lm.get(i);
+      pts[i * 3] = p.x();
+      pts[i * 3 + 1] = p.y();
+      pts[i * 3 + 2] = p.z();
+    }
+    out.count = n;
+
+    Optional<List<float[]>> matrices = result.facialTransformationMatrixes();
+    if (matrices.isPresent() && !matrices.get().isEmpty()) {
+      System.arraycopy(matrices.get().get(0), 0, out.transformMatrix, 0, 16);
+      out.hasTransformMatrix = true;
+    }
+    return true;
+  }
+
+  @Override
+  public void close() {
+    faceLandmarker.close();
+  }
+
+  /**
+   * Copies one model out of the bundled (zip) task file into a direct
+   * buffer, for engines that run the bundle's models on their own.
+   */
+  static ByteBuffer loadTaskEntry(Context context, String entry) throws IOException {
+    try (InputStream in = context.getAssets().open(MODEL_ASSET);
+         ZipInputStream zip = new ZipInputStream(in)) {
+      ZipEntry e;
+      while ((e = zip.getNextEntry()) != null) {
+        if (!entry.equals(e.getName())) continue;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] chunk = new byte[64 * 1024];
+        int n;
+        while ((n = zip.read(chunk)) > 0) bytes.write(chunk, 0, n);
 
-    MPImage mpImage = new BitmapImageBuilder(bitmap).build();
-    return faceLandmarker.detect(mpImage);
+        ByteBuffer model = ByteBuffer.allocateDirect(bytes.size())
+            .order(ByteOrder.nativeOrder());
+        model.put(bytes.toByteArray());
+        model.rewind();
+        return model;
+      }
+    }
+    throw new IOException(entry + " not found in " + MODEL_ASSET);
   }
 }
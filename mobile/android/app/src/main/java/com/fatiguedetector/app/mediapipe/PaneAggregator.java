@@ -0,0 +1,259 @@
+package com.fatiguedetector.app.mediapipe;
+
+/**
+ * Pane-based sliding aggregation over several time horizons.
+ *
+ * Frames are folded into fixed PANE_MS panes (frame / closed / blink
+ * counts and normalized-EAR moments). A horizon of H ms is answered from
+ * the last ceil(H / paneMs) panes, so memory and per-frame cost depend on
+ * the horizons only, not on frame rate. Completed-pane totals per horizon
+ * are recomputed once per pane; each frame only adds the open pane.
+ *
+ * Horizons resolve to pane granularity (the window is H - paneMs .. H).
+ * Pure Java, preallocated, no allocation per frame.
+ */
+public final class PaneAggregator {
+
+  public static final int MAX_HORIZONS = 8;
+
+  private static final int MIN_EAR_SAMPLES = 5;
+
+  private final long paneMs;
+  private final long[] horizonMs;
+  private final int[] horizonPanes;
+  private final int ringSize;
+
+  // =====================================================
+  // PANES (slot = absolute pane number % ringSize)
+  // =====================================================
+  private final long[] paneId;
+  private final long[] paneFirstTs;
+  private final int[] paneFrames;
+  private final int[] paneClosed;
+  private final int[] paneBlinks;
+  private final int[] paneEarN;
+  private final double[] paneEarSum;
+  private final double[] paneEarSumSq;
+
+  private long currentPane = -1;
+
+  // =====================================================
+  // COMPLETED-PANE TOTALS PER HORIZON
+  // =====================================================
+  private final long[] hFirstTs;
+  private final int[] hFrames;
+  private final int[] hClosed;
+  private final int[] hBlinks;
+  private final int[] hEarN;
+  private final double[] hEarSum;
+  private final double[] hEarSumSq;
+
+  public PaneAggregator(long paneMs, long... horizonsMs) {
+    if (horizonsMs.length == 0 || horizonsMs.length > MAX_HORIZONS) {
+      throw new IllegalArgumentException(
+          "1.." + MAX_HORIZONS + " horizons required");
+    }
+    this.paneMs = Math.max(1, paneMs);
+    horizonMs = horizonsMs.clone();
+    horizonPanes = new int[horizonMs.length];
+
+    int maxPanes = 1;
+    for (int i = 0; i < horizonMs.length; i++) {
+      if (horizonMs[i] <= 0) {
+        throw new IllegalArgumentException("horizon must be > 0");
+      }
+      horizonPanes[i] = (int) ((horizonMs[i] + this.paneMs - 1) / this.paneMs);
+      maxPanes = Math.max(maxPanes, horizonPanes[i]);
+    }
+    ringSize = maxPanes + 1;
+
+    paneId = new long[ringSize];
+    paneFirstTs = new long[ringSize];
+    paneFrames = new int[ringSize];
+    paneClosed = new int[ringSize];
+    paneBlinks = new int[ringSize];
+    paneEarN = new int[ringSize];
+    paneEarSum = new double[ringSize];
+    paneEarSumSq = new double[ringSize];
+
+    int n = horizonMs.length;
+    hFirstTs = new long[n];
+    hFrames = new int[n];
+    hClosed = new int[n];
+    hBlinks = new int[n];
+    hEarN = new int[n];
+    hEarSum = new double[n];
+    hEarSumSq = new double[n];
+
+    reset();
+  }
+
+  public int getHorizonCount() {
+    return horizonMs.length;
+  }
+
+  public long getHorizonMs(int h) {
+    return horizonMs[h];
+  }
+
+  /** @return index of the horizon with exactly {@code ms}, or -1 */
+  public int indexOf(long ms) {
+    for (int i = 0; i < horizonMs.length; i++) {
+      if (horizonMs[i] == ms) return i;
+    }
+    return -1;
+  }
+
+  // =====================================================
+  // INGEST
+  // =====================================================
+
+  /**
+   * @param hasEAR whether {@code ear} counts towards the EAR moments
+   */
+  public void add(long ts, boolean closed, boolean blink, boolean hasEAR, double ear) {
+    long p = ts / paneMs;
+    if (currentPane < 0) {
+      openPane(p, ts);
+      currentPane = p;
+    } else if (p > currentPane) {
+      advanceTo(p, ts);
+    }
+
+    int s = (int) (currentPane % ringSize);
+    paneFrames[s]++;
+    if (closed) paneClosed[s]++;
+    if (blink) paneBlinks[s]++;
+    if (hasEAR) {
+      paneEarN[s]++;
+      paneEarSum[s] += ear;
+      paneEarSumSq[s] += ear * ear;
+    }
+  }
+
+  private void advanceTo(long p, long ts) {
+    // Panes skipped by a time gap stay empty
+    long from = Math.max(currentPane + 1, p - ringSize + 1);
+    for (long q = from; q < p; q++) {
+      clearSlot((int) (q % ringSize), q);
+    }
+    openPane(p, ts);
+    currentPane = p;
+    recomputeCompleted();
+  }
+
+  private void openPane(long p, long ts) {
+    int s = (int) (p % ringSize);
+    clearSlot(s, p);
+    paneFirstTs[s] = ts;
+  }
+
+  private void clearSlot(int s, long id) {
+    paneId[s] = id;
+    paneFirstTs[s] = -1;
+    paneFrames[s] = 0;
+    paneClosed[s] = 0;
+    paneBlinks[s] = 0;
+    paneEarN[s] = 0;
+    paneEarSum[s] = 0;
+    paneEarSumSq[s] = 0;
+  }
+
+  /** Totals of the completed panes inside each horizon. */
+  private void recomputeCompleted() {
+    for (int h = 0; h < horizonMs.length; h++) {
+      long firstTs = -1;
+      int frames = 0, closed = 0, blinks = 0, earN = 0;
+      double earSum = 0, earSumSq = 0;
+
+      for (long q = currentPane - horizonPanes[h] + 1; q < currentPane; q++) {
+        if (q < 0) continue;
+        int s = (int) (q % ringSize);
+        if (paneId[s] != q || paneFrames[s] == 0) continue;
+        if (firstTs < 0) firstTs = paneFirstTs[s];
+        frames += paneFrames[s];
+        closed += paneClosed[s];
+        blinks += paneBlinks[s];
+        earN += paneEarN[s];
+        earSum += paneEarSum[s];
+        earSumSq += paneEarSumSq[s];
+      }
+
+      hFirstTs[h] = firstTs;
+      hFrames[h] = frames;
+      hClosed[h] = closed;
+      hBlinks[h] = blinks;
+      hEarN[h] = earN;
+      hEarSum[h] = earSum;
+      hEarSumSq[h] = earSumSq;
+    }
+  }
+
+  // =====================================================
+  // QUERIES (completed panes + the open pane)
+  // =====================================================
+  private int cur() {
+    return (int) (Math.max(0, currentPane) % ringSize);
+  }
+
+  public int frames(int h) {
+    return currentPane < 0 ? 0 : hFrames[h] + paneFrames[cur()];
+  }
+
+  public int blinks(int h) {
+    return currentPane < 0 ? 0 : hBlinks[h] + paneBlinks[cur()];
+  }
+
+  public int earSamples(int h) {
+    return currentPane < 0 ? 0 : hEarN[h] + paneEarN[cur()];
+  }
+
+  /** Fraction of closed-eye frames; 0 below {@code minFrames}. */
+  public double perclos(int h, int minFrames) {
+    int frames = frames(h);
+    if (frames == 0 || frames < minFrames) return 0.0;
+    return (double) (hClosed[h] + paneClosed[cur()]) / frames;
+  }
+
+  /** Blinks per minute over the span actually covered by frames. */
+  public double blinkRate(int h, long now) {
+    if (currentPane < 0) return 0.0;
+    long start = hFirstTs[h] >= 0 ? hFirstTs[h] : paneFirstTs[cur()];
+    double spanMs = Math.max(1, Math.min(horizonMs[h], now - start));
+    return blinks(h) * (60_000.0 / spanMs);
+  }
+
+  /** Mean normalized EAR, or {@code fallback} with no samples. */
+  public double earMean(int h, double fallback) {
+    int n = earSamples(h);
+    if (n == 0) return fallback;
+    return (hEarSum[h] + paneEarSum[cur()]) / n;
+  }
+
+  /** Population variance of normalized EAR; 0 below 5 samples. */
+  public double earVariance(int h) {
+    int n = earSamples(h);
+    if (n < MIN_EAR_SAMPLES) return 0.0;
+    int s = cur();
+    double mean = (hEarSum[h] + paneEarSum[s]) / n;
+    double var = (hEarSumSq[h] + paneEarSumSq[s]) / n - mean * mean;
+    return Math.max(0.0, var);
+  }
+
+  // =====================================================
+  // RESET
+  // =====================================================
+  public void reset() {
+    currentPane = -1;
+    for (int s = 0; s < ringSize; s++) clearSlot(s, -1);
+    for (int h = 0; h < horizonMs.length; h++) {
+      hFirstTs[h] = -1;
+      hFrames[h] = 0;
+      hClosed[h] = 0;
+      hBlinks[h] = 0;
+      hEarN[h] = 0;
+      hEarSum[h] = 0;
+      hEarSumSq[h] = 0;
+    }
+  }
+}
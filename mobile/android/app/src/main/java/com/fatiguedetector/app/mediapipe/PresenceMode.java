@@ -0,0 +1,10 @@
+package com.fatiguedetector.app.mediapipe;
+
+/**
+ * ACTIVE = full landmarking on every frame.
+ * IDLE   = nobody in frame; sampled presence detection only.
+ */
+public enum PresenceMode {
+  ACTIVE,
+  IDLE
+}
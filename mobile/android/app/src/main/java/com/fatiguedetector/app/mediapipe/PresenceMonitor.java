@@ -0,0 +1,151 @@
+package com.fatiguedetector.app.mediapipe;
+
+/**
+ * Face-presence state machine behind the low-power idle mode.
+ *
+ * - ACTIVE -> IDLE once no face has been landmarked for graceMs.
+ * - In IDLE only one frame per idleSampleMs is checked, with the cheap
+ *   presence detector.
+ * - IDLE -> ACTIVE as soon as that detector sees a face; the same frame
+ *   is then landmarked, so no frames are lost on return.
+ *
+ * Also accounts the time spent in each mode. Pure Java.
+ */
+public final class PresenceMonitor {
+
+  public static final long DEFAULT_IDLE_SAMPLE_MS = 500;
+
+  private final long graceMs;
+  private long idleSampleMs = DEFAULT_IDLE_SAMPLE_MS;
+
+  // =====================================================
+  // STATE
+  // =====================================================
+  private PresenceMode mode = PresenceMode.ACTIVE;
+  private long modeSinceTs = -1;
+  private long lastFaceTs = -1;
+  private long lastIdleSampleTs = -1;
+
+  // =====================================================
+  // STATS
+  // =====================================================
+  private long activeMs;
+  private long idleMs;
+  private int idleEntries;
+  private long idleSamples;
+
+  public PresenceMonitor(long graceMs) {
+    this.graceMs = graceMs;
+  }
+
+  public void setIdleSampleMs(long ms) {
+    idleSampleMs = Math.max(0, ms);
+  }
+
+  public PresenceMode getMode() {
+    return mode;
+  }
+
+  public boolean isIdle() {
+    return mode == PresenceMode.IDLE;
+  }
+
+  /** Face lost less than graceMs ago (results are held, not dropped). */
+  public boolean isInGrace(long now) {
+    return lastFaceTs > 0 && now - lastFaceTs < graceMs;
+  }
+
+  // =====================================================
+  // TRANSITIONS
+  // =====================================================
+  public void onFace(long now) {
+    start(now);
+    lastFaceTs = now;
+  }
+
+  /** A landmarking frame found no face; may switch to IDLE. */
+  public void onNoFace(long now) {
+    start(now);
+    if (mode != PresenceMode.ACTIVE) return;
+
+    long since = Math.max(lastFaceTs, modeSinceTs);
+    if (now - since >= graceMs) {
+      switchTo(PresenceMode.IDLE, now);
+      idleEntries++;
+      lastIdleSampleTs = -1;
+    }
+  }
+
+  /** In IDLE: true if this frame should be checked (and counts it). */
+  public boolean takeIdleSample(long now) {
+    if (lastIdleSampleTs >= 0 && now - lastIdleSampleTs < idleSampleMs) {
+      return false;
+    }
+    lastIdleSampleTs = now;
+    idleSamples++;
+    return true;
+  }
+
+  /** Presence detector saw a face: back to full landmarking. */
+  public void wake(long now) {
+    start(now);
+    if (mode == PresenceMode.ACTIVE) return;
+    switchTo(PresenceMode.ACTIVE, now);
+  }
+
+  private void start(long now) {
+    if (modeSinceTs < 0) modeSinceTs = now;
+  }
+
+  private void switchTo(PresenceMode next, long now) {
+    accrue(now);
+    mode = next;
+    modeSinceTs = now;
+  }
+
+  private void accrue(long now) {
+    long dt = Math.max(0, now - modeSinceTs);
+    if (mode == PresenceMode.ACTIVE) activeMs += dt;
+    else idleMs += dt;
+  }
+
+  // =====================================================
+  // STATS
+  // =====================================================
+
+  /** Includes the current stint up to {@code now}. */
+  public long getActiveMs(long now) {
+    return activeMs + (mode == PresenceMode.ACTIVE ? stint(now) : 0);
+  }
+
+  /** Includes the current stint up to {@code now}. */
+  public long getIdleMs(long now) {
+    return idleMs + (mode == PresenceMode.IDLE ? stint(now) : 0);
+  }
+
+  private long stint(long now) {
+    return modeSinceTs < 0 ? 0 : Math.max(0, now - modeSinceTs);
+  }
+
+  public int getIdleEntries() {
+    return idleEntries;
+  }
+
+  public long getIdleSamples() {
+    return idleSamples;
+  }
+
+  // =====================================================
+  // RESET
+  // =====================================================
+  public void reset() {
+    mode = PresenceMode.ACTIVE;
+    modeSinceTs = -1;
+    lastFaceTs = -1;
+    lastIdleSampleTs = -1;
+    activeMs = 0;
+    idleMs = 0;
+    idleEntries = 0;
+    idleSamples = 0;
+  }
+}
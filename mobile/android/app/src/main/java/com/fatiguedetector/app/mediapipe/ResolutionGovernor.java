@@ -0,0 +1,191 @@
+package com.fatiguedetector.app.mediapipe;
+
+/**
+ * Picks the landmarker input resolution from measured cost and quality.
+ *
+ * - Steps DOWN a tier when rolling inference latency exceeds the budget.
+ * - Steps UP when eye detail is insufficient (eye narrower than
+ *   MIN_EYE_WIDTH_PX at the current tier, open-eye EAR jitter above
+ *   MAX_EAR_JITTER, or no face for NO_FACE_STEP_UP_FRAMES in a row, e.g.
+ *   a face too small to find) and latency leaves headroom.
+ * - Holds each tier for at least MIN_DWELL_FRAMES to avoid oscillation.
+ * - Remembers the last tier that blew the budget and does not step back
+ *   up into it until a backoff has passed; the backoff doubles each time
+ *   the same tier blows it again.
+ * - Never goes past the first tier that reaches the source frame's
+ *   longest side (setSourceSide()): larger tiers would not scale at all.
+ *   That tier's effective side is the source side.
+ *
+ * Pure Java, no allocation per frame.
+ */
+public final class ResolutionGovernor {
+
+  // =====================================================
+  // TIERS (longest image side fed to MediaPipe, px)
+  // =====================================================
+  private static final int[] TIER_MAX_SIDE = {256, 384, 512, 768, 1024};
+  private static final int DEFAULT_TIER = 2;
+
+  // =====================================================
+  // TUNING
+  // =====================================================
+  public static final double DEFAULT_LATENCY_BUDGET_MS = 40.0;
+  private static final double STEP_UP_HEADROOM = 0.6;   // of budget
+  private static final double LATENCY_ALPHA = 0.2;
+  private static final double JITTER_ALPHA = 0.2;
+
+  private static final double MIN_EYE_WIDTH_PX = 24.0;
+  private static final double MAX_EAR_JITTER = 0.02;
+  private static final double OPEN_EYE_EAR = 0.15;
+
+  private static final int MIN_DWELL_FRAMES = 15;
+  private static final int NO_FACE_STEP_UP_FRAMES = 30;
+
+  private static final int BACKOFF_FRAMES = 300;
+  private static final int MAX_BACKOFF_FRAMES = 4_800;
+
+  // =====================================================
+  // STATE
+  // =====================================================
+  private double latencyBudgetMs = DEFAULT_LATENCY_BUDGET_MS;
+
+  private int tier = DEFAULT_TIER;
+  // longest side of the frames being scaled; 0 = unknown (no cap)
+  private int sourceSide = 0;
+  private int framesInTier = 0;
+
+  private double latencyEma = -1;
+  private double jitterEma = 0;
+  private double lastEAR = -1;
+  private int noFaceFrames = 0;
+
+  // last tier over budget; blocked while blockedFrames > 0
+  private int overBudgetTier = -1;
+  private int backoffFrames = BACKOFF_FRAMES;
+  private int blockedFrames = 0;
+
+  public void setLatencyBudgetMs(double ms) {
+    latencyBudgetMs = Math.max(1.0, ms);
+  }
+
+  public int getTier() {
+    return tier;
+  }
+
+  /** Longest side actually fed to the landmarker at this tier. */
+  public int getMaxSide() {
+    int side = TIER_MAX_SIDE[tier];
+    return sourceSide > 0 ? Math.min(side, sourceSide) : side;
+  }
+
+  /**
+   * Longest side of the incoming frames. Tiers above the first one that
+   * reaches it are out of reach; the current tier drops if it is one.
+   */
+  public void setSourceSide(int longestSide) {
+    if (longestSide == sourceSide) return;
+    sourceSide = Math.max(0, longestSide);
+    int top = topTier();
+    if (tier > top) changeTier(top);
+  }
+
+  /** Highest useful tier for the current source size. */
+  private int topTier() {
+    if (sourceSide <= 0) return TIER_MAX_SIDE.length - 1;
+    for (int i = 0; i < TIER_MAX_SIDE.length; i++) {
+      if (TIER_MAX_SIDE[i] >= sourceSide) return i;
+    }
+    return TIER_MAX_SIDE.length - 1;
+  }
+
+  public double getLatencyEmaMs() {
+    return Math.max(0, latencyEma);
+  }
+
+  public double getEarJitter() {
+    return jitterEma;
+  }
+
+  /** Tier kept out of reach by the over-budget backoff, or -1. */
+  public int getBlockedTier() {
+    return blockedFrames > 0 ? overBudgetTier : -1;
+  }
+
+  /**
+   * Feed one full-landmarking frame.
+   *
+   * @param latencyMs  scale + inference time for this frame
+   * @param avgEAR     average EAR, or -1 when no face was found
+   * @param eyeWidth   normalized eye-corner distance (0..1 of image side)
+   */
+  public void onFrame(double latencyMs, double avgEAR, double eyeWidth) {
+    latencyEma = latencyEma < 0
+        ? latencyMs
+        : LATENCY_ALPHA * latencyMs + (1 - LATENCY_ALPHA) * latencyEma;
+
+    // Jitter only between consecutive open-eye frames (blinks are signal)
+    if (avgEAR > OPEN_EYE_EAR && lastEAR > OPEN_EYE_EAR) {
+      double d = Math.abs(avgEAR - lastEAR);
+      jitterEma = JITTER_ALPHA * d + (1 - JITTER_ALPHA) * jitterEma;
+    }
+    lastEAR = avgEAR;
+
+    noFaceFrames = avgEAR < 0 ? noFaceFrames + 1 : 0;
+    if (blockedFrames > 0) blockedFrames--;
+
+    framesInTier++;
+    if (framesInTier < MIN_DWELL_FRAMES) return;
+
+    if (latencyEma > latencyBudgetMs) {
+      if (tier > 0) {
+        onOverBudget(tier);
+        changeTier(tier - 1);
+      }
+      return;
+    }
+
+    boolean lowDetail =
+        (avgEAR > 0 && eyeWidth * getMaxSide() < MIN_EYE_WIDTH_PX) ||
+        jitterEma > MAX_EAR_JITTER ||
+        noFaceFrames >= NO_FACE_STEP_UP_FRAMES;
+
+    boolean blocked = blockedFrames > 0 && tier + 1 >= overBudgetTier;
+
+    if (lowDetail &&
+        !blocked &&
+        tier < topTier() &&
+        latencyEma < latencyBudgetMs * STEP_UP_HEADROOM) {
+      changeTier(tier + 1);
+    }
+  }
+
+  private void onOverBudget(int blown) {
+    backoffFrames = blown == overBudgetTier
+        ? Math.min(MAX_BACKOFF_FRAMES, backoffFrames * 2)
+        : BACKOFF_FRAMES;
+    overBudgetTier = blown;
+    blockedFrames = backoffFrames;
+  }
+
+  private void changeTier(int next) {
+    tier = next;
+    framesInTier = 0;
+    // Latency history belongs to the old tier
+    latencyEma = -1;
+    jitterEma = 0;
+    noFaceFrames = 0;
+  }
+
+  /** Keeps the source side: it describes the camera, not the session. */
+  public void reset() {
+    tier = Math.min(DEFAULT_TIER, topTier());
+    framesInTier = 0;
+    latencyEma = -1;
+    jitterEma = 0;
+    lastEAR = -1;
+    noFaceFrames = 0;
+    overBudgetTier = -1;
+    backoffFrames = BACKOFF_FRAMES;
+    blockedFrames = 0;
+  }
+}
@@ -0,0 +1,89 @@
+package com.fatiguedetector.app.mediapipe;
+
+/**
+ * Original hard-coded threshold cascade.
+ *
+ * lastScore() is a margin certainty on the same scale as the logistic
+ * model's top-class probability: 0.5 on a class boundary, approaching 1
+ * as the deciding feature moves past its threshold (sigmoid of the
+ * margin in MARGIN_* units). Both strategies therefore share one alert
+ * confidence threshold.
+ */
+public final class RuleFatigueClassifier implements FatigueClassifier {
+
+  // =====================================================
+  // THRESHOLDS
+  // =====================================================
+  static final double NORM_EAR_HIGH = 0.80;
+  static final double NORM_EAR_LOW  = 0.65;
+
+  static final double PERCLOS_MED  = 0.15;
+  static final double PERCLOS_HIGH = 0.35;
+
+  static final int BLINK_MED  = 15;
+  static final int BLINK_HIGH = 25;
+
+  // =====================================================
+  // MARGIN SCALES (threshold distance for score ~0.73)
+  // =====================================================
+  private static final double MARGIN_EAR = 0.025;
+  private static final double MARGIN_PERCLOS = 0.035;
+  private static final double MARGIN_BLINK = 1.5;
+
+  private double lastScore = 0.5;
+
+  @Override
+  public FatigueLevel classify(float[] f) {
+    double normalizedEAR = f[WindowFeatures.NORM_EAR];
+    double perclos = f[WindowFeatures.PERCLOS];
+    double blinkRate = f[WindowFeatures.BLINK_RATE];
+
+    FatigueLevel fatigueLevel = FatigueLevel.LOW;
+
+    if (normalizedEAR < NORM_EAR_LOW ||
+        perclos >= PERCLOS_HIGH ||
+        blinkRate > BLINK_HIGH) {
+      fatigueLevel = FatigueLevel.HIGH;
+    } else if (normalizedEAR < NORM_EAR_HIGH ||
+               perclos >= PERCLOS_MED ||
+               blinkRate >= BLINK_MED) {
+      fatigueLevel = FatigueLevel.MEDIUM;
+    }
+
+    lastScore = 1.0 / (1.0 + Math.exp(-margin(fatigueLevel, normalizedEAR, perclos, blinkRate)));
+    return fatigueLevel;
+  }
+
+  /**
+   * Distance inside the chosen level's region, in margin units: how far
+   * past its threshold the deciding feature is, limited by how close any
+   * feature is to the next level up.
+   */
+  private static double margin(
+      FatigueLevel level, double ear, double perclos, double blinkRate) {
+    // > 0: past the threshold
+    double earHigh = (NORM_EAR_LOW - ear) / MARGIN_EAR;
+    double perclosHigh = (perclos - PERCLOS_HIGH) / MARGIN_PERCLOS;
+    double blinkHigh = (blinkRate - BLINK_HIGH) / MARGIN_BLINK;
+    double earMed = (NORM_EAR_HIGH - ear) / MARGIN_EAR;
+    double perclosMed = (perclos - PERCLOS_MED) / MARGIN_PERCLOS;
+    double blinkMed = (blinkRate - BLINK_MED) / MARGIN_BLINK;
+
+    double pastHigh = Math.max(earHigh, Math.max(perclosHigh, blinkHigh));
+    double pastMed = Math.max(earMed, Math.max(perclosMed, blinkMed));
+
+    switch (level) {
+      case HIGH:
+        return pastHigh;
+      case MEDIUM:
+        return Math.min(pastMed, -pastHigh);
+      default:
+        return -pastMed;
+    }
+  }
+
+  @Override
+  public double lastScore() {
+    return lastScore;
+  }
+}
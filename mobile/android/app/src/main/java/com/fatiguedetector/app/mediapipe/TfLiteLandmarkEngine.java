@@ -0,0 +1,403 @@
+package com.fatiguedetector.app.mediapipe;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+
+import org.tensorflow.lite.Interpreter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * LandmarkEngine running the face detector and mesh models from the
+ * bundled face_landmarker.task directly on TFLite Interpreters.
+ *
+ * Pipeline per frame:
+ * - no ROI from the previous frame: BlazeFace (short range, 128 px,
+ *   letterboxed) gives a box and eye keypoints -> rotated square ROI
+ * - the ROI is sampled (bilinear, rotated) into the 256 px mesh input
+ * - the mesh face flag gates the frame; the landmarks give next frame's
+ *   ROI, so the detector only runs on (re)acquisition
+ *
+ * Threads and XNNPACK are interpreter options; input / output buffers,
+ * the pixel buffer and the output map are allocated once. No facial
+ * transformation matrix is produced (head pose stage stays idle).
+ *
+ * maxSide is ignored (supportsMaxSide() is false): both models take
+ * fixed-size inputs sampled straight from the source bitmap, so there
+ * is nothing to downscale.
+ */
+public class TfLiteLandmarkEngine implements LandmarkEngine {
+
+  public static final String NAME = "tflite";
+
+  private static final String DETECTOR_ENTRY = MediaPipeFaceDetector.TASK_ENTRY;
+  private static final String MESH_ENTRY = "face_landmarks_detector.tflite";
+
+  // =====================================================
+  // DETECTOR (BlazeFace short range)
+  // =====================================================
+  private static final int DET_SIZE = 128;
+  private static final int NUM_ANCHORS = 896;
+  private static final int DET_COORDS = 16;
+  private static final float DET_MIN_SCORE = 0.5f;
+  private static final float DET_SCORE_CLIP = 100f;
+  // Keypoints 0 / 1 are the subject's right / left eye
+  private static final int KP_RIGHT_EYE = 0;
+  private static final int KP_LEFT_EYE = 1;
+
+  // =====================================================
+  // MESH
+  // =====================================================
+  private static final int MESH_SIZE = 256;
+  private static final float MIN_PRESENCE = 0.5f;
+  private static final float ROI_SCALE = 1.5f;
+  // Eye outer corners, used for ROI rotation
+  private static final int LM_RIGHT_EYE = 33;
+  private static final int LM_LEFT_EYE = 263;
+
+  private final int numThreads;
+  private final boolean useXnnpack;
+
+  private final Interpreter detector;
+  private final Interpreter mesh;
+
+  private final ByteBuffer detInput;
+  private final ByteBuffer detBoxes;
+  private final ByteBuffer detScores;
+  private final Object[] detInputs = new Object[1];
+  private final Map<Integer, Object> detOutputs = new HashMap<>();
+
+  private final ByteBuffer meshInput;
+  private final ByteBuffer[] meshOutputs;
+  private final Object[] meshInputs = new Object[1];
+  private final Map<Integer, Object> meshOutputMap = new HashMap<>();
+  private final int landmarkOutput;
+  private final int presenceOutput;
+  private final int meshPoints;
+
+  // anchor centers (x, y), normalized to the detector input
+  private final float[] anchors = new float[NUM_ANCHORS * 2];
+
+  private int[] pixels = new int[0];
+
+  // =====================================================
+  // ROI (pixels of the source bitmap; valid while tracking)
+  // =====================================================
+  private boolean hasRoi = false;
+  private float roiCx, roiCy, roiSide, roiAngle;
+  private long detectorRuns = 0;
+
+  public TfLiteLandmarkEngine(Context context, int numThreads, boolean useXnnpack) {
+    this.numThreads = Math.max(1, numThreads);
+    this.useXnnpack = useXnnpack;
+
+    Interpreter.Options options = new Interpreter.Options()
+        .setNumThreads(this.numThreads)
+        .setUseXNNPACK(useXnnpack);
+
+    ByteBuffer detModel;
+    ByteBuffer meshModel;
+    try {
+      detModel = MediaPipeFaceLandmarker.loadTaskEntry(context, DETECTOR_ENTRY);
+      meshModel = MediaPipeFaceLandmarker.loadTaskEntry(context, MESH_ENTRY);
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot read " + MediaPipeFaceLandmarker.MODEL_ASSET, e);
+    }
+
+    detector = new Interpreter(detModel, options);
+    mesh = new Interpreter(meshModel, options);
+
+    // Outputs: boxes + keypoints (896 x 16) and scores (896), found by
+    // size rather than position
+    int boxes = -1;
+    int scores = -1;
+    for (int i = 0; i < detector.getOutputTensorCount(); i++) {
+      int elements = detector.getOutputTensor(i).numElements();
+      if (boxes < 0 && elements == NUM_ANCHORS * DET_COORDS) boxes = i;
+      else if (scores < 0 && elements == NUM_ANCHORS) scores = i;
+    }
+    if (boxes < 0 || scores < 0) {
+      close();
+      throw new IllegalStateException("Unexpected detector model outputs");
+    }
+    detInput = direct(DET_SIZE * DET_SIZE * 3 * 4);
+    detBoxes = direct(detector.getOutputTensor(boxes).numBytes());
+    detScores = direct(detector.getOutputTensor(scores).numBytes());
+    detInputs[0] = detInput;
+    detOutputs.put(boxes, detBoxes);
+    detOutputs.put(scores, detScores);
+
+    // Outputs: landmarks (N x 3) first, then the face flag; any
+    // further outputs are bound but unused
+    meshInput = direct(MESH_SIZE * MESH_SIZE * 3 * 4);
+    meshInputs[0] = meshInput;
+    int outputs = mesh.getOutputTensorCount();
+    meshOutputs = new ByteBuffer[outputs];
+    int lm = -1;
+    int presence = -1;
+    for (int i = 0; i < outputs; i++) {
+      int elements = mesh.getOutputTensor(i).numElements();
+      meshOutputs[i] = direct(mesh.getOutputTensor(i).numBytes());
+      meshOutputMap.put(i, meshOutputs[i]);
+      if (lm < 0 && elements >= LandmarkFrame.MESH_LANDMARKS * 3) lm = i;
+      else if (presence < 0 && elements == 1) presence = i;
+    }
+    if (lm < 0 || presence < 0) {
+      close();
+      throw new IllegalStateException("Unexpected mesh model outputs");
+    }
+    landmarkOutput = lm;
+    presenceOutput = presence;
+    meshPoints = Math.min(
+        mesh.getOutputTensor(lm).numElements() / 3, LandmarkFrame.MAX_LANDMARKS);
+
+    buildAnchors();
+  }
+
+  /** e.g. "tflite-4t-xnn" */
+  @Override
+  public String name() {
+    return NAME + "-" + numThreads + "t" + (useXnnpack ? "-xnn" : "");
+  }
+
+  @Override
+  public boolean supportsMaxSide() {
+    return false;
+  }
+
+  public int getNumThreads() {
+    return numThreads;
+  }
+
+  public boolean usesXnnpack() {
+    return useXnnpack;
+  }
+
+  /** Detector invocations; low relative to frames while tracking holds. */
+  public long getDetectorRuns() {
+    return detectorRuns;
+  }
+
+  @Override
+  public boolean detect(Bitmap bitmap, int maxSide, LandmarkFrame out) {
+    out.clear();
+    if (bitmap == null) return false;
+
+    int w = bitmap.getWidth();
+    int h = bitmap.getHeight();
+    if (pixels.length < w * h) pixels = new int[w * h];
+    bitmap.getPixels(pixels, 0, w, 0, 0, w, h);
+
+    if (!hasRoi && !detectFace(w, h)) return false;
+
+    sample(w, h, roiCx, roiCy, roiSide, roiAngle, MESH_SIZE, meshInput, false);
+    mesh.runForMultipleInputsOutputs(meshInputs, meshOutputMap);
+
+    ByteBuffer flag = meshOutputs[presenceOutput];
+    if (sigmoid(flag.getFloat(0)) < MIN_PRESENCE) {
+      hasRoi = false;
+      return false;
+    }
+
+    ByteBuffer raw = meshOutputs[landmarkOutput];
+    float cos = (float) Math.cos(roiAngle);
+    float sin = (float) Math.sin(roiAngle);
+    float[] pts = out.points;
+    for (int i = 0; i < meshPoints; i++) {
+      float u = raw.getFloat((i * 3) * 4) / MESH_SIZE - 0.5f;
+      float v = raw.getFloat((i * 3 + 1) * 4) / MESH_SIZE - 0.5f;
+      float z = raw.getFloat((i * 3 + 2) * 4) / MESH_SIZE;
+      pts[i * 3] = (roiCx + roiSide * (u * cos - v * sin)) / w;
+      pts[i * 3 + 1] = (roiCy + roiSide * (u * sin + v * cos)) / h;
+      pts[i * 3 + 2] = z * roiSide / w;
+    }
+    out.count = meshPoints;
+
+    roiFromLandmarks(out, w, h);
+    return true;
+  }
+
+  /** Drops the tracked ROI; the next frame runs the detector. */
+  public void resetTracking() {
+    hasRoi = false;
+  }
+
+  @Override
+  public void close() {
+    detector.close();
+    mesh.close();
+  }
+
+  // =====================================================
+  // DETECTION
+  // =====================================================
+
+  /** Runs BlazeFace on the letterboxed frame; sets the ROI on success. */
+  private boolean detectFace(int w, int h) {
+    float side = Math.max(w, h);
+    sample(w, h, w / 2f, h / 2f, side, 0f, DET_SIZE, detInput, true);
+    detector.runForMultipleInputsOutputs(detInputs, detOutputs);
+    detectorRuns++;
+
+    int best = -1;
+    float bestScore = DET_MIN_SCORE;
+    for (int i = 0; i < NUM_ANCHORS; i++) {
+      float logit = Math.max(-DET_SCORE_CLIP,
+          Math.min(DET_SCORE_CLIP, detScores.getFloat(i * 4)));
+      float score = sigmoid(logit);
+      if (score > bestScore) {
+        bestScore = score;
+        best = i;
+      }
+    }
+    if (best < 0) return false;
+
+    // Regressors are offsets in detector pixels from the anchor center
+    int base = best * DET_COORDS;
+    float ax = anchors[best * 2];
+    float ay = anchors[best * 2 + 1];
+    float bw = detBoxes.getFloat((base + 2) * 4) / DET_SIZE;
+    float bh = detBoxes.getFloat((base + 3) * 4) / DET_SIZE;
+    float cx = detBoxes.getFloat(base * 4) / DET_SIZE + ax;
+    float cy = detBoxes.getFloat((base + 1) * 4) / DET_SIZE + ay;
+
+    int re = base + 4 + KP_RIGHT_EYE * 2;
+    int le = base + 4 + KP_LEFT_EYE * 2;
+    float rx = detBoxes.getFloat(re * 4) / DET_SIZE + ax;
+    float ry = detBoxes.getFloat((re + 1) * 4) / DET_SIZE + ay;
+    float lx = detBoxes.getFloat(le * 4) / DET_SIZE + ax;
+    float ly = detBoxes.getFloat((le + 1) * 4) / DET_SIZE + ay;
+
+    // Letterbox -> source pixels (same scale on both axes)
+    roiCx = w / 2f + (cx - 0.5f) * side;
+    roiCy = h / 2f + (cy - 0.5f) * side;
+    roiSide = Math.max(bw, bh) * side * ROI_SCALE;
+    roiAngle = (float) Math.atan2(ly - ry, lx - rx);
+    hasRoi = roiSide > 1;
+    return hasRoi;
+  }
+
+  /** Rotated bounding square of the landmarks, for the next frame. */
+  private void roiFromLandmarks(LandmarkFrame lm, int w, int h) {
+    float angle = (float) Math.atan2(
+        (lm.y(LM_LEFT_EYE) - lm.y(LM_RIGHT_EYE)) * h,
+        (lm.x(LM_LEFT_EYE) - lm.x(LM_RIGHT_EYE)) * w);
+    float cos = (float) Math.cos(angle);
+    float sin = (float) Math.sin(angle);
+
+    float minU = Float.MAX_VALUE, maxU = -Float.MAX_VALUE;
+    float minV = Float.MAX_VALUE, maxV = -Float.MAX_VALUE;
+    for (int i = 0; i < LandmarkFrame.MESH_LANDMARKS; i++) {
+      float x = lm.x(i) * w;
+      float y = lm.y(i) * h;
+      float u = x * cos + y * sin;
+      float v = -x * sin + y * cos;
+      minU = Math.min(minU, u);
+      maxU = Math.max(maxU, u);
+      minV = Math.min(minV, v);
+      maxV = Math.max(maxV, v);
+    }
+    float cu = (minU + maxU) / 2f;
+    float cv = (minV + maxV) / 2f;
+
+    roiCx = cu * cos - cv * sin;
+    roiCy = cu * sin + cv * cos;
+    roiSide = Math.max(maxU - minU, maxV - minV) * ROI_SCALE;
+    roiAngle = angle;
+    hasRoi = roiSide > 1;
+  }
+
+  /** SSD anchors: strides 8, 16, 16, 16; two per cell and layer. */
+  private void buildAnchors() {
+    int[] strides = {8, 16, 16, 16};
+    int k = 0;
+    int layer = 0;
+    while (layer < strides.length) {
+      int stride = strides[layer];
+      int repeats = 0;
+      while (layer < strides.length && strides[layer] == stride) {
+        repeats += 2;
+        layer++;
+      }
+      int grid = DET_SIZE / stride;
+      for (int y = 0; y < grid; y++) {
+        for (int x = 0; x < grid; x++) {
+          for (int r = 0; r < repeats; r++) {
+            anchors[k++] = (x + 0.5f) / grid;
+            anchors[k++] = (y + 0.5f) / grid;
+          }
+        }
+      }
+    }
+  }
+
+  // =====================================================
+  // SAMPLING
+  // =====================================================
+
+  /**
+   * Bilinear sample of a rotated square (center / side / angle in source
+   * pixels) into a size x size RGB float tensor. Outside pixels are black.
+   *
+   * @param signed [-1, 1] (detector) instead of [0, 1] (mesh)
+   */
+  private void sample(
+      int w, int h,
+      float cx, float cy, float side, float angle,
+      int size, ByteBuffer dst, boolean signed
+  ) {
+    float cos = (float) Math.cos(angle);
+    float sin = (float) Math.sin(angle);
+    float step = side / size;
+    float scale = signed ? 2f / 255f : 1f / 255f;
+    float offset = signed ? -1f : 0f;
+
+    dst.rewind();
+    for (int j = 0; j < size; j++) {
+      float v = (j + 0.5f) * step - side / 2f;
+      for (int i = 0; i < size; i++) {
+        float u = (i + 0.5f) * step - side / 2f;
+        float x = cx + u * cos - v * sin - 0.5f;
+        float y = cy + u * sin + v * cos - 0.5f;
+
+        int x0 = (int) Math.floor(x);
+        int y0 = (int) Math.floor(y);
+        float fx = x - x0;
+        float fy = y - y0;
+
+        int p00 = pixel(x0, y0, w, h);
+        int p10 = pixel(x0 + 1, y0, w, h);
+        int p01 = pixel(x0, y0 + 1, w, h);
+        int p11 = pixel(x0 + 1, y0 + 1, w, h);
+
+        for (int shift = 16; shift >= 0; shift -= 8) {
+          float top = lerp((p00 >> shift) & 0xFF, (p10 >> shift) & 0xFF, fx);
+          float bottom = lerp((p01 >> shift) & 0xFF, (p11 >> shift) & 0xFF, fx);
+          dst.putFloat(lerp(top, bottom, fy) * scale + offset);
+        }
+      }
+    }
+    dst.rewind();
+  }
+
+  private int pixel(int x, int y, int w, int h) {
+    if (x < 0 || y < 0 || x >= w || y >= h) return 0;
+    return pixels[y * w + x];
+  }
+
+  private static float lerp(float a, float b, float t) {
+    return a + (b - a) * t;
+  }
+
+  private static float sigmoid(float x) {
+    return (float) (1.0 / (1.0 + Math.exp(-x)));
+  }
+
+  private static ByteBuffer direct(int bytes) {
+    return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+  }
+}
@@ -0,0 +1,22 @@
+package com.fatiguedetector.app.mediapipe;
+
+/**
+ * Fixed-length feature vector layout fed to FatigueClassifier.
+ *
+ * Every entry is also logged per window (WindowLog; NORM_EAR as the
+ * window's last frame value), so models can be retrained offline and
+ * shipped as a new model file.
+ * Append only: changing the order breaks existing model files.
+ */
+public final class WindowFeatures {
+
+  public static final int NORM_EAR = 0;           // current frame
+  public static final int NORM_EAR_MEAN = 1;      // window
+  public static final int NORM_EAR_VARIANCE = 2;  // window
+  public static final int PERCLOS = 3;            // window
+  public static final int BLINK_RATE = 4;         // blinks / min
+
+  public static final int COUNT = 5;
+
+  private WindowFeatures() {}
+}
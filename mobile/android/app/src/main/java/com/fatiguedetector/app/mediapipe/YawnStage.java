@@ -0,0 +1,91 @@
+package com.fatiguedetector.app.mediapipe;
+
+/**
+ * Mouth aspect ratio (inner-lip gap / mouth width) and yawn events.
+ *
+ * A yawn is a wide opening held for at least YAWN_MIN_MS, which keeps
+ * speech and short mouth movements out. Runs every few frames: a yawn
+ * lasts seconds, so a 100 ms sampling gap costs nothing.
+ *
+ * Landmarks are normalized per axis (x by width, y by height), so x is
+ * rescaled by the frame aspect before the ratio; otherwise a portrait
+ * frame would shrink every opening by W/H against the absolute YAWN_MAR.
+ */
+public final class YawnStage implements FeatureStage {
+
+  public static final String NAME = "yawn";
+
+  // upper / lower inner lip, left / right mouth corner
+  private static final int[] LANDMARKS = {13, 14, 78, 308};
+
+  private static final double YAWN_MAR = 0.6;
+  private static final double YAWN_RELEASE_MAR = 0.45;
+  private static final long YAWN_MIN_MS = 1_500;
+
+  // frame width / height of the landmarks being processed
+  private double aspect = 1.0;
+
+  private double mouthAspectRatio;
+  private long openSinceTs = -1;
+  private boolean counted;
+  private boolean pendingYawn;
+  private int yawnCount;
+
+  @Override public String name() { return NAME; }
+  @Override public int[] landmarkIndices() { return LANDMARKS; }
+  @Override public boolean needsTransformMatrix() { return false; }
+  @Override public int interval() { return 3; }
+  @Override public FatigueLevel minLevel() { return FatigueLevel.LOW; }
+
+  /** Size of the frame the next landmarks were normalized to. */
+  public void setFrameSize(int width, int height) {
+    aspect = width > 0 && height > 0 ? (double) width / height : 1.0;
+  }
+
+  @Override
+  public void process(float[] lm, float[] matrix, long now) {
+    double gap = dist(lm, 0, 1, aspect);
+    double width = dist(lm, 2, 3, aspect);
+    mouthAspectRatio = width > 1e-6 ? gap / width : 0.0;
+
+    if (mouthAspectRatio >= YAWN_MAR) {
+      if (openSinceTs < 0) openSinceTs = now;
+      if (!counted && now - openSinceTs >= YAWN_MIN_MS) {
+        counted = true;
+        pendingYawn = true;
+        yawnCount++;
+      }
+    } else if (mouthAspectRatio < YAWN_RELEASE_MAR) {
+      openSinceTs = -1;
+      counted = false;
+    }
+  }
+
+  @Override
+  public void publish(FatigueResult out) {
+    out.mouthAspectRatio = mouthAspectRatio;
+    out.yawnDetected = pendingYawn;
+    out.yawnCount = yawnCount;
+    pendingYawn = false;
+  }
+
+  @Override
+  public void reset() {
+    mouthAspectRatio = 0;
+    openSinceTs = -1;
+    counted = false;
+    pendingYawn = false;
+  }
+
+  /** Session total; survives stage gating, cleared by resetCount(). */
+  public void resetCount() {
+    yawnCount = 0;
+  }
+
+  /** In units of frame height. */
+  private static double dist(float[] lm, int a, int b, double aspect) {
+    double dx = (lm[a * 3] - lm[b * 3]) * aspect;
+    double dy = lm[a * 3 + 1] - lm[b * 3 + 1];
+    return Math.sqrt(dx * dx + dy * dy);
+  }
+}
@@ -0,0 +1,502 @@
+package com.fatiguedetector.app.service;
+
+import android.app.Notification;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.ServiceInfo;
+import android.graphics.Bitmap;
+import android.os.Binder;
+import android.os.Build;
+import android.os.IBinder;
+import android.util.Log;
+import android.util.Size;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.camera.core.CameraSelector;
+import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.ImageProxy;
+import androidx.camera.lifecycle.ProcessCameraProvider;
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.ServiceCompat;
+import androidx.core.content.ContextCompat;
+import androidx.lifecycle.LifecycleService;
+
+import com.fatiguedetector.app.MainActivity;
+import com.fatiguedetector.app.R;
+import com.fatiguedetector.app.alerts.AlertPlayer;
+import com.fatiguedetector.app.analytics.WindowStore;
+import com.fatiguedetector.app.mediapipe.EyePointAnalyzer;
+import com.fatiguedetector.app.mediapipe.FatigueLevel;
+import com.fatiguedetector.app.mediapipe.FatigueResult;
+import com.fatiguedetector.app.mediapipe.MediaPipeFaceAnalyzer;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Foreground service that owns the camera, MediaPipeFaceAnalyzer and
+ * alerting end to end.
+ *
+ * Frames come from CameraX ImageAnalysis and are analyzed on a single
+ * analysis thread, so detection keeps running while the JS thread is busy,
+ * the scan screen is not focused or another app (navigation) is in front.
+ * All analyzer access, including configuration from the RN module, is
+ * serialized on that thread via withAnalyzer().
+ *
+ * Clients bind in-process (LocalBinder) and register a Listener.
+ * Window history for dashboards is kept here (WindowStore) and queried
+ * on the same thread via withWindowStore().
+ *
+ * Debug / test stills (withStillAnalyzer()) and eye points from JS frame
+ * sources (withPointAnalyzer()) go to separate analyzers, so they never
+ * reach the driver's windows, baseline, presence state or alerts.
+ */
+public class FatigueMonitorService extends LifecycleService {
+
+  private static final String TAG = "FatigueMonitor";
+
+  public static final String ACTION_START =
+      "com.fatiguedetector.app.action.START_MONITORING";
+  public static final String ACTION_STOP =
+      "com.fatiguedetector.app.action.STOP_MONITORING";
+
+  private static final String CHANNEL_ID = "fatigue_monitor";
+  private static final int NOTIFICATION_ID = 1001;
+
+  // =====================================================
+  // CAPTURE
+  // =====================================================
+  private static final Size TARGET_RESOLUTION = new Size(640, 480);
+  public static final long DEFAULT_FRAME_INTERVAL_MS = 100;
+
+  // History keeps one record per window step, not every frame
+  private static final long WINDOW_RECORD_MS = 2_000;
+
+  /** Called on the analysis thread; copy what you need before returning. */
+  public interface Listener {
+    void onResult(FatigueResult result);
+
+    void onAlert(FatigueLevel level, long timestamp);
+
+    /** Started or stopped, including from the notification's Stop action. */
+    void onMonitoringChanged(boolean monitoring);
+
+    /** The analyzer could not be created; monitoring is stopped. */
+    void onAnalyzerError(String message);
+  }
+
+  public class LocalBinder extends Binder {
+    public FatigueMonitorService getService() {
+      return FatigueMonitorService.this;
+    }
+  }
+
+  private final IBinder binder = new LocalBinder();
+  private final CopyOnWriteArrayList<Listener> listeners =
+      new CopyOnWriteArrayList<>();
+
+  // =====================================================
+  // STATE (analysis thread unless noted)
+  // =====================================================
+  private ExecutorService analysisExecutor;
+  private MediaPipeFaceAnalyzer analyzer;
+  // Set (any thread) when the analyzer failed to load; analyzer stays null
+  private volatile String analyzerError;
+  // Stills only; created on first use, no alert listener, never recorded
+  private MediaPipeFaceAnalyzer stillAnalyzer;
+  // JS-landmarked eye points; created on first use, never recorded
+  private EyePointAnalyzer pointAnalyzer;
+  private AlertPlayer alertPlayer;
+  private final WindowStore windowStore = new WindowStore();
+  private long lastRecordTs = -1;
+
+  private ProcessCameraProvider cameraProvider;
+
+  // Reused RGBA frame; reallocated only when the camera size changes
+  private Bitmap frame;
+  // Row-packed copy of a padded plane, same lifetime as frame
+  private ByteBuffer packedRows;
+
+  private volatile boolean monitoring = false;
+  private volatile long frameIntervalMs = DEFAULT_FRAME_INTERVAL_MS;
+  private volatile long framesAnalyzed = 0;
+  private volatile long framesDropped = 0;
+  private volatile long lastFrameTs = -1;
+  private volatile double fpsEma = 0;
+
+  // =====================================================
+  // START / STOP
+  // =====================================================
+  public static void start(Context context) {
+    Intent intent = new Intent(context, FatigueMonitorService.class)
+        .setAction(ACTION_START);
+    ContextCompat.startForegroundService(context, intent);
+  }
+
+  public static void stop(Context context) {
+    Intent intent = new Intent(context, FatigueMonitorService.class)
+        .setAction(ACTION_STOP);
+    context.startService(intent);
+  }
+
+  // =====================================================
+  // LIFECYCLE
+  // =====================================================
+  @Override
+  public void onCreate() {
+    super.onCreate();
+    analysisExecutor = Executors.newSingleThreadExecutor(
+        r -> new Thread(r, "FatigueAnalysis"));
+    alertPlayer = new AlertPlayer(this);
+
+    // Models load on the analysis thread, never on main
+    analysisExecutor.execute(() -> {
+      try {
+        analyzer = new MediaPipeFaceAnalyzer(this);
+        analyzer.getAlertEngine().setListener(this::dispatchAlert);
+      } catch (RuntimeException e) {
+        Log.e(TAG, "Analyzer unavailable", e);
+        analyzerError = String.valueOf(e.getMessage());
+        ContextCompat.getMainExecutor(this).execute(this::onAnalyzerFailed);
+      }
+    });
+  }
+
+  @Override
+  public int onStartCommand(@Nullable Intent intent, int flags, int startId) {
+    super.onStartCommand(intent, flags, startId);
+
+    // Only the user starts the camera: a null (system restart) intent
+    // never re-arms it, and the service is not restarted after being killed
+    String action = intent != null ? intent.getAction() : null;
+    if (ACTION_START.equals(action)) {
+      startMonitoring();
+    } else if (ACTION_STOP.equals(action)) {
+      stopMonitoring();
+    } else if (!monitoring) {
+      stopSelf();
+    }
+    return START_NOT_STICKY;
+  }
+
+  @Override
+  public IBinder onBind(@NonNull Intent intent) {
+    super.onBind(intent);
+    return binder;
+  }
+
+  @Override
+  public void onDestroy() {
+    unbindCamera();
+    monitoring = false;
+    listeners.clear();
+    analysisExecutor.execute(() -> {
+      if (analyzer != null) analyzer.release();
+      if (stillAnalyzer != null) stillAnalyzer.release();
+    });
+    analysisExecutor.shutdown();
+    alertPlayer.release();
+    super.onDestroy();
+  }
+
+  private void startMonitoring() {
+    if (monitoring) return;
+
+    createChannel();
+    int type = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+        ? ServiceInfo.FOREGROUND_SERVICE_TYPE_CAMERA
+        : 0;
+    ServiceCompat.startForeground(this, NOTIFICATION_ID, buildNotification(), type);
+
+    monitoring = true;
+    analysisExecutor.execute(() -> windowStore.startSession(System.currentTimeMillis()));
+    dispatchMonitoringChanged(true);
+    if (analyzerError != null) {
+      onAnalyzerFailed();
+      return;
+    }
+    bindCamera();
+  }
+
+  private void stopMonitoring() {
+    boolean wasMonitoring = monitoring;
+    monitoring = false;
+    unbindCamera();
+    analysisExecutor.execute(() -> windowStore.endSession(System.currentTimeMillis()));
+    if (wasMonitoring) dispatchMonitoringChanged(false);
+    ServiceCompat.stopForeground(this, ServiceCompat.STOP_FOREGROUND_REMOVE);
+    // Stays alive while the RN module is bound
+    stopSelf();
+  }
+
+  /** Main thread: tells clients and stops, since no frame can be analyzed. */
+  private void onAnalyzerFailed() {
+    String message = analyzerError;
+    analysisExecutor.execute(() -> {
+      for (Listener l : listeners) l.onAnalyzerError(message);
+    });
+    stopMonitoring();
+  }
+
+  // =====================================================
+  // CAMERA
+  // =====================================================
+  private void bindCamera() {
+    ListenableFuture<ProcessCameraProvider> future =
+        ProcessCameraProvider.getInstance(this);
+
+    future.addListener(() -> {
+      if (!monitoring) return;
+      try {
+        cameraProvider = future.get();
+      } catch (Exception e) {
+        Log.e(TAG, "Camera provider unavailable", e);
+        stopMonitoring();
+        return;
+      }
+
+      ImageAnalysis analysis = new ImageAnalysis.Builder()
+          .setTargetResolution(TARGET_RESOLUTION)
+          .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
+          .setOutputImageFormat(ImageAnalysis.OUTPUT_IMAGE_FORMAT_RGBA_8888)
+          .setOutputImageRotationEnabled(true)
+          .build();
+      analysis.setAnalyzer(analysisExecutor, this::onFrame);
+
+      try {
+        cameraProvider.unbindAll();
+        cameraProvider.bindToLifecycle(
+            this, CameraSelector.DEFAULT_FRONT_CAMERA, analysis);
+      } catch (Exception e) {
+        Log.e(TAG, "Camera bind failed", e);
+        stopMonitoring();
+      }
+    }, ContextCompat.getMainExecutor(this));
+  }
+
+  private void unbindCamera() {
+    if (cameraProvider != null) {
+      cameraProvider.unbindAll();
+      cameraProvider = null;
+    }
+  }
+
+  // =====================================================
+  // ANALYSIS (analysis thread)
+  // =====================================================
+  private void onFrame(ImageProxy image) {
+    try {
+      long now = System.currentTimeMillis();
+      if (analyzer == null ||
+          (lastFrameTs > 0 && now - lastFrameTs < frameIntervalMs)) {
+        framesDropped++;
+        return;
+      }
+
+      Bitmap bitmap = toBitmap(image);
+      FatigueResult result = analyzer.analyze(bitmap);
+
+      if (lastFrameTs > 0) {
+        double fps = 1000.0 / Math.max(1, now - lastFrameTs);
+        fpsEma = fpsEma == 0 ? fps : 0.1 * fps + 0.9 * fpsEma;
+      }
+      lastFrameTs = now;
+      framesAnalyzed++;
+
+      if (lastRecordTs < 0 || result.timestamp - lastRecordTs >= WINDOW_RECORD_MS) {
+        lastRecordTs = result.timestamp;
+        windowStore.record(result);
+      }
+
+      for (Listener l : listeners) l.onResult(result);
+    } catch (Exception e) {
+      Log.e(TAG, "Frame analysis failed", e);
+    } finally {
+      image.close();
+    }
+  }
+
+  /** Copies the RGBA plane into the reused frame bitmap. */
+  private Bitmap toBitmap(ImageProxy image) {
+    int w = image.getWidth();
+    int h = image.getHeight();
+    int rowBytes = w * 4;
+    ImageProxy.PlaneProxy plane = image.getPlanes()[0];
+    int stride = plane.getRowStride();
+
+    if (frame == null || frame.getWidth() != w || frame.getHeight() != h) {
+      if (frame != null) frame.recycle();
+      frame = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+      packedRows = null;
+    }
+    ByteBuffer buffer = plane.getBuffer();
+    buffer.rewind();
+    if (stride == rowBytes) {
+      frame.copyPixelsFromBuffer(buffer);
+      return frame;
+    }
+
+    // Padded rows: pack them into a reused buffer first
+    if (packedRows == null) packedRows = ByteBuffer.allocateDirect(rowBytes * h);
+    packedRows.clear();
+    for (int y = 0; y < h; y++) {
+      buffer.limit(y * stride + rowBytes);
+      buffer.position(y * stride);
+      packedRows.put(buffer);
+    }
+    buffer.limit(buffer.capacity());
+    packedRows.flip();
+    frame.copyPixelsFromBuffer(packedRows);
+    return frame;
+  }
+
+  private void dispatchAlert(FatigueLevel level, long timestamp) {
+    alertPlayer.play(level);
+    for (Listener l : listeners) l.onAlert(level, timestamp);
+  }
+
+  /** Queued behind pending frames, so listeners see it in order. */
+  private void dispatchMonitoringChanged(boolean state) {
+    analysisExecutor.execute(() -> {
+      for (Listener l : listeners) l.onMonitoringChanged(state);
+    });
+  }
+
+  // =====================================================
+  // CLIENT API (any thread)
+  // =====================================================
+  public void addListener(Listener listener) {
+    listeners.addIfAbsent(listener);
+  }
+
+  public void removeListener(Listener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Runs {@code action} on the analysis thread, after the analyzer exists
+   * and between frames. If the analyzer failed to load, {@code unavailable}
+   * gets the error instead (null = drop the call).
+   */
+  public void withAnalyzer(
+      Consumer<MediaPipeFaceAnalyzer> action, @Nullable Consumer<String> unavailable) {
+    analysisExecutor.execute(() -> {
+      if (analyzer != null) {
+        action.accept(analyzer);
+      } else if (unavailable != null) {
+        unavailable.accept(analyzerError);
+      } else {
+        Log.w(TAG, "Analyzer unavailable, call dropped: " + analyzerError);
+      }
+    });
+  }
+
+  /**
+   * Runs {@code action} on the analysis thread against the stills
+   * analyzer: its own landmarker, windows, baseline and alert state.
+   * {@code unavailable} gets the error if it cannot be created.
+   */
+  public void withStillAnalyzer(
+      Consumer<MediaPipeFaceAnalyzer> action, @Nullable Consumer<String> unavailable) {
+    analysisExecutor.execute(() -> {
+      if (stillAnalyzer == null) {
+        try {
+          stillAnalyzer = new MediaPipeFaceAnalyzer(this);
+        } catch (RuntimeException e) {
+          Log.e(TAG, "Stills analyzer unavailable", e);
+          if (unavailable != null) unavailable.accept(String.valueOf(e.getMessage()));
+          return;
+        }
+      }
+      action.accept(stillAnalyzer);
+    });
+  }
+
+  /**
+   * Runs {@code action} on the analysis thread against the eye-point
+   * analyzer, using the live analyzer's current classifier.
+   */
+  public void withPointAnalyzer(Consumer<EyePointAnalyzer> action) {
+    analysisExecutor.execute(() -> {
+      if (pointAnalyzer == null) pointAnalyzer = new EyePointAnalyzer();
+      if (analyzer != null) pointAnalyzer.setClassifier(analyzer.getClassifier());
+      action.accept(pointAnalyzer);
+    });
+  }
+
+  /** Runs {@code action} on the analysis thread, between frames. */
+  public void withWindowStore(Consumer<WindowStore> action) {
+    analysisExecutor.execute(() -> action.accept(windowStore));
+  }
+
+  public void setFrameIntervalMs(long ms) {
+    frameIntervalMs = Math.max(0, ms);
+  }
+
+  public boolean isMonitoring() {
+    return monitoring;
+  }
+
+  /** null unless the analyzer failed to load */
+  @Nullable
+  public String getAnalyzerError() {
+    return analyzerError;
+  }
+
+  public long getFramesAnalyzed() {
+    return framesAnalyzed;
+  }
+
+  public long getFramesDropped() {
+    return framesDropped;
+  }
+
+  public long getLastFrameTs() {
+    return lastFrameTs;
+  }
+
+  public double getFps() {
+    return fpsEma;
+  }
+
+  // =====================================================
+  // NOTIFICATION
+  // =====================================================
+  private void createChannel() {
+    if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) return;
+    NotificationChannel channel = new NotificationChannel(
+        CHANNEL_ID,
+        getString(R.string.monitor_channel_name),
+        NotificationManager.IMPORTANCE_LOW);
+    getSystemService(NotificationManager.class).createNotificationChannel(channel);
+  }
+
+  private Notification buildNotification() {
+    int piFlags = PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE;
+
+    PendingIntent open = PendingIntent.getActivity(
+        this, 0, new Intent(this, MainActivity.class), piFlags);
+    PendingIntent stop = PendingIntent.getService(
+        this, 1,
+        new Intent(this, FatigueMonitorService.class).setAction(ACTION_STOP),
+        piFlags);
+
+    return new NotificationCompat.Builder(this, CHANNEL_ID)
+        .setContentTitle(getString(R.string.monitor_notification_title))
+        .setContentText(getString(R.string.monitor_notification_text))
+        .setSmallIcon(R.mipmap.ic_launcher)
+        .setOngoing(true)
+        .setContentIntent(open)
+        .addAction(0, getString(R.string.monitor_stop), stop)
+        .build();
+  }
+}
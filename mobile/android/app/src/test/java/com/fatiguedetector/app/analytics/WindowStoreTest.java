@@ -0,0 +1,185 @@
+package com.fatiguedetector.app.analytics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.fatiguedetector.app.mediapipe.FatigueLevel;
+import com.fatiguedetector.app.mediapipe.FatigueResult;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Segment-summary queries must match a plain scan of the same records,
+ * including after the ring has recycled segments.
+ */
+public class WindowStoreTest {
+
+  private static final long STEP_MS = 2_000;
+
+  // plain copy of what was appended, for brute-force answers
+  private long[] ts;
+  private boolean[] face;
+  private boolean[] valid;
+  private int[] level;
+  private float[] perclos;
+
+  private WindowStore fill(int maxSegments, int records, long seed) {
+    WindowStore store = new WindowStore(maxSegments);
+    Random rnd = new Random(seed);
+    ts = new long[records];
+    face = new boolean[records];
+    valid = new boolean[records];
+    level = new int[records];
+    perclos = new float[records];
+
+    long t = 1_000_000L;
+    for (int i = 0; i < records; i++) {
+      ts[i] = t;
+      face[i] = rnd.nextInt(10) > 0;
+      valid[i] = face[i] && rnd.nextInt(20) > 0;
+      level[i] = rnd.nextInt(3);
+      perclos[i] = rnd.nextFloat() * 0.5f;
+      store.append(t, face[i], valid[i], FatigueLevel.values()[level[i]],
+          0.9, perclos[i], 15.0, 0.3 + rnd.nextFloat() * 0.7);
+      t += STEP_MS + rnd.nextInt(500);
+    }
+    return store;
+  }
+
+  private void assertMatchesScan(RollupStats got, long from, long to, int firstRetained) {
+    int count = 0, faces = 0, valids = 0, high = 0;
+    double sum = 0, max = Double.NaN;
+    for (int i = firstRetained; i < ts.length; i++) {
+      if (ts[i] < from || ts[i] >= to) continue;
+      count++;
+      if (!face[i]) continue;
+      faces++;
+      if (!valid[i]) continue;
+      valids++;
+      if (level[i] == FatigueLevel.HIGH.ordinal()) high++;
+      sum += perclos[i];
+      max = Double.isNaN(max) ? perclos[i] : Math.max(max, perclos[i]);
+    }
+    assertEquals(count, got.count);
+    assertEquals(faces, got.faceCount);
+    assertEquals(valids, got.validCount);
+    assertEquals(high, got.levelCounts[FatigueLevel.HIGH.ordinal()]);
+    if (valids > 0) {
+      assertEquals(sum / valids, got.mean(WindowStore.PERCLOS), 1e-6);
+      assertEquals(max, got.max[WindowStore.PERCLOS], 1e-6);
+    }
+  }
+
+  @Test
+  public void bucketRollupMatchesScan() {
+    WindowStore store = fill(64, 5_000, 1);
+    long from = ts[137] + 1;
+    long to = ts[4_800];
+    // minute buckets only scan; half-hour buckets merge whole segments
+    for (long bucketMs : new long[] {60_000, 1_800_000}) {
+      WindowRollup rollup = store.rollup(from, to, bucketMs);
+      for (int b = 0; b < rollup.buckets.length; b++) {
+        long start = rollup.bucketStart(b);
+        long end = Math.min(to, start + rollup.bucketMs);
+        assertMatchesScan(rollup.buckets[b], start, end, 0);
+      }
+      assertMatchesScan(rollup.total, from, to, 0);
+    }
+  }
+
+  @Test
+  public void bucketCountIsCapped() {
+    WindowStore store = fill(64, 2_000, 2);
+    WindowRollup rollup = store.rollup(ts[0], ts[1_999] + 1, 1);
+    assertTrue(rollup.buckets.length <= WindowStore.MAX_BUCKETS);
+    assertMatchesScan(rollup.total, ts[0], ts[1_999] + 1, 0);
+  }
+
+  @Test
+  public void oldestSegmentsAreRecycled() {
+    // 1300 records into 4 x 256: only the newest segments survive
+    WindowStore store = fill(4, 1_300, 3);
+    int retained = store.size();
+    int firstRetained = ts.length - retained;
+
+    assertTrue(retained <= 4 * WindowStore.SEGMENT_SIZE);
+    assertEquals(ts[firstRetained], store.getFirstTs());
+    assertMatchesScan(store.getTotal(), Long.MIN_VALUE, Long.MAX_VALUE, firstRetained);
+    assertMatchesScan(store.rollup(ts[0], ts[ts.length - 1] + 1), ts[0],
+        ts[ts.length - 1] + 1, firstRetained);
+  }
+
+  @Test
+  public void downsampleKeepsEndpointsAndPeaks() {
+    WindowStore store = new WindowStore();
+    int n = 3_000;
+    int spike = 1_234;
+    for (int i = 0; i < n; i++) {
+      double p = i == spike ? 0.95 : 0.1 + 0.01 * Math.sin(i / 50.0);
+      store.append(i * STEP_MS, true, true, FatigueLevel.LOW, 0.9, p, 15, 0.8);
+    }
+
+    WindowSeries s = store.downsample(WindowStore.PERCLOS, 0, n * STEP_MS, 200);
+
+    assertEquals(200, s.size);
+    assertEquals(n, s.sourceSize);
+    assertEquals(0, s.timestamps[0]);
+    assertEquals((n - 1) * STEP_MS, s.timestamps[s.size - 1]);
+    boolean hasSpike = false;
+    for (int i = 0; i < s.size; i++) {
+      if (i > 0) assertTrue(s.timestamps[i] > s.timestamps[i - 1]);
+      hasSpike |= s.timestamps[i] == spike * STEP_MS;
+    }
+    assertTrue("spike kept", hasSpike);
+  }
+
+  @Test
+  public void downsampleSkipsInvalidAndReturnsSmallRangesWhole() {
+    WindowStore store = new WindowStore();
+    for (int i = 0; i < 50; i++) {
+      store.append(i * STEP_MS, i % 5 != 0, true, FatigueLevel.LOW, 0.9, 0.2, 15, 0.8);
+    }
+    WindowSeries s = store.downsample(WindowStore.PERCLOS, 0, 50 * STEP_MS, 100);
+    assertEquals(40, s.size);
+    assertEquals(40, s.sourceSize);
+  }
+
+  @Test
+  public void holdFramesAreFaceTimeWithoutMetrics() {
+    WindowStore store = new WindowStore();
+    FatigueResult r = new FatigueResult();
+    for (int i = 0; i < 20; i++) {
+      long t = i * STEP_MS;
+      if (i % 4 == 3) {
+        r.setHold(t);
+      } else {
+        r.set(true, false, 0.3, 0.3, 0.3, false, 15, -1, 0.1,
+            FatigueLevel.LOW, 0.9, t);
+        r.normalizedEAR = 0.95;
+      }
+      store.record(r);
+    }
+
+    RollupStats total = store.getTotal();
+    assertEquals(20, total.faceCount);
+    assertEquals(15, total.validCount);
+    assertEquals(0, total.lowConfidenceCount);
+    assertEquals(0.95, total.min[WindowStore.NORM_EAR], 1e-6);
+    assertEquals(15, store.downsample(WindowStore.NORM_EAR, 0, 20 * STEP_MS, 100).size);
+  }
+
+  @Test
+  public void sessionsCloseOnRestart() {
+    WindowStore store = new WindowStore();
+    store.startSession(1_000);
+    store.startSession(5_000);
+    store.endSession(9_000);
+
+    assertEquals(2, store.getSessionCount());
+    assertEquals(5_000, store.getSessionEnd(0));
+    assertEquals(5_000, store.getSessionStart(1));
+    assertEquals(9_000, store.getSessionEnd(1));
+  }
+}
@@ -0,0 +1,147 @@
+package com.fatiguedetector.app.mediapipe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Calibration lock, confidence interval, timeout fallback and post-lock
+ * drift of the streaming baseline.
+ */
+public class BaselineEstimatorTest {
+
+  private static final long FRAME_MS = 33;
+
+  /** Feeds calibration frames until locked; returns the lock timestamp or -1. */
+  private static long calibrate(BaselineEstimator b, Random rnd, double ear,
+                                double noise, long maxMs) {
+    for (long ts = 0; ts <= maxMs; ts += FRAME_MS) {
+      double v = ear + (rnd.nextDouble() * 2 - 1) * noise;
+      if (b.offerCalibration(v, ts)) return ts;
+    }
+    return -1;
+  }
+
+  @Test
+  public void locksEarlyOnSteadySamples() {
+    BaselineEstimator b = new BaselineEstimator();
+    long lockedAt = calibrate(b, new Random(1), 0.30, 0.005, 10_000);
+
+    assertTrue(b.isLocked());
+    assertTrue("locked at " + lockedAt, lockedAt >= 0 && lockedAt < 1_000);
+    assertEquals(0.30, b.get(), 0.005);
+    assertTrue(b.getCiHalfWidth() <= 0.04 * b.get());
+  }
+
+  @Test
+  public void ciHalfWidthFollowsTheMad() {
+    BaselineEstimator b = new BaselineEstimator();
+    double[] samples = {0.20, 0.22, 0.24, 0.26, 0.28, 0.30, 0.32, 0.34};
+    for (int i = 0; i < samples.length; i++) {
+      assertFalse(b.offerCalibration(samples[i], i * FRAME_MS));
+    }
+
+    // median 0.27, MAD 0.04
+    double sigma = 1.4826 * 0.04;
+    double expected = 1.96 * 1.2533 * sigma / Math.sqrt(samples.length);
+    assertEquals(expected, b.getCiHalfWidth(), 1e-9);
+    assertFalse(b.isLocked());
+  }
+
+  @Test
+  public void noisySamplesFallBackToTheTimeout() {
+    BaselineEstimator b = new BaselineEstimator();
+    long lockedAt = calibrate(b, new Random(2), 0.26, 0.08, 10_000);
+
+    // never tight enough: locks on the first frame at or after 3 s
+    assertTrue("locked at " + lockedAt, lockedAt >= 3_000 && lockedAt < 3_000 + FRAME_MS);
+    assertEquals(0.26, b.get(), 0.02);
+  }
+
+  @Test
+  public void outOfRangeSamplesNeverLock() {
+    BaselineEstimator b = new BaselineEstimator();
+    for (long ts = 0; ts < 10_000; ts += FRAME_MS) {
+      b.offerCalibration((ts / FRAME_MS) % 2 == 0 ? 0.10 : 0.40, ts);
+    }
+    assertFalse(b.isLocked());
+  }
+
+  @Test
+  public void lowMedianIsFloored() {
+    BaselineEstimator b = new BaselineEstimator();
+    calibrate(b, new Random(3), 0.16, 0.002, 10_000);
+    assertEquals(0.18, b.get(), 1e-9);
+  }
+
+  @Test
+  public void driftsDownAndUpWithinTheStepLimit() {
+    BaselineEstimator b = new BaselineEstimator();
+    Random rnd = new Random(4);
+    calibrate(b, rnd, 0.30, 0.003, 10_000);
+
+    double prev = b.get();
+    for (int i = 0; i < 3_000; i++) {
+      b.offerOpenEye(0.24 + (rnd.nextDouble() * 2 - 1) * 0.003);
+      assertTrue(Math.abs(b.get() - prev) <= 0.005 + 1e-12);
+      prev = b.get();
+    }
+    assertEquals(0.24, b.get(), 0.003);
+
+    for (int i = 0; i < 3_000; i++) {
+      b.offerOpenEye(0.32 + (rnd.nextDouble() * 2 - 1) * 0.003);
+    }
+    assertEquals(0.32, b.get(), 0.003);
+  }
+
+  // =====================================================
+  // Through the window engine
+  // =====================================================
+
+  /** EAR = 20h for both eyes (w = 0.1) */
+  private static float[] eyePoints(double ear) {
+    float h = (float) (ear / 20);
+    float[] pts = new float[EyeGeometry.COORD_COUNT];
+    for (int eye = 0; eye < 2; eye++) {
+      float x0 = eye == 0 ? 0.3f : 0.6f;
+      float[] xy = {
+          x0, 0.5f,
+          x0 + 0.033f, 0.5f - h,
+          x0 + 0.067f, 0.5f - h,
+          x0 + 0.1f, 0.5f,
+          x0 + 0.067f, 0.5f + h,
+          x0 + 0.033f, 0.5f + h
+      };
+      System.arraycopy(xy, 0, pts, eye * EyeGeometry.POINTS_PER_EYE * 2, xy.length);
+    }
+    return pts;
+  }
+
+  @Test
+  public void engineFollowsAnOpenEyeDropOfTwentyPercent() {
+    FatigueWindowEngine engine = new FatigueWindowEngine(false);
+    FatigueResult out = new FatigueResult();
+    float[] calibrated = eyePoints(0.30);
+    float[] dropped = eyePoints(0.24);
+    float[] closed = eyePoints(0.08);
+
+    long ts = 0;
+    for (int i = 0; i < 200; i++, ts += FRAME_MS) {
+      engine.analyze(calibrated, ts, out);
+    }
+    assertEquals(0.30, engine.getBaselineEAR(), 0.005);
+
+    // open-eye level falls to 0.8 of the baseline (e.g. new glasses);
+    // 2-frame blink every 6 s
+    for (int i = 0; i < 6_000; i++, ts += FRAME_MS) {
+      engine.analyze(i % 180 < 2 ? closed : dropped, ts, out);
+    }
+
+    assertEquals(0.24, engine.getBaselineEAR(), 0.005);
+    assertEquals(FatigueLevel.LOW, out.fatigueLevel);
+  }
+}
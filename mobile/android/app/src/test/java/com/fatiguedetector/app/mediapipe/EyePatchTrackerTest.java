@@ -0,0 +1,144 @@
+package com.fatiguedetector.app.mediapipe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * NCC tracking of the 12 eyelid points on a shifted synthetic texture,
+ * and tracker loss (which drops the keyframe so the analyzer must run
+ * the mesh).
+ */
+public class EyePatchTrackerTest {
+
+  private static final int SIZE = 128;
+  private static final int MARGIN = 20;
+
+  /** Smooth random luma texture, larger than the frame so it can shift. */
+  private static float[] texture(long seed) {
+    int side = SIZE + 2 * MARGIN;
+    Random rnd = new Random(seed);
+    float[] raw = new float[side * side];
+    for (int i = 0; i < raw.length; i++) raw[i] = rnd.nextFloat() * 255;
+
+    // 3x3 box: keeps the NCC peak smooth enough for sub-pixel refinement
+    float[] out = new float[raw.length];
+    for (int y = 1; y < side - 1; y++) {
+      for (int x = 1; x < side - 1; x++) {
+        float acc = 0;
+        for (int dy = -1; dy <= 1; dy++) {
+          for (int dx = -1; dx <= 1; dx++) acc += raw[(y + dy) * side + x + dx];
+        }
+        out[y * side + x] = acc / 9;
+      }
+    }
+    return out;
+  }
+
+  /** Grey ARGB frame showing the texture moved by (dx, dy) px. */
+  private static int[] frame(float[] tex, int dx, int dy) {
+    int side = SIZE + 2 * MARGIN;
+    int[] argb = new int[SIZE * SIZE];
+    for (int y = 0; y < SIZE; y++) {
+      for (int x = 0; x < SIZE; x++) {
+        int g = Math.round(tex[(y + MARGIN - dy) * side + x + MARGIN - dx]);
+        argb[y * SIZE + x] = 0xFF000000 | (g << 16) | (g << 8) | g;
+      }
+    }
+    return argb;
+  }
+
+  /** Two eyes of six points near the frame centre, normalized. */
+  private static float[] eyePoints() {
+    float[] pts = new float[EyeGeometry.COORD_COUNT];
+    for (int eye = 0; eye < 2; eye++) {
+      float x0 = eye == 0 ? 36 : 72;
+      float[] xy = {
+          x0, 64,
+          x0 + 6.3f, 60,
+          x0 + 12.7f, 60,
+          x0 + 19, 64,
+          x0 + 12.7f, 68.4f,
+          x0 + 6.3f, 68.4f
+      };
+      for (int i = 0; i < xy.length; i++) {
+        pts[eye * EyeGeometry.POINTS_PER_EYE * 2 + i] = xy[i] / SIZE;
+      }
+    }
+    return pts;
+  }
+
+  private static EyePatchTracker keyframed(float[] tex, float[] pts) {
+    EyePatchTracker tracker = new EyePatchTracker(SIZE);
+    tracker.roiFor(pts);
+    tracker.loadRoi(frame(tex, 0, 0));
+    tracker.setKeyframe(pts);
+    assertTrue(tracker.hasKeyframe());
+    return tracker;
+  }
+
+  private static boolean trackTo(EyePatchTracker tracker, int[] argb, float[] pts) {
+    tracker.roiFor(pts);
+    tracker.loadRoi(argb);
+    return tracker.track(pts);
+  }
+
+  @Test
+  public void followsShiftsWithinTheSearchRadius() {
+    float[] tex = texture(1);
+    float[] start = eyePoints();
+
+    for (int dy = -6; dy <= 6; dy += 3) {
+      for (int dx = -6; dx <= 6; dx += 2) {
+        float[] pts = start.clone();
+        EyePatchTracker tracker = keyframed(tex, pts);
+
+        assertTrue("shift " + dx + "," + dy, trackTo(tracker, frame(tex, dx, dy), pts));
+        assertTrue(tracker.getConfidence() > 0.95);
+        for (int p = 0; p < EyeGeometry.POINT_COUNT; p++) {
+          assertEquals(start[p * 2] * SIZE + dx, pts[p * 2] * SIZE, 0.5);
+          assertEquals(start[p * 2 + 1] * SIZE + dy, pts[p * 2 + 1] * SIZE, 0.5);
+        }
+        assertTrue(tracker.hasKeyframe());
+      }
+    }
+  }
+
+  @Test
+  public void differentSceneIsALossAndForcesAKeyframe() {
+    float[] pts = eyePoints();
+    EyePatchTracker tracker = keyframed(texture(2), pts);
+
+    // mean NCC far below MIN_MEAN_NCC
+    assertFalse(trackTo(tracker, frame(texture(3), 0, 0), pts));
+    assertTrue(tracker.getConfidence() < 0.6);
+    assertFalse(tracker.hasKeyframe());
+
+    // stays lost until the mesh sets a new keyframe
+    assertFalse(trackTo(tracker, frame(texture(2), 0, 0), eyePoints()));
+  }
+
+  @Test
+  public void oneOccludedPointIsALoss() {
+    float[] tex = texture(4);
+    float[] pts = eyePoints();
+    EyePatchTracker tracker = keyframed(tex, pts);
+
+    // flatten a 21x21 block around point 0 only: its NCC drops to 0
+    // while the mean over 12 points stays above MIN_MEAN_NCC
+    int[] argb = frame(tex, 0, 0);
+    int px = Math.round(pts[0] * SIZE);
+    int py = Math.round(pts[1] * SIZE);
+    for (int y = py - 10; y <= py + 10; y++) {
+      for (int x = px - 10; x <= px + 10; x++) argb[y * SIZE + x] = 0xFF808080;
+    }
+
+    assertFalse(trackTo(tracker, argb, pts));
+    assertTrue(tracker.getConfidence() > 0.6);
+    assertFalse(tracker.hasKeyframe());
+  }
+}
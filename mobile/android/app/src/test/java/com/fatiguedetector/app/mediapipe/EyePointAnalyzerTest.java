@@ -0,0 +1,69 @@
+package com.fatiguedetector.app.mediapipe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * The eye-point stream's own baseline, presence grace and reset.
+ */
+public class EyePointAnalyzerTest {
+
+  private static final long FRAME_MS = 33;
+
+  /** EAR = 20h for both eyes (w = 0.1) */
+  private static float[] eyePoints(double ear) {
+    float h = (float) (ear / 20);
+    float[] pts = new float[EyeGeometry.COORD_COUNT];
+    for (int eye = 0; eye < 2; eye++) {
+      float x0 = eye == 0 ? 0.3f : 0.6f;
+      float[] xy = {
+          x0, 0.5f,
+          x0 + 0.033f, 0.5f - h,
+          x0 + 0.067f, 0.5f - h,
+          x0 + 0.1f, 0.5f,
+          x0 + 0.067f, 0.5f + h,
+          x0 + 0.033f, 0.5f + h
+      };
+      System.arraycopy(xy, 0, pts, eye * EyeGeometry.POINTS_PER_EYE * 2, xy.length);
+    }
+    return pts;
+  }
+
+  private static long calibrate(EyePointAnalyzer analyzer, long ts) {
+    float[] open = eyePoints(0.30);
+    for (int i = 0; i < 200; i++, ts += FRAME_MS) analyzer.analyze(open, ts);
+    return ts;
+  }
+
+  @Test
+  public void locksItsBaselineAndResetForgetsIt() {
+    EyePointAnalyzer analyzer = new EyePointAnalyzer();
+    long ts = calibrate(analyzer, 0);
+
+    FatigueResult r = analyzer.analyze(eyePoints(0.30), ts);
+    assertTrue(analyzer.hasBaseline());
+    assertEquals(0.30, r.baselineEAR, 0.005);
+    assertEquals(-1, r.resolutionTier);
+
+    analyzer.reset();
+    assertFalse(analyzer.hasBaseline());
+    assertTrue(analyzer.analyze(eyePoints(0.30), ts + FRAME_MS).isCalibrating);
+  }
+
+  @Test
+  public void missingFaceHoldsForTheGraceThenDrops() {
+    EyePointAnalyzer analyzer = new EyePointAnalyzer();
+    long ts = calibrate(analyzer, 0);
+    long lastFace = ts - FRAME_MS;
+
+    assertTrue(analyzer.analyze(null, ts).faceDetected);
+    FatigueResult r = analyzer.analyze(
+        null, lastFace + MediaPipeFaceAnalyzer.FACE_LOST_GRACE_MS + FRAME_MS);
+    assertFalse(r.faceDetected);
+    // the baseline survives face loss
+    assertTrue(analyzer.hasBaseline());
+  }
+}
@@ -0,0 +1,134 @@
+package com.fatiguedetector.app.mediapipe;
+
+import android.graphics.Bitmap;
+
+/**
+ * Scripted LandmarkEngine for JVM tests: ignores the bitmap and emits a
+ * synthetic face whose eye and mouth opening are set by the test.
+ *
+ * Only the eye (EyeGeometry) and mouth (YawnStage) landmarks are
+ * placed; the rest stay at the origin.
+ */
+final class FakeLandmarkEngine implements LandmarkEngine {
+
+  private static final int[] MOUTH = {13, 14, 78, 308};
+  private static final float EYE_WIDTH = 0.1f;
+  private static final float MOUTH_WIDTH = 0.2f;
+
+  private boolean facePresent = true;
+  private boolean withIris = false;
+  private float eyeOpening = 0.014f;
+  private float mouthOpening = 0.02f;
+  private float[] matrix;
+
+  private int calls;
+  private boolean closed;
+
+  @Override
+  public String name() {
+    return "fake";
+  }
+
+  @Override
+  public boolean supportsMaxSide() {
+    return true;
+  }
+
+  /** Half eyelid gap; EAR = 2 * h / EYE_WIDTH. */
+  FakeLandmarkEngine eyeOpening(float h) {
+    eyeOpening = h;
+    return this;
+  }
+
+  /** Inner-lip gap; MAR = gap / MOUTH_WIDTH. */
+  FakeLandmarkEngine mouthOpening(float gap) {
+    mouthOpening = gap;
+    return this;
+  }
+
+  FakeLandmarkEngine facePresent(boolean present) {
+    facePresent = present;
+    return this;
+  }
+
+  /** 478 points instead of 468 */
+  FakeLandmarkEngine withIris(boolean iris) {
+    withIris = iris;
+    return this;
+  }
+
+  /** null = engine without a transformation matrix */
+  FakeLandmarkEngine transformMatrix(float[] m) {
+    matrix = m;
+    return this;
+  }
+
+  int getCalls() {
+    return calls;
+  }
+
+  boolean isClosed() {
+    return closed;
+  }
+
+  @Override
+  public boolean detect(Bitmap bitmap, int maxSide, LandmarkFrame out) {
+    calls++;
+    out.clear();
+    if (!facePresent) return false;
+
+    java.util.Arrays.fill(out.points, 0f);
+    placeEyes(out.points);
+    placeMouth(out.points);
+    out.count = withIris
+        ? LandmarkFrame.MAX_LANDMARKS
+        : LandmarkFrame.MESH_LANDMARKS;
+
+    if (matrix != null) {
+      System.arraycopy(matrix, 0, out.transformMatrix, 0, 16);
+      out.hasTransformMatrix = true;
+    }
+    return true;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+  }
+
+  private void placeEyes(float[] pts) {
+    int[] idx = EyeGeometry.LANDMARK_INDICES;
+    float h = eyeOpening;
+    for (int eye = 0; eye < 2; eye++) {
+      float x0 = eye == 0 ? 0.3f : 0.6f;
+      float[] xy = {
+          x0, 0.4f,
+          x0 + 0.033f, 0.4f - h,
+          x0 + 0.067f, 0.4f - h,
+          x0 + EYE_WIDTH, 0.4f,
+          x0 + 0.067f, 0.4f + h,
+          x0 + 0.033f, 0.4f + h
+      };
+      for (int p = 0; p < EyeGeometry.POINTS_PER_EYE; p++) {
+        int i = idx[eye * EyeGeometry.POINTS_PER_EYE + p];
+        pts[i * 3] = xy[p * 2];
+        pts[i * 3 + 1] = xy[p * 2 + 1];
+      }
+    }
+  }
+
+  private void placeMouth(float[] pts) {
+    float cx = 0.5f;
+    float cy = 0.7f;
+    float[] xy = {
+        cx, cy - mouthOpening / 2,
+        cx, cy + mouthOpening / 2,
+        cx - MOUTH_WIDTH / 2, cy,
+        cx + MOUTH_WIDTH / 2, cy
+    };
+    for (int p = 0; p < MOUTH.length; p++) {
+      pts[MOUTH[p] * 3] = xy[p * 2];
+      pts[MOUTH[p] * 3 + 1] = xy[p * 2 + 1];
+    }
+  }
+}
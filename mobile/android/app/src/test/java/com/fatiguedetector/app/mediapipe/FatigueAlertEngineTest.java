@@ -0,0 +1,147 @@
+package com.fatiguedetector.app.mediapipe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Sustain, release, cooldown and escalation timing of the native alert
+ * rules, driven with synthetic results at 10 fps.
+ */
+public class FatigueAlertEngineTest {
+
+  private static final long FRAME_MS = 100;
+
+  private FatigueAlertEngine engine;
+  private FatigueResult r;
+  private int fired;
+  private FatigueLevel lastFired;
+
+  @Before
+  public void setUp() {
+    engine = new FatigueAlertEngine();
+    r = new FatigueResult();
+    r.faceDetected = true;
+    fired = 0;
+    lastFired = null;
+  }
+
+  private FatigueLevel frame(long ts, FatigueLevel level, double confidence) {
+    r.timestamp = ts;
+    r.fatigueLevel = level;
+    r.confidence = confidence;
+    FatigueLevel out = engine.onResult(r);
+    if (out != null) {
+      fired++;
+      lastFired = out;
+    }
+    return out;
+  }
+
+  /** Feeds [from, to) and returns the first timestamp that fired, or -1. */
+  private long feed(long from, long to, FatigueLevel level) {
+    long firstFire = -1;
+    for (long ts = from; ts < to; ts += FRAME_MS) {
+      if (frame(ts, level, 0.9) != null && firstFire < 0) firstFire = ts;
+    }
+    return firstFire;
+  }
+
+  @Test
+  public void highFiresAfterItsSustainWindow() {
+    long at = feed(0, 2_000, FatigueLevel.HIGH);
+
+    assertEquals(FatigueAlertEngine.DEFAULT_HIGH_SUSTAIN_MS, at);
+    assertEquals(1, fired);
+    assertEquals(FatigueLevel.HIGH, engine.getAlertLevel());
+  }
+
+  @Test
+  public void mediumNeedsTheLongerSustainWindow() {
+    assertEquals(-1, feed(0, 4_900, FatigueLevel.MEDIUM));
+
+    assertEquals(4_900 + FRAME_MS, feed(4_900, 6_000, FatigueLevel.MEDIUM));
+    assertEquals(FatigueLevel.MEDIUM, lastFired);
+  }
+
+  @Test
+  public void interruptedSignalRestartsTheSustainTimer() {
+    feed(0, 800, FatigueLevel.HIGH);
+    frame(800, FatigueLevel.LOW, 0.9);
+
+    // timer restarts at 900, so nothing before 1900
+    assertEquals(1_900, feed(900, 2_500, FatigueLevel.HIGH));
+  }
+
+  @Test
+  public void lowConfidenceCountsAsLow() {
+    for (long ts = 0; ts < 3_000; ts += FRAME_MS) {
+      assertNull(frame(ts, FatigueLevel.HIGH,
+          FatigueAlertEngine.DEFAULT_CONFIDENCE_THRESHOLD - 0.01));
+    }
+    assertEquals(FatigueLevel.LOW, engine.getAlertLevel());
+  }
+
+  @Test
+  public void alertLevelHoldsUntilTheReleaseWindowPasses() {
+    feed(0, 1_100, FatigueLevel.HIGH);
+
+    // a single good frame does not cancel it
+    frame(1_100, FatigueLevel.LOW, 0.9);
+    feed(1_200, 1_500, FatigueLevel.HIGH);
+    assertEquals(FatigueLevel.HIGH, engine.getAlertLevel());
+
+    // below for just under releaseMs: still HIGH
+    long below = 1_500;
+    feed(below, below + FatigueAlertEngine.DEFAULT_RELEASE_MS, FatigueLevel.LOW);
+    assertEquals(FatigueLevel.HIGH, engine.getAlertLevel());
+
+    frame(below + FatigueAlertEngine.DEFAULT_RELEASE_MS, FatigueLevel.LOW, 0.9);
+    assertEquals(FatigueLevel.LOW, engine.getAlertLevel());
+  }
+
+  @Test
+  public void repeatsAtTheSameLevelWaitForCooldown() {
+    long cooldown = FatigueAlertEngine.DEFAULT_COOLDOWN_MS;
+    long end = 1_000 + cooldown + 1_000;
+    long first = -1;
+    long second = -1;
+    for (long ts = 0; ts < end; ts += FRAME_MS) {
+      if (frame(ts, FatigueLevel.HIGH, 0.9) != null) {
+        if (first < 0) first = ts;
+        else if (second < 0) second = ts;
+      }
+    }
+
+    assertEquals(1_000, first);
+    assertEquals(1_000 + cooldown, second);
+    assertEquals(2, fired);
+  }
+
+  @Test
+  public void escalationBypassesCooldown() {
+    long medium = feed(0, 5_100, FatigueLevel.MEDIUM);
+    assertEquals(FatigueAlertEngine.DEFAULT_MEDIUM_SUSTAIN_MS, medium);
+
+    // well inside the MEDIUM cooldown
+    long high = feed(5_100, 7_000, FatigueLevel.HIGH);
+
+    assertEquals(5_100 + FatigueAlertEngine.DEFAULT_HIGH_SUSTAIN_MS, high);
+    assertEquals(FatigueLevel.HIGH, lastFired);
+    assertEquals(2, fired);
+  }
+
+  @Test
+  public void reAlertAtTheSameLevelAfterReleaseStillWaitsForCooldown() {
+    feed(0, 1_100, FatigueLevel.HIGH);
+    feed(1_100, 5_000, FatigueLevel.LOW);
+    assertEquals(FatigueLevel.LOW, engine.getAlertLevel());
+
+    // back to HIGH: level is raised again but no new alert yet
+    assertEquals(-1, feed(5_000, 8_000, FatigueLevel.HIGH));
+    assertEquals(FatigueLevel.HIGH, engine.getAlertLevel());
+    assertEquals(1, fired);
+  }
+}
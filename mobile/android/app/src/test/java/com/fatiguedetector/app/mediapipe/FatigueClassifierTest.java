@@ -0,0 +1,119 @@
+package com.fatiguedetector.app.mediapipe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Both classification strategies: model files written by the backend
+ * exporter load on device, and lastScore() means the same thing for
+ * rules and model.
+ */
+public class FatigueClassifierTest {
+
+  /*
+   * logistic_model_v1.bin was written by
+   * backend/app/services/fatigue_model_export.py write_logistic_model
+   * with exactly these values.
+   */
+  private static final double[] MEAN = {1.0, 1.0, 0.004, 0.1, 15.0};
+  private static final double[] SCALE = {0.1, 0.1, 0.004, 0.1, 5.0};
+  private static final double[][] WEIGHTS = {
+      {2.0, 1.0, -0.5, -2.0, -1.0},
+      {0.0, 0.0, 0.0, 0.0, 0.0},
+      {-2.0, -1.0, 0.5, 2.0, 1.0}
+  };
+  private static final double[] BIAS = {1.0, 1.5, -1.0};
+
+  private static LogisticFatigueClassifier loadFixture() throws IOException {
+    try (InputStream in =
+             FatigueClassifierTest.class.getResourceAsStream("logistic_model_v1.bin")) {
+      assertNotNull("fixture on the test classpath", in);
+      return LogisticFatigueClassifier.read(in);
+    }
+  }
+
+  private static float[] features(double ear, double perclos, double blinkRate) {
+    float[] f = new float[WindowFeatures.COUNT];
+    f[WindowFeatures.NORM_EAR] = (float) ear;
+    f[WindowFeatures.NORM_EAR_MEAN] = (float) ear;
+    f[WindowFeatures.NORM_EAR_VARIANCE] = 0.004f;
+    f[WindowFeatures.PERCLOS] = (float) perclos;
+    f[WindowFeatures.BLINK_RATE] = (float) blinkRate;
+    return f;
+  }
+
+  @Test
+  public void exportedModelRoundTrips() throws IOException {
+    LogisticFatigueClassifier model = loadFixture();
+
+    float[][] cases = {
+        features(1.0, 0.05, 12),
+        features(0.98, 0.12, 15),
+        features(0.6, 0.45, 28)
+    };
+    FatigueLevel[] expectedLevels = {FatigueLevel.LOW, FatigueLevel.MEDIUM, FatigueLevel.HIGH};
+
+    for (int k = 0; k < cases.length; k++) {
+      float[] f = cases[k];
+      double[] z = new double[BIAS.length];
+      int best = 0;
+      for (int c = 0; c < z.length; c++) {
+        z[c] = BIAS[c];
+        for (int i = 0; i < f.length; i++) {
+          z[c] += WEIGHTS[c][i] * (f[i] - MEAN[i]) / SCALE[i];
+        }
+        if (z[c] > z[best]) best = c;
+      }
+      double denom = 0;
+      for (double v : z) denom += Math.exp(v - z[best]);
+
+      assertEquals(expectedLevels[k], model.classify(f));
+      assertEquals(FatigueLevel.values()[best], expectedLevels[k]);
+      assertEquals(1.0 / denom, model.lastScore(), 1e-4);
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void truncatedModelIsRejected() throws IOException {
+    byte[] header = {0x46, 0x44, 0x4C, 0x4D, 0, 0, 0, 1};
+    LogisticFatigueClassifier.read(new ByteArrayInputStream(header));
+  }
+
+  @Test
+  public void ruleScoreIsHalfOnABoundaryAndGrowsInsideIt() {
+    RuleFatigueClassifier rules = new RuleFatigueClassifier();
+
+    // exactly on the LOW / MEDIUM PERCLOS threshold
+    assertEquals(FatigueLevel.MEDIUM,
+        rules.classify(features(1.0, RuleFatigueClassifier.PERCLOS_MED, 5)));
+    assertEquals(0.5, rules.lastScore(), 1e-6);
+
+    // just past it: barely certain
+    rules.classify(features(1.0, RuleFatigueClassifier.PERCLOS_MED + 0.01, 5));
+    double nearBoundary = rules.lastScore();
+    assertTrue(nearBoundary > 0.5 && nearBoundary < 0.6);
+
+    // deep inside HIGH and deep inside LOW: near certain
+    assertEquals(FatigueLevel.HIGH, rules.classify(features(0.4, 0.6, 5)));
+    assertTrue(rules.lastScore() > 0.99);
+    assertEquals(FatigueLevel.LOW, rules.classify(features(1.1, 0.0, 5)));
+    assertTrue(rules.lastScore() > 0.98);
+  }
+
+  @Test
+  public void mediumScoreIsCappedByTheDistanceToHigh() {
+    RuleFatigueClassifier rules = new RuleFatigueClassifier();
+
+    // well past MEDIUM on PERCLOS, but EAR almost at the HIGH threshold
+    assertEquals(FatigueLevel.MEDIUM, rules.classify(
+        features(RuleFatigueClassifier.NORM_EAR_LOW + 0.001, 0.3, 5)));
+    assertTrue(rules.lastScore() < 0.55);
+  }
+}
@@ -0,0 +1,99 @@
+package com.fatiguedetector.app.mediapipe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Allocation regression gate for the per-frame analysis path.
+ * After warm-up (baseline locked, then every pane ring wrapped at least
+ * once) a frame must not allocate on the Java heap.
+ */
+public class FatigueWindowEngineAllocationTest {
+
+  private static final long FRAME_MS = 33;
+  // ~99 s for the baseline, then the longest horizon plus a pane
+  private static final int WARMUP_FRAMES = 3_000 + (int) (
+      (longestHorizonMs() + FatigueWindowEngine.PANE_MS) / FRAME_MS + 1);
+  private static final int MEASURED_FRAMES = 2_000;
+  private static final int MEASURED_ROUNDS = 5;
+
+  private static long longestHorizonMs() {
+    long max = 0;
+    for (long h : FatigueWindowEngine.DEFAULT_HORIZONS_MS) max = Math.max(max, h);
+    return max;
+  }
+
+  private final float[] openEye = eyePoints(0.014f);
+  private final float[] closedEye = eyePoints(0.004f);
+
+  /** EAR = 2h / w with w = 0.1 for both eyes */
+  private static float[] eyePoints(float h) {
+    float[] pts = new float[EyeGeometry.COORD_COUNT];
+    for (int eye = 0; eye < 2; eye++) {
+      float x0 = eye == 0 ? 0.3f : 0.6f;
+      int o = eye * EyeGeometry.POINTS_PER_EYE * 2;
+      float[] xy = {
+          x0, 0.5f,                 // p1
+          x0 + 0.033f, 0.5f - h,    // p2
+          x0 + 0.067f, 0.5f - h,    // p3
+          x0 + 0.1f, 0.5f,          // p4
+          x0 + 0.067f, 0.5f + h,    // p5
+          x0 + 0.033f, 0.5f + h     // p6
+      };
+      System.arraycopy(xy, 0, pts, o, xy.length);
+    }
+    return pts;
+  }
+
+  private long runFrames(FatigueWindowEngine engine, FatigueResult out,
+                         long startTs, int frames) {
+    long ts = startTs;
+    for (int i = 0; i < frames; i++) {
+      // 2-frame blink roughly every 3 s
+      float[] pts = (i % 90) < 2 ? closedEye : openEye;
+      engine.analyze(pts, ts, out);
+      ts += FRAME_MS;
+    }
+    return ts;
+  }
+
+  @Test
+  public void steadyStateAnalyzeAllocatesNothing() {
+    java.lang.management.ThreadMXBean base = ManagementFactory.getThreadMXBean();
+    assumeTrue(base instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) base;
+    assumeTrue(mx.isThreadAllocatedMemorySupported());
+    mx.setThreadAllocatedMemoryEnabled(true);
+
+    long tid = Thread.currentThread().getId();
+
+    FatigueWindowEngine engine = new FatigueWindowEngine(true);
+    FatigueResult out = new FatigueResult();
+    long ts = runFrames(engine, out, 1_000_000L, WARMUP_FRAMES);
+
+    // measurement overhead of the probe itself
+    long probeStart = mx.getThreadAllocatedBytes(tid);
+    long probeEnd = mx.getThreadAllocatedBytes(tid);
+    long overhead = probeEnd - probeStart;
+
+    // One-off JIT / tiering transitions can allocate once; a real per-frame
+    // allocation shows up in every round, so gate on the best round.
+    long minAllocated = Long.MAX_VALUE;
+    for (int round = 0; round < MEASURED_ROUNDS; round++) {
+      long before = mx.getThreadAllocatedBytes(tid);
+      ts = runFrames(engine, out, ts, MEASURED_FRAMES);
+      long after = mx.getThreadAllocatedBytes(tid);
+      minAllocated = Math.min(minAllocated, Math.max(0L, after - before - overhead));
+    }
+
+    assertEquals(
+        "bytes allocated over " + MEASURED_FRAMES + " frames",
+        0L,
+        minAllocated
+    );
+  }
+}
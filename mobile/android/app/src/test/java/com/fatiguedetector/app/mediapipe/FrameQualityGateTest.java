@@ -0,0 +1,155 @@
+package com.fatiguedetector.app.mediapipe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Luma, contrast and sharpness thresholds on synthetic frames: a
+ * textured scene (shading plus hard-edged patches) with mild sensor
+ * noise, box-blurred / darkened / blown out as needed.
+ */
+public class FrameQualityGateTest {
+
+  private static final int THUMB = 48;
+  private static final int CROP = FrameQualityGate.SHARPNESS_CROP;
+  private static final double NOISE_SIGMA = 2.0;
+
+  /** Luma scene, CROP x CROP. */
+  private static float[] scene(long seed) {
+    Random rnd = new Random(seed);
+    float[] img = new float[CROP * CROP];
+    for (int y = 0; y < CROP; y++) {
+      for (int x = 0; x < CROP; x++) {
+        img[y * CROP + x] = (float) (100 + 40 * Math.sin(x / 40.0) * Math.cos(y / 50.0));
+      }
+    }
+    for (int k = 0; k < 80; k++) {
+      int bx = rnd.nextInt(CROP);
+      int by = rnd.nextInt(CROP);
+      int bw = 6 + rnd.nextInt(24);
+      int bh = 3 + rnd.nextInt(10);
+      float d = (rnd.nextFloat() - 0.5f) * 60;
+      for (int y = by; y < Math.min(CROP, by + bh); y++) {
+        for (int x = bx; x < Math.min(CROP, bx + bw); x++) img[y * CROP + x] += d;
+      }
+    }
+    return img;
+  }
+
+  /** Separable box blur of radius r. */
+  private static float[] blur(float[] src, int r) {
+    float[] tmp = new float[src.length];
+    float[] out = new float[src.length];
+    for (int y = 0; y < CROP; y++) {
+      for (int x = 0; x < CROP; x++) {
+        float acc = 0;
+        for (int d = -r; d <= r; d++) {
+          acc += src[y * CROP + Math.min(CROP - 1, Math.max(0, x + d))];
+        }
+        tmp[y * CROP + x] = acc / (2 * r + 1);
+      }
+    }
+    for (int y = 0; y < CROP; y++) {
+      for (int x = 0; x < CROP; x++) {
+        float acc = 0;
+        for (int d = -r; d <= r; d++) {
+          acc += tmp[Math.min(CROP - 1, Math.max(0, y + d)) * CROP + x];
+        }
+        out[y * CROP + x] = acc / (2 * r + 1);
+      }
+    }
+    return out;
+  }
+
+  /** Grey ARGB with gain / offset and sensor noise, clipped to 0..255. */
+  private static int[] argb(float[] luma, double gain, double offset) {
+    Random noise = new Random(7);
+    int[] out = new int[luma.length];
+    for (int i = 0; i < luma.length; i++) {
+      double v = luma[i] * gain + offset + noise.nextGaussian() * NOISE_SIGMA;
+      int g = (int) Math.max(0, Math.min(255, Math.round(v)));
+      out[i] = 0xFF000000 | (g << 16) | (g << 8) | g;
+    }
+    return out;
+  }
+
+  /** Point-sampled thumbnail of a CROP x CROP frame. */
+  private static int[] thumb(int[] frame) {
+    int[] out = new int[THUMB * THUMB];
+    for (int y = 0; y < THUMB; y++) {
+      for (int x = 0; x < THUMB; x++) {
+        out[y * THUMB + x] = frame[(y * CROP / THUMB) * CROP + x * CROP / THUMB];
+      }
+    }
+    return out;
+  }
+
+  private static FrameQuality evaluate(FrameQualityGate gate, int[] frame) {
+    return gate.evaluate(thumb(frame), THUMB, THUMB, frame, CROP, CROP);
+  }
+
+  @Test
+  public void sharpFrameIsOk() {
+    FrameQualityGate gate = new FrameQualityGate();
+    assertEquals(FrameQuality.OK, evaluate(gate, argb(scene(1), 1, 0)));
+    assertTrue(gate.getLastSharpness() > 2 * FrameQualityGate.DEFAULT_MIN_SHARPNESS);
+    assertEquals(0, gate.getLowQualityFrames());
+  }
+
+  @Test
+  public void slightBlurIsStillOk() {
+    FrameQualityGate gate = new FrameQualityGate();
+    assertEquals(FrameQuality.OK, evaluate(gate, argb(blur(scene(2), 2), 1, 0)));
+  }
+
+  @Test
+  public void blurredFrameIsRejected() {
+    FrameQualityGate gate = new FrameQualityGate();
+    float[] scene = scene(3);
+    assertEquals(FrameQuality.BLURRY, evaluate(gate, argb(blur(scene, 8), 1, 0)));
+    assertEquals(1, gate.getBlurryFrames());
+
+    // same scene, same noise: only the blur differs
+    assertEquals(FrameQuality.OK, evaluate(gate, argb(scene, 1, 0)));
+  }
+
+  @Test
+  public void darkFrameIsRejected() {
+    FrameQualityGate gate = new FrameQualityGate();
+    assertEquals(FrameQuality.TOO_DARK, evaluate(gate, argb(scene(4), 0.25, 0)));
+    assertTrue(gate.getLastMeanLuma() < FrameQualityGate.DEFAULT_MIN_LUMA);
+    assertEquals(1, gate.getDarkFrames());
+  }
+
+  @Test
+  public void overexposedFrameIsRejected() {
+    FrameQualityGate gate = new FrameQualityGate();
+    assertEquals(FrameQuality.OVEREXPOSED, evaluate(gate, argb(scene(5), 1, 140)));
+    assertEquals(1, gate.getOverexposedFrames());
+  }
+
+  @Test
+  public void flatFrameIsLowContrast() {
+    FrameQualityGate gate = new FrameQualityGate();
+    assertEquals(FrameQuality.LOW_CONTRAST, evaluate(gate, argb(scene(6), 0.1, 110)));
+    assertTrue(gate.getLastContrast() < FrameQualityGate.DEFAULT_MIN_CONTRAST);
+    assertEquals(1, gate.getLowContrastFrames());
+  }
+
+  @Test
+  public void countersReset() {
+    FrameQualityGate gate = new FrameQualityGate();
+    evaluate(gate, argb(scene(7), 0.25, 0));
+    evaluate(gate, argb(scene(7), 1, 0));
+    assertEquals(2, gate.getEvaluatedFrames());
+    assertEquals(1, gate.getLowQualityFrames());
+
+    gate.resetCounters();
+    assertEquals(0, gate.getEvaluatedFrames());
+    assertEquals(0, gate.getLowQualityFrames());
+  }
+}
@@ -0,0 +1,102 @@
+package com.fatiguedetector.app.mediapipe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Head pose confidence gating through the stage runner and alert engine:
+ * turning away suppresses alerts, nodding forward must not.
+ */
+public class HeadPoseStageTest {
+
+  private static final long FRAME_MS = 33;
+
+  /** Column-major rotation about x (pitch, + = chin down). */
+  private static float[] pitched(double deg) {
+    float c = (float) Math.cos(Math.toRadians(deg));
+    float s = (float) Math.sin(Math.toRadians(deg));
+    return new float[] {
+        1, 0, 0, 0,
+        0, c, s, 0,
+        0, -s, c, 0,
+        0, 0, 0, 1
+    };
+  }
+
+  /** Column-major rotation about y (yaw). */
+  private static float[] yawed(double deg) {
+    float c = (float) Math.cos(Math.toRadians(deg));
+    float s = (float) Math.sin(Math.toRadians(deg));
+    return new float[] {
+        c, 0, -s, 0,
+        0, 1, 0, 0,
+        s, 0, c, 0,
+        0, 0, 0, 1
+    };
+  }
+
+  /** HIGH, confident window results with the given head pose for 3 s. */
+  private static int highAlertsWithPose(float[] matrix, FatigueResult out) {
+    FeatureStageRunner runner = new FeatureStageRunner(new HeadPoseStage());
+    FakeLandmarkEngine engine = new FakeLandmarkEngine().transformMatrix(matrix);
+    FatigueAlertEngine alerts = new FatigueAlertEngine();
+    LandmarkFrame frame = new LandmarkFrame();
+
+    int fired = 0;
+    for (long ts = 0; ts < 3_000; ts += FRAME_MS) {
+      out.set(true, false, 0.1, 0.1, 0.1, false, 12, -1, 0.4,
+          FatigueLevel.HIGH, 0.9, ts);
+      engine.detect(null, 0, frame);
+      runner.run(frame, FatigueLevel.HIGH, ts);
+      runner.publish(out);
+      if (alerts.onResult(out) == FatigueLevel.HIGH) fired++;
+    }
+    return fired;
+  }
+
+  @Test
+  public void headNodDoesNotBlockHighAlert() {
+    FatigueResult out = new FatigueResult();
+
+    assertEquals(1, highAlertsWithPose(pitched(35), out));
+    assertEquals(35, out.headPitch, 1e-3);
+    assertEquals(0.9, out.confidence, 1e-9);
+    assertTrue(out.headDropped);
+  }
+
+  @Test
+  public void turnedAwayHeadSuppressesAlert() {
+    FatigueResult out = new FatigueResult();
+
+    assertEquals(0, highAlertsWithPose(yawed(45), out));
+    assertEquals(45, Math.abs(out.headYaw), 1e-3);
+    assertFalse(out.headDropped);
+  }
+
+  @Test
+  public void headTiltedBackSuppressesAlert() {
+    FatigueResult out = new FatigueResult();
+
+    assertEquals(0, highAlertsWithPose(pitched(-35), out));
+  }
+
+  @Test
+  public void briefDipIsNotAHeadDrop() {
+    HeadPoseStage stage = new HeadPoseStage();
+    float[] down = pitched(30);
+    float[] level = pitched(0);
+
+    long ts = 0;
+    for (; ts < 1_000; ts += 100) stage.process(null, down, ts);
+    stage.process(null, level, ts);
+    for (ts += 100; ts < 2_200; ts += 100) stage.process(null, down, ts);
+
+    // 1.1 s since the dip restarted
+    assertFalse(stage.isHeadDropped());
+    stage.process(null, down, ts + 500);
+    assertTrue(stage.isHeadDropped());
+  }
+}
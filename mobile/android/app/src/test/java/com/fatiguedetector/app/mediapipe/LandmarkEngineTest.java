@@ -0,0 +1,133 @@
+package com.fatiguedetector.app.mediapipe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Landmark consumers driven through the LandmarkEngine SPI with a
+ * scripted engine (no camera, no models).
+ */
+public class LandmarkEngineTest {
+
+  private static final long FRAME_MS = 33;
+
+  private static final float[] IDENTITY = {
+      1, 0, 0, 0,
+      0, 1, 0, 0,
+      0, 0, 1, 0,
+      0, 0, 0, 1
+  };
+
+  private static int stageIndex(FeatureStageRunner runner, String name) {
+    for (int i = 0; i < runner.getStageCount(); i++) {
+      if (runner.getStage(i).name().equals(name)) return i;
+    }
+    throw new AssertionError("no stage " + name);
+  }
+
+  private static long runFrames(FakeLandmarkEngine engine, FeatureStageRunner runner,
+                                LandmarkFrame frame, long ts, int frames) {
+    for (int i = 0; i < frames; i++) {
+      if (engine.detect(null, 0, frame)) {
+        runner.run(frame, FatigueLevel.LOW, ts);
+      }
+      ts += FRAME_MS;
+    }
+    return ts;
+  }
+
+  @Test
+  public void yawnDetectedWithoutTransformMatrix() {
+    YawnStage yawn = new YawnStage();
+    FeatureStageRunner runner = new FeatureStageRunner(yawn, new HeadPoseStage());
+    FakeLandmarkEngine engine = new FakeLandmarkEngine();
+    LandmarkFrame frame = new LandmarkFrame();
+    FatigueResult out = new FatigueResult();
+
+    // MAR 0.75 held for 2 s
+    engine.mouthOpening(0.15f);
+    runFrames(engine, runner, frame, 0, 60);
+    runner.publish(out);
+
+    assertEquals(1, out.yawnCount);
+    assertEquals(0.75, out.mouthAspectRatio, 1e-4);
+    // TFLite-style engine: no matrix, head pose never runs
+    assertEquals(0, runner.getRuns(stageIndex(runner, HeadPoseStage.NAME)));
+  }
+
+  @Test
+  public void headPoseFollowsItsInterval() {
+    FeatureStageRunner runner = new FeatureStageRunner(new HeadPoseStage());
+    FakeLandmarkEngine engine = new FakeLandmarkEngine().transformMatrix(IDENTITY);
+    LandmarkFrame frame = new LandmarkFrame();
+
+    runFrames(engine, runner, frame, 0, 10);
+
+    assertEquals(2, runner.getRuns(0));
+  }
+
+  @Test
+  public void gazeNeedsIrisLandmarks() {
+    FeatureStageRunner runner = new FeatureStageRunner(new GazeStage());
+    FakeLandmarkEngine engine = new FakeLandmarkEngine();
+    LandmarkFrame frame = new LandmarkFrame();
+
+    for (int i = 0; i < 4; i++) {
+      engine.detect(null, 0, frame);
+      runner.run(frame, FatigueLevel.MEDIUM, i * FRAME_MS);
+    }
+    assertEquals(0, runner.getRuns(0));
+
+    engine.withIris(true);
+    engine.detect(null, 0, frame);
+    runner.run(frame, FatigueLevel.MEDIUM, 4 * FRAME_MS);
+    assertEquals(1, runner.getRuns(0));
+  }
+
+  @Test
+  public void eyePointsGiveExpectedEAR() {
+    FakeLandmarkEngine engine = new FakeLandmarkEngine().eyeOpening(0.02f);
+    LandmarkFrame frame = new LandmarkFrame();
+    assertTrue(engine.detect(null, 0, frame));
+
+    int[] idx = EyeGeometry.LANDMARK_INDICES;
+    float[] eye = new float[EyeGeometry.COORD_COUNT];
+    for (int i = 0; i < idx.length; i++) {
+      eye[i * 2] = frame.x(idx[i]);
+      eye[i * 2 + 1] = frame.y(idx[i]);
+    }
+    assertEquals(0.4, EyeGeometry.computeEAR(eye, EyeGeometry.LEFT_EYE), 1e-4);
+    assertEquals(0.4, EyeGeometry.computeEAR(eye, EyeGeometry.RIGHT_EYE), 1e-4);
+  }
+
+  @Test
+  public void benchmarkCountsRunsAndFaces() {
+    FakeLandmarkEngine engine = new FakeLandmarkEngine();
+    LandmarkBenchmark.Result withFace =
+        LandmarkBenchmark.run(engine, null, 0, 5, 20);
+
+    assertEquals("fake", withFace.engine);
+    assertEquals(20, withFace.iterations);
+    assertEquals(1.0, withFace.faceRate, 0.0);
+    assertEquals(25, engine.getCalls());
+    assertTrue(withFace.p50Ms <= withFace.p90Ms);
+    assertTrue(withFace.p90Ms <= withFace.maxMs);
+
+    engine.facePresent(false);
+    LandmarkBenchmark.Result noFace =
+        LandmarkBenchmark.run(engine, null, 0, 0, 10);
+    assertEquals(0.0, noFace.faceRate, 0.0);
+    assertFalse(engine.isClosed());
+  }
+
+  @Test
+  public void percentileIsNearestRank() {
+    double[] sorted = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+    assertEquals(5, LandmarkBenchmark.percentile(sorted, 0.5), 0.0);
+    assertEquals(9, LandmarkBenchmark.percentile(sorted, 0.9), 0.0);
+    assertEquals(10, LandmarkBenchmark.percentile(sorted, 1.0), 0.0);
+  }
+}
@@ -0,0 +1,127 @@
+package com.fatiguedetector.app.mediapipe;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Every horizon's answers must match a plain scan over the frames in its
+ * panes, across pane rollover, time gaps and ring reuse.
+ */
+public class PaneAggregatorTest {
+
+  private static final long PANE_MS = 500;
+  // 1250 is not a pane multiple: resolves to 3 panes
+  private static final long[] HORIZONS_MS = {1_250, 5_000, 20_000, 60_000};
+  private static final int MIN_FRAMES = 15;
+
+  // plain copy of what was added
+  private long[] ts;
+  private boolean[] closed;
+  private boolean[] blink;
+  private boolean[] hasEar;
+  private double[] ear;
+  private int n;
+
+  private void record(long t, boolean c, boolean b, boolean h, double e) {
+    ts[n] = t;
+    closed[n] = c;
+    blink[n] = b;
+    hasEar[n] = h;
+    ear[n] = e;
+    n++;
+  }
+
+  private void assertMatchesScan(PaneAggregator panes, int h, long now) {
+    long panesInHorizon = (HORIZONS_MS[h] + PANE_MS - 1) / PANE_MS;
+    long firstPane = ts[n - 1] / PANE_MS - panesInHorizon + 1;
+
+    int frames = 0, closedFrames = 0, blinks = 0, earN = 0;
+    double earSum = 0, earSumSq = 0;
+    long start = -1;
+    for (int i = n - 1; i >= 0 && ts[i] / PANE_MS >= firstPane; i--) {
+      frames++;
+      if (closed[i]) closedFrames++;
+      if (blink[i]) blinks++;
+      if (hasEar[i]) {
+        earN++;
+        earSum += ear[i];
+        earSumSq += ear[i] * ear[i];
+      }
+      start = ts[i];
+    }
+
+    String at = "horizon " + HORIZONS_MS[h] + " at frame " + n;
+    assertEquals(at, frames, panes.frames(h));
+    assertEquals(at, blinks, panes.blinks(h));
+    assertEquals(at, earN, panes.earSamples(h));
+
+    double perclos = frames < MIN_FRAMES ? 0.0 : (double) closedFrames / frames;
+    assertEquals(at, perclos, panes.perclos(h, MIN_FRAMES), 1e-12);
+
+    double spanMs = Math.max(1, Math.min(HORIZONS_MS[h], now - start));
+    assertEquals(at, blinks * (60_000.0 / spanMs), panes.blinkRate(h, now), 1e-9);
+
+    if (earN > 0) {
+      assertEquals(at, earSum / earN, panes.earMean(h, -1), 1e-9);
+    }
+    if (earN >= 5) {
+      double mean = earSum / earN;
+      double var = Math.max(0, earSumSq / earN - mean * mean);
+      assertEquals(at, var, panes.earVariance(h), 1e-9);
+    }
+  }
+
+  private void runStream(long seed, int frames) {
+    PaneAggregator panes = new PaneAggregator(PANE_MS, HORIZONS_MS);
+    Random rnd = new Random(seed);
+    ts = new long[frames];
+    closed = new boolean[frames];
+    blink = new boolean[frames];
+    hasEar = new boolean[frames];
+    ear = new double[frames];
+    n = 0;
+
+    long t = 1_000_000L + rnd.nextInt(1_000);
+    for (int i = 0; i < frames; i++) {
+      boolean c = rnd.nextInt(8) == 0;
+      boolean b = c && rnd.nextInt(3) == 0;
+      boolean h = rnd.nextInt(10) > 0;
+      double e = 0.4 + rnd.nextDouble() * 0.9;
+      panes.add(t, c, b, h, e);
+      record(t, c, b, h, e);
+
+      if (i % 7 == 0 || rnd.nextInt(50) == 0) {
+        for (int k = 0; k < HORIZONS_MS.length; k++) assertMatchesScan(panes, k, t);
+      }
+
+      // mostly 15..60 fps, some frames on the same ms, occasional
+      // stalls and gaps longer than the longest horizon
+      int r = rnd.nextInt(1_000);
+      if (r < 5) t += 61_000 + rnd.nextInt(60_000);
+      else if (r < 30) t += 1_000 + rnd.nextInt(8_000);
+      else if (r < 60) t += 0;
+      else t += 16 + rnd.nextInt(50);
+    }
+  }
+
+  @Test
+  public void horizonsMatchScanOverRandomStreams() {
+    for (long seed = 1; seed <= 5; seed++) runStream(seed, 20_000);
+  }
+
+  @Test
+  public void resetForgetsEverything() {
+    PaneAggregator panes = new PaneAggregator(PANE_MS, HORIZONS_MS);
+    for (long t = 0; t < 10_000; t += 33) panes.add(t, true, true, true, 0.5);
+    panes.reset();
+
+    for (int h = 0; h < HORIZONS_MS.length; h++) {
+      assertEquals(0, panes.frames(h));
+      assertEquals(0.0, panes.blinkRate(h, 10_000), 0);
+      assertEquals(0.7, panes.earMean(h, 0.7), 0);
+    }
+  }
+}
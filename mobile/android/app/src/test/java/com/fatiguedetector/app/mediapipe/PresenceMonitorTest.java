@@ -0,0 +1,139 @@
+package com.fatiguedetector.app.mediapipe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Idle-mode transitions, idle sampling and per-mode time accounting of
+ * the presence monitor, driven the way the analyzer drives it.
+ */
+public class PresenceMonitorTest {
+
+  private static final long GRACE_MS = 1_000;
+  private static final long FRAME_MS = 100;
+  private static final long T0 = 10_000;
+
+  /** Landmarking frames with no face from {@code from} for {@code ms}. */
+  private static void noFace(PresenceMonitor monitor, long from, long ms) {
+    for (long ts = from; ts < from + ms; ts += FRAME_MS) monitor.onNoFace(ts);
+  }
+
+  @Test
+  public void graceThenIdle() {
+    PresenceMonitor monitor = new PresenceMonitor(GRACE_MS);
+    monitor.onFace(T0);
+
+    // held, not idle, for the whole grace period
+    noFace(monitor, T0 + FRAME_MS, GRACE_MS - FRAME_MS);
+    assertEquals(PresenceMode.ACTIVE, monitor.getMode());
+    assertTrue(monitor.isInGrace(T0 + GRACE_MS - FRAME_MS));
+
+    monitor.onNoFace(T0 + GRACE_MS);
+    assertTrue(monitor.isIdle());
+    assertFalse(monitor.isInGrace(T0 + GRACE_MS));
+    assertEquals(1, monitor.getIdleEntries());
+
+    // further misses are no new entries
+    noFace(monitor, T0 + GRACE_MS + FRAME_MS, 500);
+    assertEquals(1, monitor.getIdleEntries());
+  }
+
+  @Test
+  public void emptySeatFromTheStartGoesIdle() {
+    PresenceMonitor monitor = new PresenceMonitor(GRACE_MS);
+
+    noFace(monitor, T0, GRACE_MS);
+    assertFalse(monitor.isIdle());
+    monitor.onNoFace(T0 + GRACE_MS);
+    assertTrue(monitor.isIdle());
+  }
+
+  @Test
+  public void idleSamplesAreRateLimited() {
+    PresenceMonitor monitor = new PresenceMonitor(GRACE_MS);
+    monitor.setIdleSampleMs(500);
+    monitor.onFace(T0);
+    noFace(monitor, T0 + FRAME_MS, GRACE_MS);
+    assertTrue(monitor.isIdle());
+
+    long from = T0 + 2 * GRACE_MS;
+    int taken = 0;
+    for (long ts = from; ts < from + 5_000; ts += FRAME_MS) {
+      if (monitor.takeIdleSample(ts)) taken++;
+    }
+    // first frame after entering IDLE, then one per 500 ms
+    assertEquals(10, taken);
+    assertEquals(10, monitor.getIdleSamples());
+  }
+
+  @Test
+  public void wakesOnTheSameFrame() {
+    PresenceMonitor monitor = new PresenceMonitor(GRACE_MS);
+    monitor.onFace(T0);
+    noFace(monitor, T0 + FRAME_MS, GRACE_MS);
+    assertTrue(monitor.isIdle());
+
+    long hit = T0 + 3_000;
+    assertTrue(monitor.takeIdleSample(hit));
+    monitor.wake(hit);
+    assertEquals(PresenceMode.ACTIVE, monitor.getMode());
+
+    // the landmarker misses that same frame: a fresh grace, not IDLE again
+    monitor.onNoFace(hit);
+    assertFalse(monitor.isIdle());
+    noFace(monitor, hit + FRAME_MS, GRACE_MS - 2 * FRAME_MS);
+    assertFalse(monitor.isIdle());
+    monitor.onNoFace(hit + GRACE_MS);
+    assertTrue(monitor.isIdle());
+    assertEquals(2, monitor.getIdleEntries());
+
+    // re-entering IDLE samples its first frame immediately
+    assertTrue(monitor.takeIdleSample(hit + GRACE_MS + FRAME_MS));
+  }
+
+  @Test
+  public void wakeWhileActiveIsANoOp() {
+    PresenceMonitor monitor = new PresenceMonitor(GRACE_MS);
+    monitor.onFace(T0);
+    monitor.wake(T0 + 500);
+    assertEquals(500, monitor.getActiveMs(T0 + 500));
+    assertEquals(0, monitor.getIdleEntries());
+  }
+
+  @Test
+  public void timeIsAccountedPerModeAcrossSwitches() {
+    PresenceMonitor monitor = new PresenceMonitor(GRACE_MS);
+
+    // 2 s with a face, then the seat empties: IDLE after the grace
+    monitor.onFace(T0);
+    monitor.onFace(T0 + 2_000);
+    monitor.onNoFace(T0 + 3_000);
+    assertTrue(monitor.isIdle());
+    assertEquals(3_000, monitor.getActiveMs(T0 + 3_000));
+    assertEquals(0, monitor.getIdleMs(T0 + 3_000));
+
+    // current stint counts up to now
+    assertEquals(4_000, monitor.getIdleMs(T0 + 7_000));
+    assertEquals(3_000, monitor.getActiveMs(T0 + 7_000));
+
+    monitor.wake(T0 + 8_000);
+    monitor.onFace(T0 + 8_000);
+    monitor.onNoFace(T0 + 8_500);
+    assertFalse(monitor.isIdle());
+    monitor.onNoFace(T0 + 9_000);
+    assertTrue(monitor.isIdle());
+
+    // 3 s + 1 s active, 5 s + 1 s idle
+    assertEquals(4_000, monitor.getActiveMs(T0 + 10_000));
+    assertEquals(6_000, monitor.getIdleMs(T0 + 10_000));
+    assertEquals(2, monitor.getIdleEntries());
+
+    monitor.reset();
+    assertEquals(0, monitor.getActiveMs(T0 + 12_000));
+    assertEquals(0, monitor.getIdleMs(T0 + 12_000));
+    assertEquals(PresenceMode.ACTIVE, monitor.getMode());
+  }
+}
@@ -0,0 +1,92 @@
+package com.fatiguedetector.app.mediapipe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tier changes of the resolution governor under a synthetic per-tier
+ * latency model.
+ */
+public class ResolutionGovernorTest {
+
+  // ms per frame at each tier; tier 3 costs > 1/STEP_UP_HEADROOM x tier 2
+  private static final double[] TIER_COST_MS = {8, 12, 20, 45, 70};
+
+  private static final double OPEN_EAR = 0.3;
+  private static final double WIDE_EYE = 0.2;
+  private static final double NARROW_EYE = 0.01;
+
+  @Test
+  public void overBudgetTierIsNotRetriedEveryDwell() {
+    ResolutionGovernor governor = new ResolutionGovernor();
+    int ups = 0;
+    int framesAtTier3 = 0;
+    int frames = 3_000;
+
+    for (int i = 0; i < frames; i++) {
+      int before = governor.getTier();
+      // eye always too narrow: low detail keeps asking for more
+      governor.onFrame(TIER_COST_MS[before], OPEN_EAR, NARROW_EYE);
+      if (governor.getTier() > before) ups++;
+      if (governor.getTier() == 3) framesAtTier3++;
+      if (governor.getTier() < before) assertEquals(3, governor.getBlockedTier());
+    }
+
+    // without memory this flips 2 <-> 3 every dwell (~100 ups)
+    assertTrue("ups " + ups, ups <= 5);
+    assertTrue("at tier 3 " + framesAtTier3, framesAtTier3 < frames / 20);
+    assertEquals(2, governor.getTier());
+  }
+
+  @Test
+  public void persistentNoFaceStepsUp() {
+    ResolutionGovernor governor = new ResolutionGovernor();
+    int start = governor.getTier();
+
+    for (int i = 0; i < 29; i++) governor.onFrame(10, -1, 0);
+    assertEquals(start, governor.getTier());
+
+    governor.onFrame(10, -1, 0);
+    assertEquals(start + 1, governor.getTier());
+  }
+
+  @Test
+  public void neverStepsPastTheSourceSize() {
+    ResolutionGovernor governor = new ResolutionGovernor();
+    governor.setSourceSide(640);
+
+    // no face for a long time: keeps asking for more detail
+    for (int i = 0; i < 1_000; i++) governor.onFrame(10, -1, 0);
+
+    // 768 is the first tier >= 640; 1024 would change nothing
+    assertEquals(3, governor.getTier());
+    assertEquals(640, governor.getMaxSide());
+  }
+
+  @Test
+  public void smallSourceCapsTheCurrentTier() {
+    ResolutionGovernor governor = new ResolutionGovernor();
+    governor.setSourceSide(300);
+
+    assertEquals(1, governor.getTier());
+    assertEquals(300, governor.getMaxSide());
+
+    governor.reset();
+    assertEquals(1, governor.getTier());
+  }
+
+  @Test
+  public void occasionalNoFaceDoesNotStepUp() {
+    ResolutionGovernor governor = new ResolutionGovernor();
+    int start = governor.getTier();
+
+    for (int i = 0; i < 600; i++) {
+      boolean face = i % 20 != 0;
+      governor.onFrame(10, face ? OPEN_EAR : -1, face ? WIDE_EYE : 0);
+    }
+
+    assertEquals(start, governor.getTier());
+  }
+}
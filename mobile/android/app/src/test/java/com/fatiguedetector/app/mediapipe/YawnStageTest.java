@@ -0,0 +1,101 @@
+package com.fatiguedetector.app.mediapipe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Mouth aspect ratio on non-square frames and yawn event timing.
+ */
+public class YawnStageTest {
+
+  // rotated camera frame, as delivered by the monitoring service
+  private static final int FRAME_W = 480;
+  private static final int FRAME_H = 640;
+  private static final double MOUTH_WIDTH_PX = 100;
+  private static final long FRAME_MS = 100;
+
+  /** Inner lips + mouth corners, normalized per axis like the mesh. */
+  private static float[] mouth(double mar) {
+    float cx = 0.5f;
+    float cy = 0.7f;
+    float gap = (float) (mar * MOUTH_WIDTH_PX / FRAME_H);
+    float half = (float) (MOUTH_WIDTH_PX / 2 / FRAME_W);
+    return new float[] {
+        cx, cy - gap / 2, 0,
+        cx, cy + gap / 2, 0,
+        cx - half, cy, 0,
+        cx + half, cy, 0
+    };
+  }
+
+  private static YawnStage stage() {
+    YawnStage stage = new YawnStage();
+    stage.setFrameSize(FRAME_W, FRAME_H);
+    return stage;
+  }
+
+  /** Feeds {@code mar} for {@code ms}; returns the yawn events published. */
+  private static int hold(YawnStage stage, FatigueResult out, double mar, long from, long ms) {
+    int events = 0;
+    for (long ts = from; ts < from + ms; ts += FRAME_MS) {
+      stage.process(mouth(mar), null, ts);
+      stage.publish(out);
+      if (out.yawnDetected) events++;
+    }
+    return events;
+  }
+
+  @Test
+  public void ratioIsInPixelsOnAPortraitFrame() {
+    YawnStage stage = stage();
+    FatigueResult out = new FatigueResult();
+
+    stage.process(mouth(0.7), null, 0);
+    stage.publish(out);
+    // per-axis normalized, this mouth would read 0.7 * 480 / 640 = 0.525
+    assertEquals(0.7, out.mouthAspectRatio, 1e-4);
+  }
+
+  @Test
+  public void heldWideOpeningIsOneYawn() {
+    YawnStage stage = stage();
+    FatigueResult out = new FatigueResult();
+
+    assertEquals(1, hold(stage, out, 0.7, 0, 3_000));
+    assertEquals(1, out.yawnCount);
+
+    // closes, then a second yawn
+    assertEquals(0, hold(stage, out, 0.2, 3_000, 500));
+    assertEquals(1, hold(stage, out, 0.7, 3_500, 2_000));
+    assertEquals(2, out.yawnCount);
+  }
+
+  @Test
+  public void shortOpeningIsNotAYawn() {
+    YawnStage stage = stage();
+    FatigueResult out = new FatigueResult();
+
+    assertEquals(0, hold(stage, out, 0.7, 0, 1_000));
+    assertEquals(0, hold(stage, out, 0.2, 1_000, 500));
+    assertEquals(0, hold(stage, out, 0.7, 1_500, 1_000));
+    assertFalse(out.yawnDetected);
+    assertEquals(0, out.yawnCount);
+  }
+
+  @Test
+  public void dippingBetweenThresholdsKeepsTheYawnOpen() {
+    YawnStage stage = stage();
+    FatigueResult out = new FatigueResult();
+
+    // counted once even though the mouth dips below YAWN_MAR but stays
+    // above the release threshold
+    int events = hold(stage, out, 0.7, 0, 2_000);
+    events += hold(stage, out, 0.5, 2_000, 500);
+    events += hold(stage, out, 0.7, 2_500, 2_000);
+    assertEquals(1, events);
+    assertTrue(out.mouthAspectRatio > 0.6);
+  }
+}
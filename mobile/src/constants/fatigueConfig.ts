@@ -11,4 +11,5 @@ export const FATIGUE_WEIGHTS = {
   pose: 0.20,
 };
 
+// Sustain window before a MEDIUM alert (native FatigueAlertEngine)
 export const MIN_STATE_DURATION_MS = 5000;
@@ -0,0 +1,11 @@
+/**
+ * One frame from a JS-side frame source.
+ *
+ * eyePoints: flat (x, y) normalized coordinates laid out as
+ * EyeGeometry.LANDMARK_INDICES on the native side (12 points, left eye
+ * then right eye). Absent / null when no face was found.
+ */
+export type FrameEvent = {
+  ts: number;
+  eyePoints?: number[] | null;
+};
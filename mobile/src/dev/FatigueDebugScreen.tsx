@@ -8,9 +8,18 @@ import {
 } from "react-native";
 import {
   getSessionSummaries,
-  getWindowLogs,
   clearLogs,
 } from "../storage/fatigueStorage";
+import FatigueDetector, {
+  WindowHistoryStats,
+  WindowRecord,
+  WindowRollup,
+} from "../native/FatigueDetector";
+
+// Timeline: last TIMELINE_MS in TIMELINE_BUCKET_MS buckets
+const TIMELINE_MS = 30 * 60 * 1000;
+const TIMELINE_BUCKET_MS = 5 * 60 * 1000;
+const RECENT_WINDOWS = 20;
 
 
 /**
@@ -18,44 +27,54 @@ import {
  * Purpose:
  * - Inspect real logged data
  * - Catch baseline + confidence issues safely
+ *
+ * Window data is aggregated natively; only rollups and the last few
+ * records cross the bridge, so this stays fast over long sessions.
  */
 export default function FatigueDebugScreen() {
   const [session, setSession] = useState<any | null>(null);
-  const [windows, setWindows] = useState<any[]>([]);
+  const [history, setHistory] = useState<WindowHistoryStats | null>(null);
+  const [timeline, setTimeline] = useState<WindowRollup | null>(null);
+  const [windows, setWindows] = useState<WindowRecord[]>([]);
 
   const reload = async () => {
     try {
-      const s = await getSessionSummaries();
-      const w = await getWindowLogs();
-      setSession(s ?? null);
-      setWindows(Array.isArray(w) ? [...w].reverse() : []);
+      const now = Date.now();
+      const [s, h, t, w] = await Promise.all([
+        getSessionSummaries(),
+        FatigueDetector.getWindowHistoryStats(),
+        FatigueDetector.queryWindowRollup(
+          now - TIMELINE_MS,
+          now,
+          TIMELINE_BUCKET_MS
+        ),
+        FatigueDetector.getRecentWindows(RECENT_WINDOWS),
+      ]);
+      setSession(s.length > 0 ? s[s.length - 1] : null);
+      setHistory(h);
+      setTimeline(t);
+      setWindows(w);
     } catch (e) {
       console.warn("Debug reload failed", e);
     }
   };
 
+  const clear = async () => {
+    await clearLogs();
+    FatigueDetector.clearWindowHistory();
+    reload();
+  };
+
   useEffect(() => {
     reload();
   }, []);
 
   // --------------------
-  // Data quality metrics (SAFE)
+  // Data quality metrics (native rollup)
   // --------------------
-  const totalWindows = windows.length;
-
-  const noFaceRate =
-    totalWindows === 0
-      ? 0
-      : windows.filter(w => w?.fatigue?.faceDetected === false).length /
-        totalWindows;
-
-  const lowConfidenceRate =
-    totalWindows === 0
-      ? 0
-      : windows.filter(
-          w => typeof w?.fatigue?.confidence === "number" &&
-               w.fatigue.confidence < 0.4
-        ).length / totalWindows;
+  const totalWindows = history?.count ?? 0;
+  const noFaceRate = history?.noFaceRate ?? 0;
+  const lowConfidenceRate = history?.lowConfidenceRate ?? 0;
 
   // --------------------
   // Helpers
@@ -75,7 +94,7 @@ export default function FatigueDebugScreen() {
 
       <View style={styles.actions}>
         <Button title="Reload Logs" onPress={reload} />
-        <Button title="Clear Logs" color="#c0392b" onPress={clearLogs} />
+        <Button title="Clear Logs" color="#c0392b" onPress={clear} />
       </View>
 
       {/* -------------------- */}
@@ -94,6 +113,29 @@ export default function FatigueDebugScreen() {
         </Text>
       </View>
 
+      {/* -------------------- */}
+      {/* TIMELINE */}
+      {/* -------------------- */}
+      <Text style={styles.section}>📈 Last 30 min (5 min buckets)</Text>
+
+      {timeline?.buckets.map(b => (
+        <View key={b.start} style={styles.window}>
+          <Text style={styles.row}>
+            {new Date(b.start).toLocaleTimeString()} · {b.count} windows
+          </Text>
+          <Text style={styles.row}>
+            PERCLOS: {fmtNum(b.metrics.perclos.mean ?? undefined)}
+            {" "}(max {fmtNum(b.metrics.perclos.max ?? undefined)}) |
+            EAR: {fmtNum(b.metrics.normalizedEAR.mean ?? undefined)}
+          </Text>
+          <Text style={styles.row}>
+            L:{fmtPct(b.levelDistribution.LOW, 0)}% |
+            M:{fmtPct(b.levelDistribution.MEDIUM, 0)}% |
+            H:{fmtPct(b.levelDistribution.HIGH, 0)}%
+          </Text>
+        </View>
+      ))}
+
       {/* -------------------- */}
       {/* SESSION SUMMARY */}
       {/* -------------------- */}
@@ -132,33 +174,29 @@ export default function FatigueDebugScreen() {
       {/* -------------------- */}
       {/* WINDOW LOGS */}
       {/* -------------------- */}
-      <Text style={styles.section}>🪟 Windows (last 20)</Text>
-
-      {windows.slice(0, 20).map((w, i) => {
-        const f = w?.fatigue;
-        if (!f) return null;
-
-        return (
-          <View key={i} style={styles.window}>
-            <Text style={styles.row}>Session: {w.sessionId ?? "–"}</Text>
-            <Text style={styles.row}>Fatigue: {f.fatigueLevel ?? "–"}</Text>
-            <Text style={styles.row}>
-              Confidence: {fmtNum(f.confidence)}
-            </Text>
-            <Text style={styles.row}>
-              Blink/min: {fmtNum(f.blinkRate, 1)}
-            </Text>
-            <Text style={styles.row}>
-              PERCLOS: {fmtNum(f.perclos)}
-            </Text>
-            <Text style={styles.row}>
-              Time: {w.timestamp
-                ? new Date(w.timestamp).toLocaleTimeString()
-                : "–"}
-            </Text>
-          </View>
-        );
-      })}
+      <Text style={styles.section}>🪟 Windows (last {RECENT_WINDOWS})</Text>
+
+      {windows.map(w => (
+        <View key={w.timestamp} style={styles.window}>
+          <Text style={styles.row}>
+            Face: {w.faceDetected ? "yes" : "no"}
+            {w.faceDetected && !w.valid ? " (calibrating)" : ""}
+          </Text>
+          <Text style={styles.row}>Fatigue: {w.valid ? w.fatigueLevel : "–"}</Text>
+          <Text style={styles.row}>
+            Confidence: {w.valid ? fmtNum(w.confidence) : "–"}
+          </Text>
+          <Text style={styles.row}>
+            Blink/min: {w.valid ? fmtNum(w.blinkRate, 1) : "–"}
+          </Text>
+          <Text style={styles.row}>
+            PERCLOS: {w.valid ? fmtNum(w.perclos) : "–"}
+          </Text>
+          <Text style={styles.row}>
+            Time: {new Date(w.timestamp).toLocaleTimeString()}
+          </Text>
+        </View>
+      ))}
     </ScrollView>
   );
 }
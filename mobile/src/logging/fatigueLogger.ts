@@ -26,8 +26,10 @@ export function logFatigueWindow(params: {
 
     baselineEAR: fatigue.baselineEAR ?? -1,
 
-    normalizedEARMean: fatigue.normalizedEARMean ?? 0,
-    normalizedEARVariance: fatigue.normalizedEARVariance ?? 0,
+    // null, not 0: a missing value must not look like closed eyes
+    normalizedEAR: fatigue.normalizedEAR ?? null,
+    normalizedEARMean: fatigue.normalizedEARMean ?? null,
+    normalizedEARVariance: fatigue.normalizedEARVariance ?? null,
 
     blinkRate: fatigue.blinkRate,
     blinkEntropy: fatigue.blinkEntropy,
@@ -13,8 +13,10 @@ export type FatigueWindowLog = {
 
   baselineEAR: number;
 
-  normalizedEARMean: number;
-  normalizedEARVariance: number;
+  // null when the window had no baseline-normalized EAR
+  normalizedEAR: number | null;
+  normalizedEARMean: number | null;
+  normalizedEARVariance: number | null;
 
   blinkRate: number;
   blinkEntropy: number;
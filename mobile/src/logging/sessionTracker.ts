@@ -7,6 +7,7 @@ import { FatigueLevel } from "../types/fatigue";
 let startTime = Date.now();
 let confidenceSum = 0;
 let count = 0;
+let alertCount = 0;
 
 const fatigueCounts: Record<FatigueLevel, number> = {
   LOW: 0,
@@ -26,11 +27,15 @@ export function trackFatigue({
   count++;
 }
 
+export function trackAlert() {
+  alertCount++;
+}
 
 export function startSession(sessionId: string) {
   startTime = Date.now();
   confidenceSum = 0;
   count = 0;
+  alertCount = 0;
   fatigueCounts.LOW = 0;
   fatigueCounts.MEDIUM = 0;
   fatigueCounts.HIGH = 0;
@@ -64,7 +69,7 @@ export function endSession(sessionId: string) {
     },
 
     baselineSuccessful: true, // Phase-1 OK
-    alertCount: 0,
+    alertCount,
   };
 
   storeSessionSummary(summary);
@@ -73,6 +78,7 @@ export function endSession(sessionId: string) {
   startTime = Date.now();
   confidenceSum = 0;
   count = 0;
+  alertCount = 0;
 
   fatigueCounts.LOW = 0;
   fatigueCounts.MEDIUM = 0;
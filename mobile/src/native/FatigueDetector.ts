@@ -1,5 +1,5 @@
-import { NativeModules } from "react-native";
-import { FatigueLevel } from "../types/fatigue";
+import { NativeEventEmitter, NativeModules } from "react-native";
+import { FatigueLevel, FrameQuality } from "../types/fatigue";
 
 /**
  * Result returned from native MediaPipe analyzer
@@ -8,10 +8,23 @@ import { FatigueLevel } from "../types/fatigue";
 export type FatigueResult = {
   faceDetected: boolean;
   isCalibrating: boolean;
+  // Grace-period hold: face assumed present, no metrics this frame
+  faceHeld: boolean;
 
   leftEAR: number;
   rightEAR: number;
   avgEAR: number;
+  // Current (drift-tracked) open-eye baseline, -1 until locked
+  baselineEAR: number;
+
+  // Window statistics = classifier features (0 until baseline locks)
+  normalizedEAR: number;
+  normalizedEARMean: number;
+  normalizedEARVariance: number;
+
+  // Same statistics per aggregation horizon (5 s / 20 s / 60 s / 5 min);
+  // empty until the baseline locks
+  horizons: HorizonStats[];
 
   blinkDetected: boolean;
   blinkRate: number;
@@ -21,6 +34,198 @@ export type FatigueResult = {
   fatigueLevel: FatigueLevel;
   confidence: number;
 
+  // Pre-inference quality gate; non-OK frames skip landmarking
+  frameQuality: FrameQuality;
+  lowQualityFrames: number;
+
+  // true when eye points came from the patch tracker, not the face mesh
+  trackedFrame: boolean;
+  trackingConfidence: number;
+
+  // Input resolution ladder (0 = lowest, -1 = N/A: backend has fixed-size
+  // inputs) + landmarker time this frame
+  resolutionTier: number;
+  inferenceMs: number;
+
+  // IDLE = no driver; only a sampled low-res presence check runs
+  presenceMode: PresenceMode;
+
+  // Feature stages (last value; 0 while a stage is idle)
+  mouthAspectRatio: number;
+  yawnDetected: boolean;
+  yawnCount: number;
+  headPitch: number;
+  headYaw: number;
+  headRoll: number;
+  // head pitched forward for a sustained period (microsleep cue)
+  headDropped: boolean;
+  gazeX: number;
+  gazeY: number;
+  featureStageMs: number;
+
+  // Native alert engine state (level after hysteresis)
+  alertLevel: FatigueLevel;
+  alertTriggered: boolean;
+
+  timestamp: number;
+};
+
+export type HorizonStats = {
+  windowMs: number;
+  perclos: number;
+  blinkRate: number;
+  earVariance: number;
+};
+
+export type ClassificationStrategy = "RULES" | "MODEL";
+
+export type PresenceMode = "ACTIVE" | "IDLE";
+
+export type PresenceStats = {
+  mode: PresenceMode;
+  activeMs: number;
+  idleMs: number;
+  idleEntries: number;
+  idleSamples: number;
+};
+
+export type FeatureStageName = "yawn" | "headPose" | "gaze";
+
+export type FeatureStageConfig = {
+  enabled?: boolean;
+  // run on every Nth face-mesh frame
+  interval?: number;
+};
+
+export type FeatureStageStats = {
+  name: FeatureStageName;
+  enabled: boolean;
+  // false while gated out by fatigue level
+  active: boolean;
+  interval: number;
+  runs: number;
+  lastMs: number;
+  avgMs: number;
+};
+
+export type LandmarkBackend = "MEDIAPIPE" | "TFLITE";
+
+// threads / xnnpack only apply to TFLITE (defaults 4 / true)
+export type LandmarkBackendConfig = {
+  threads?: number;
+  xnnpack?: boolean;
+};
+
+export type LandmarkBenchmarkConfig = LandmarkBackendConfig & {
+  backend: LandmarkBackend;
+};
+
+export type LandmarkBenchmarkResult = {
+  // e.g. "mediapipe", "tflite-4t-xnn"
+  engine: string;
+  iterations: number;
+  faceRate: number;
+  avgMs: number;
+  p50Ms: number;
+  p90Ms: number;
+  maxMs: number;
+};
+
+export type WindowMetric = "normalizedEAR" | "perclos" | "blinkRate" | "confidence";
+
+export type MetricStats = {
+  // null when the range has no valid (face + baseline) windows
+  min: number | null;
+  max: number | null;
+  mean: number | null;
+};
+
+/**
+ * Aggregate over stored windows (MUST stay in sync with RollupStats.java)
+ */
+export type WindowStats = {
+  count: number;
+  faceCount: number;
+  validCount: number;
+  noFaceRate: number;
+  lowConfidenceRate: number;
+  levelDistribution: Record<FatigueLevel, number>;
+  metrics: Record<WindowMetric, MetricStats>;
+};
+
+export type WindowRollup = {
+  from: number;
+  // may be wider than requested (bucket count is capped natively)
+  bucketMs: number;
+  buckets: (WindowStats & { start: number })[];
+  total: WindowStats;
+};
+
+export type WindowSeries = {
+  metric: WindowMetric;
+  timestamps: number[];
+  values: number[];
+  // valid windows in range before downsampling
+  sourceSize: number;
+};
+
+export type WindowSession = WindowStats & {
+  startTime: number;
+  // -1 while monitoring
+  endTime: number;
+};
+
+export type WindowHistoryStats = WindowStats & {
+  firstTs: number;
+  lastTs: number;
+};
+
+export type WindowRecord = {
+  timestamp: number;
+  faceDetected: boolean;
+  valid: boolean;
+  fatigueLevel: FatigueLevel;
+} & Record<WindowMetric, number>;
+
+/**
+ * Native alert engine rules (all optional)
+ */
+export type AlertConfig = {
+  enabled?: boolean;
+  confidenceThreshold?: number;
+  mediumSustainMs?: number;
+  highSustainMs?: number;
+  releaseMs?: number;
+  cooldownMs?: number;
+};
+
+/**
+ * Native foreground monitoring service status
+ */
+export type MonitorStatus = {
+  bound: boolean;
+  monitoring: boolean;
+  framesAnalyzed: number;
+  framesDropped: number;
+  fps: number;
+  lastFrameTs: number;
+  // Set when the native analyzer failed to load (monitoring cannot run)
+  error?: string;
+};
+
+/**
+ * Native failure that stopped monitoring
+ */
+export type FatigueErrorEvent = {
+  code: "ANALYZER_UNAVAILABLE";
+  message: string;
+};
+
+/**
+ * Emitted after native code has already vibrated / sounded
+ */
+export type FatigueAlertEvent = {
+  level: FatigueLevel;
   timestamp: number;
 };
 
@@ -28,9 +233,57 @@ export type FatigueResult = {
  * Native module interface
  */
 type FatigueDetectorModule = {
+  startMonitoring(): Promise<void>;
+  stopMonitoring(): void;
+  getMonitorStatus(): Promise<MonitorStatus>;
+  setFrameIntervalMs(ms: number): void;
   analyzeFrame(base64: string): Promise<FatigueResult>;
   analyzeFrameFromPath(path: string): Promise<FatigueResult>;
+  resetStillState(): void;
+  analyzeEyePoints(points: number[], timestamp: number): Promise<FatigueResult>;
+  resetEyePointState(): void;
   resetState(): void;
+  setKeyframeInterval(interval: number): void;
+  configureAlerts(config: AlertConfig): void;
+  setLatencyBudgetMs(ms: number): void;
+  setClassificationStrategy(
+    strategy: ClassificationStrategy
+  ): Promise<ClassificationStrategy>;
+  loadModel(path: string): Promise<ClassificationStrategy>;
+  configureFeatureStage(
+    name: FeatureStageName,
+    config: FeatureStageConfig
+  ): Promise<void>;
+  getFeatureStageStats(): Promise<FeatureStageStats[]>;
+  getPresenceStats(): Promise<PresenceStats>;
+  setIdleSampleIntervalMs(ms: number): void;
+  setLandmarkBackend(
+    backend: LandmarkBackend,
+    config: LandmarkBackendConfig
+  ): Promise<string>;
+  getLandmarkBackend(): Promise<string>;
+  benchmarkLandmarkBackends(
+    path: string,
+    configs: LandmarkBenchmarkConfig[],
+    iterations: number
+  ): Promise<LandmarkBenchmarkResult[]>;
+  queryWindowRollup(
+    from: number,
+    to: number,
+    bucketMs: number
+  ): Promise<WindowRollup>;
+  queryWindowSeries(
+    metric: WindowMetric,
+    from: number,
+    to: number,
+    maxPoints: number
+  ): Promise<WindowSeries>;
+  getWindowSessions(): Promise<WindowSession[]>;
+  getWindowHistoryStats(): Promise<WindowHistoryStats>;
+  getRecentWindows(limit: number): Promise<WindowRecord[]>;
+  clearWindowHistory(): void;
+  addListener(eventName: string): void;
+  removeListeners(count: number): void;
 };
 
 const Native = NativeModules as {
@@ -39,6 +292,17 @@ const Native = NativeModules as {
 
 const FatigueDetector = Native.FatigueDetector;
 
+const ALERT_EVENT = "FatigueAlert";
+const RESULT_EVENT = "FatigueResult";
+const MONITORING_EVENT = "FatigueMonitoring";
+const ERROR_EVENT = "FatigueError";
+
+let emitter: NativeEventEmitter | null = null;
+function getEmitter(): NativeEventEmitter {
+  if (!emitter) emitter = new NativeEventEmitter(FatigueDetector as any);
+  return emitter;
+}
+
 if (__DEV__ && !FatigueDetector) {
   throw new Error(
     "FatigueDetector native module not linked. Rebuild the app."
@@ -49,6 +313,63 @@ if (__DEV__ && !FatigueDetector) {
  * JS wrapper
  */
 export default {
+  /**
+   * Starts the native foreground service: camera capture, analysis and
+   * alerting run there, independent of the JS thread and this screen.
+   */
+  startMonitoring(): Promise<void> {
+    return FatigueDetector!.startMonitoring();
+  },
+
+  stopMonitoring(): void {
+    FatigueDetector!.stopMonitoring();
+  },
+
+  getMonitorStatus(): Promise<MonitorStatus> {
+    return FatigueDetector!.getMonitorStatus();
+  },
+
+  /**
+   * Minimum time between analyzed camera frames (default 100 ms)
+   */
+  setFrameIntervalMs(ms: number): void {
+    FatigueDetector!.setFrameIntervalMs(ms);
+  },
+
+  /**
+   * Live results from the monitoring service (throttled natively).
+   * Returns an unsubscribe function.
+   */
+  onResult(listener: (result: FatigueResult) => void): () => void {
+    const sub = getEmitter().addListener(RESULT_EVENT, listener);
+    return () => sub.remove();
+  },
+
+  /**
+   * Started / stopped, including from the notification's Stop action.
+   * Returns an unsubscribe function.
+   */
+  onMonitoringChange(listener: (monitoring: boolean) => void): () => void {
+    const sub = getEmitter().addListener(
+      MONITORING_EVENT,
+      (event: { monitoring: boolean }) => listener(event.monitoring)
+    );
+    return () => sub.remove();
+  },
+
+  /**
+   * Native failures that stop monitoring (e.g. models failed to load).
+   * Returns an unsubscribe function.
+   */
+  onError(listener: (event: FatigueErrorEvent) => void): () => void {
+    const sub = getEmitter().addListener(ERROR_EVENT, listener);
+    return () => sub.remove();
+  },
+
+  /**
+   * Single still image (debug / tests). Stills have their own native
+   * analyzer: they never touch live monitoring state or sound alerts.
+   */
   analyzeFrame(base64: string): Promise<FatigueResult> {
     return FatigueDetector!.analyzeFrame(base64);
   },
@@ -57,6 +378,29 @@ export default {
     return FatigueDetector!.analyzeFrameFromPath(path);
   },
 
+  /**
+   * Resets the stills analyzer's temporal + baseline state
+   */
+  resetStillState(): void {
+    FatigueDetector!.resetStillState();
+  },
+
+  /**
+   * Eye points from a JS frame source (12 x/y pairs, EyeGeometry order),
+   * scored by the native window engine. [] = no face. Own baseline,
+   * windows and alert state: live monitoring is never affected.
+   */
+  analyzeEyePoints(points: number[], timestamp: number): Promise<FatigueResult> {
+    return FatigueDetector!.analyzeEyePoints(points, timestamp);
+  },
+
+  /**
+   * Resets the eye-point stream's temporal + baseline state only
+   */
+  resetEyePointState(): void {
+    FatigueDetector!.resetEyePointState();
+  },
+
   /**
    * Resets native temporal + baseline state
    * Should be called ONLY when session continuity breaks
@@ -64,4 +408,136 @@ export default {
   resetState(): void {
     FatigueDetector!.resetState();
   },
+
+  /**
+   * Full face mesh every `interval` frames, eye tracking in between.
+   * 1 = mesh on every frame
+   */
+  setKeyframeInterval(interval: number): void {
+    FatigueDetector!.setKeyframeInterval(interval);
+  },
+
+  configureAlerts(config: AlertConfig): void {
+    FatigueDetector!.configureAlerts(config);
+  },
+
+  /**
+   * Landmarker latency budget used to pick the input resolution tier
+   */
+  setLatencyBudgetMs(ms: number): void {
+    FatigueDetector!.setLatencyBudgetMs(ms);
+  },
+
+  /**
+   * Rejects with NO_MODEL if "MODEL" is requested without a loaded model
+   */
+  setClassificationStrategy(
+    strategy: ClassificationStrategy
+  ): Promise<ClassificationStrategy> {
+    return FatigueDetector!.setClassificationStrategy(strategy);
+  },
+
+  /**
+   * Load a retrained model file (see LogisticFatigueClassifier format)
+   */
+  loadModel(path: string): Promise<ClassificationStrategy> {
+    return FatigueDetector!.loadModel(path);
+  },
+
+  configureFeatureStage(
+    name: FeatureStageName,
+    config: FeatureStageConfig
+  ): Promise<void> {
+    return FatigueDetector!.configureFeatureStage(name, config);
+  },
+
+  getFeatureStageStats(): Promise<FeatureStageStats[]> {
+    return FatigueDetector!.getFeatureStageStats();
+  },
+
+  getPresenceStats(): Promise<PresenceStats> {
+    return FatigueDetector!.getPresenceStats();
+  },
+
+  /**
+   * Low-power mode: one presence check per `ms` while nobody is in frame
+   */
+  setIdleSampleIntervalMs(ms: number): void {
+    FatigueDetector!.setIdleSampleIntervalMs(ms);
+  },
+
+  /**
+   * Switches the landmark engine; resolves with its name.
+   * TFLITE has no head pose (no transformation matrix).
+   */
+  setLandmarkBackend(
+    backend: LandmarkBackend,
+    config: LandmarkBackendConfig = {}
+  ): Promise<string> {
+    return FatigueDetector!.setLandmarkBackend(backend, config);
+  },
+
+  getLandmarkBackend(): Promise<string> {
+    return FatigueDetector!.getLandmarkBackend();
+  },
+
+  /**
+   * Times each backend config on one image (pauses live analysis while
+   * running). Use to pick the backend for a device class.
+   */
+  benchmarkLandmarkBackends(
+    path: string,
+    configs: LandmarkBenchmarkConfig[],
+    iterations = 50
+  ): Promise<LandmarkBenchmarkResult[]> {
+    return FatigueDetector!.benchmarkLandmarkBackends(path, configs, iterations);
+  },
+
+  /**
+   * Window history is recorded natively (one record per 2 s window);
+   * these return aggregates only, never the raw history.
+   */
+  queryWindowRollup(
+    from: number,
+    to: number,
+    bucketMs: number
+  ): Promise<WindowRollup> {
+    return FatigueDetector!.queryWindowRollup(from, to, bucketMs);
+  },
+
+  /**
+   * Chart series, downsampled natively (largest-triangle) to maxPoints
+   */
+  queryWindowSeries(
+    metric: WindowMetric,
+    from: number,
+    to: number,
+    maxPoints = 300
+  ): Promise<WindowSeries> {
+    return FatigueDetector!.queryWindowSeries(metric, from, to, maxPoints);
+  },
+
+  getWindowSessions(): Promise<WindowSession[]> {
+    return FatigueDetector!.getWindowSessions();
+  },
+
+  getWindowHistoryStats(): Promise<WindowHistoryStats> {
+    return FatigueDetector!.getWindowHistoryStats();
+  },
+
+  getRecentWindows(limit = 20): Promise<WindowRecord[]> {
+    return FatigueDetector!.getRecentWindows(limit);
+  },
+
+  clearWindowHistory(): void {
+    FatigueDetector!.clearWindowHistory();
+  },
+
+  /**
+   * Subscribe to native alerts. Returns an unsubscribe function.
+   */
+  onAlert(listener: (event: FatigueAlertEvent) => void): () => void {
+    const sub = getEmitter().addListener(ALERT_EVENT, listener);
+    return () => sub.remove();
+  },
 };
\ No newline at end of file
@@ -1,19 +1,61 @@
-import { RuleBasedFatigueService } from '../services/fatigue_service/RuleBasedFatigueService';
+import { NativeFatigueService } from '../services/fatigue_service/NativeFatigueService';
+import {
+  FatigueService,
+  FatigueState,
+} from '../services/fatigue_service/FatigueService';
 import { FrameEvent } from '../contracts/FrameContract';
 
+/**
+ * Feeds frames to a FatigueService one at a time.
+ *
+ * Holds no frame history: a frame that arrives while the previous one
+ * is still being scored is dropped (counted), so neither memory nor
+ * queued work grows with session length.
+ *
+ * The default service scores natively, isolated from live monitoring.
+ */
 export class FatiguePipeline {
-  private fatigueService = new RuleBasedFatigueService();
-  private events: FrameEvent[] = [];
+  private busy = false;
+  private droppedFrames = 0;
+  private latest: FatigueState | null = null;
 
-  processFrame = (event: FrameEvent) => {
-    this.events.push(event);
+  constructor(
+    private fatigueService: FatigueService = new NativeFatigueService()
+  ) {}
 
-    const result = this.fatigueService.evaluate(this.events);
-
-    if (__DEV__) {
-      console.log('Fatigue result:', result);
+  /** Resolves with the new state, or null if the frame was dropped. */
+  processFrame = async (event: FrameEvent): Promise<FatigueState | null> => {
+    if (this.busy) {
+      this.droppedFrames++;
+      return null;
     }
 
-    return result;
+    this.busy = true;
+    try {
+      const result = await this.fatigueService.onFrame(event);
+      this.latest = result;
+
+      if (__DEV__) {
+        console.log('Fatigue result:', result);
+      }
+
+      return result;
+    } finally {
+      this.busy = false;
+    }
   };
-}
\ No newline at end of file
+
+  getLatest(): FatigueState | null {
+    return this.latest;
+  }
+
+  getDroppedFrames(): number {
+    return this.droppedFrames;
+  }
+
+  reset() {
+    this.fatigueService.reset();
+    this.latest = null;
+    this.droppedFrames = 0;
+  }
+}
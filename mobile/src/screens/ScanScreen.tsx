@@ -5,17 +5,21 @@ import {
   Button,
   Linking,
   StyleSheet,
-  AppState,
   Pressable,
+  Platform,
+  PermissionsAndroid,
 } from "react-native";
-import { Camera, useCameraDevices } from "react-native-vision-camera";
-import { useNavigation, useIsFocused } from "@react-navigation/native";
+import { Camera } from "react-native-vision-camera";
+import { useNavigation } from "@react-navigation/native";
 
 import FatigueDetector, { FatigueResult } from "../native/FatigueDetector";
-import { startSession, endSession } from "../logging/sessionTracker";
+import {
+  startSession,
+  endSession,
+  trackAlert,
+} from "../logging/sessionTracker";
 import { FatigueLevel } from "../types/fatigue";
-import { storeWindowLog } from "../storage/fatigueStorage";
-import { maybeTriggerAlert, resetAlertState } from "../alerts/fatigueAlert";
+import { configureAlerts, subscribeToAlerts } from "../alerts/fatigueAlert";
 
 
 type PermissionState = "not-determined" | "granted" | "denied";
@@ -31,26 +35,21 @@ const FACE_LOST_GRACE_MS = 800;
 /*******  e84c0190-d7cb-466c-b5ef-ff99ab9044db  *******/
 export default function ScanScreen() {
   // ------------------------------------------------
-  // Camera + navigation
+  // Navigation
   // ------------------------------------------------
-  const cameraRef = useRef<Camera | null>(null);
   const navigation = useNavigation<any>();
-  const isFocused = useIsFocused();
-
-  const devices = useCameraDevices();
-  const device = devices.find(d => d.position === "front") ?? null;
 
   // ------------------------------------------------
-  // Permission + lifecycle
+  // Permission + monitoring
   // ------------------------------------------------
   const [permission, setPermission] =
     useState<PermissionState>("not-determined");
-  const [appState, setAppState] = useState(AppState.currentState);
 
-  const isCameraActive =
-    permission === "granted" &&
-    isFocused &&
-    appState === "active";
+  // Camera + analysis run in the native foreground service; this screen
+  // only starts it and renders its results
+  const [isMonitoring, setIsMonitoring] = useState(false);
+  // Native analyzer failed to load: monitoring cannot run
+  const [monitorError, setMonitorError] = useState<string | null>(null);
 
   // ------------------------------------------------
   // Session
@@ -85,25 +84,17 @@ export default function ScanScreen() {
       : 0;
 
   // ------------------------------------------------
-  // Scan state
+  // Result state
   // ------------------------------------------------
-  const scanTimerRef = useRef<ReturnType<typeof setInterval> | null>(null);
-  const isScanningRef = useRef(false);
   const lastFaceSeenTsRef = useRef(0);
 
-  const stopAutoScan = () => {
-    if (scanTimerRef.current) {
-      clearInterval(scanTimerRef.current);
-      scanTimerRef.current = null;
-    }
-    isScanningRef.current = false;
-  };
-
   // ------------------------------------------------
   // Permission + lifecycle
   // ------------------------------------------------
   useEffect(() => {
     startSession(sessionId);
+    configureAlerts();
+    const unsubscribeAlerts = subscribeToAlerts(() => trackAlert());
 
     const ensurePermission = async () => {
       const status = await Camera.getCameraPermissionStatus();
@@ -113,63 +104,78 @@ export default function ScanScreen() {
         const req = await Camera.requestCameraPermission();
         setPermission(req);
       }
+
+      // Foreground service notification (Android 13+)
+      if (Platform.OS === "android" && Platform.Version >= 33) {
+        await PermissionsAndroid.request(
+          PermissionsAndroid.PERMISSIONS.POST_NOTIFICATIONS
+        );
+      }
     };
 
     ensurePermission();
 
-    const sub = AppState.addEventListener("change", next => {
-      setAppState(next);
-
-      if (next !== "active") {
-        stopAutoScan();
-        setFatigue(null);
-        baselineStartRef.current = null;
-        setBaselineProgress(0);
-        smoothedConfidenceRef.current = 0;
-        lastFaceSeenTsRef.current = 0; // ✅ FIX
-        FatigueDetector.resetState();
-      }
-    });
-
+    // Monitoring deliberately survives unmount / background
     return () => {
-      sub.remove();
-      stopAutoScan();
+      unsubscribeAlerts();
       endSession(sessionId);
     };
   }, []);
 
   // ------------------------------------------------
-  // Scan interval
+  // Live results from the monitoring service
   // ------------------------------------------------
-  function getScanInterval(level?: FatigueLevel) {
-    switch (level) {
-      case "HIGH":
-        return 800;
-      case "MEDIUM":
-        return 1200;
-      default:
-        return 2000;
-    }
-  }
+  const startMonitoring = () => {
+    FatigueDetector.startMonitoring()
+      .then(() => setIsMonitoring(true))
+      .catch(() => setIsMonitoring(false));
+  };
+
+  // Stopped here or from the notification
+  const onMonitoringStopped = () => {
+    FatigueDetector.resetState(); // session continuity is broken
+    setIsMonitoring(false);
+    setFatigue(null);
+    baselineStartRef.current = null;
+    setBaselineProgress(0);
+    smoothedConfidenceRef.current = 0;
+    lastFaceSeenTsRef.current = 0;
+  };
+
+  const stopMonitoring = () => {
+    FatigueDetector.stopMonitoring();
+    onMonitoringStopped();
+  };
 
-  // ------------------------------------------------
-  // Auto scan loop
-  // ------------------------------------------------
   useEffect(() => {
-    if (!isCameraActive || !device) {
-      stopAutoScan();
-      return;
-    }
+    if (permission !== "granted") return;
+
+    const unsubscribe = FatigueDetector.onResult(result => {
+      if (result.faceDetected) {
+        lastFaceSeenTsRef.current = Date.now();
+      }
+
+      // 🚨 alerts already fired, window history recorded natively
+      setFatigue(result);
+    });
 
-    stopAutoScan();
+    // Arrives after the last result of the session
+    const unsubscribeState = FatigueDetector.onMonitoringChange(monitoring => {
+      if (monitoring) setIsMonitoring(true);
+      else onMonitoringStopped();
+    });
 
-    scanTimerRef.current = setInterval(() => {
-      if (!isCameraActive || isScanningRef.current) return;
-      captureAndAnalyze();
-    }, getScanInterval(fatigue?.fatigueLevel));
+    const unsubscribeError = FatigueDetector.onError(event =>
+      setMonitorError(event.message)
+    );
 
-    return stopAutoScan;
-  }, [isCameraActive, device, fatigue?.fatigueLevel]);
+    startMonitoring();
+    return () => {
+      unsubscribe();
+      unsubscribeState();
+      unsubscribeError();
+    };
+  }, [permission]);
 
   // ------------------------------------------------
   // Baseline UI
@@ -191,46 +197,14 @@ export default function ScanScreen() {
     }
   }, [fatigue?.isCalibrating, fatigue?.faceDetected]);
 
-  // ------------------------------------------------
-  // Capture + analyze
-  // ------------------------------------------------
-  const captureAndAnalyze = async () => {
-    if (!cameraRef.current || !isCameraActive || isScanningRef.current) return;
-
-    isScanningRef.current = true;
-
-    try {
-      const photo = await cameraRef.current.takePhoto({ flash: "off" });
-      if (!photo?.path) return; // ✅ SAFETY
-
-      const result = await FatigueDetector.analyzeFrameFromPath(photo.path);
-
-      if (__DEV__) console.log("FatigueResult:", result);
-
-      if (result?.faceDetected) {
-        lastFaceSeenTsRef.current = Date.now();
-      }
-
-      
-      if (result) {
-        setFatigue(result);
-        maybeTriggerAlert(result); // 🚨 ALERT CONSUMER
-        storeWindowLog({
-          sessionId,
-          timestamp: Date.now(),
-          fatigue: result,
-        });
-      }
-
-    } catch {
-      // ignore background / teardown errors
-    } finally {
-      isScanningRef.current = false;
-    }
-  };
+  const isLowQuality =
+    isMonitoring &&
+    fatigue != null &&
+    fatigue.frameQuality !== "OK";
 
   const isFaceLost =
-    isCameraActive &&
+    isMonitoring &&
+    !isLowQuality &&
     !fatigue?.faceDetected &&
     Date.now() - lastFaceSeenTsRef.current > FACE_LOST_GRACE_MS;
 
@@ -261,19 +235,11 @@ export default function ScanScreen() {
     );
   }
 
-  if (!device) {
-    return (
-      <View style={styles.center}>
-        <Text>Loading camera…</Text>
-      </View>
-    );
-  }
-
   // ------------------------------------------------
   // Render
   // ------------------------------------------------
   return (
-    <View style={{ flex: 1 }}>
+    <View style={styles.screen}>
       {__DEV__ && (
         <Pressable
           style={{ position: "absolute", top: 40, right: 10, zIndex: 999 }}
@@ -283,13 +249,22 @@ export default function ScanScreen() {
         </Pressable>
       )}
 
-      <Camera
-        ref={cameraRef}
-        style={StyleSheet.absoluteFill}
-        device={device}
-        isActive={isCameraActive}
-        photo
-      />
+      <Pressable
+        style={styles.monitorButton}
+        onPress={isMonitoring ? stopMonitoring : startMonitoring}
+      >
+        <Text style={styles.text}>
+          {isMonitoring ? "Stop monitoring" : "Start monitoring"}
+        </Text>
+      </Pressable>
+
+      {monitorError && (
+        <View style={styles.faceLost}>
+          <Text style={styles.text}>
+            Fatigue detection unavailable{"\n"}{monitorError}
+          </Text>
+        </View>
+      )}
 
       {isFaceLost && (
         <View style={styles.faceLost}>
@@ -299,6 +274,19 @@ export default function ScanScreen() {
         </View>
       )}
 
+      {isLowQuality && (
+        <View style={styles.faceLost}>
+          <Text style={styles.text}>
+            {fatigue?.frameQuality === "TOO_DARK"
+              ? "Too dark"
+              : fatigue?.frameQuality === "OVEREXPOSED"
+              ? "Too bright"
+              : "Image unclear"}
+            {"\n"}Adjust lighting or hold still
+          </Text>
+        </View>
+      )}
+
       {fatigue?.faceDetected &&
         fatigue.isCalibrating &&
         baselineProgress < 100 && (
@@ -333,6 +321,16 @@ export default function ScanScreen() {
 // ------------------------------------------------
 const styles = StyleSheet.create({
   center: { flex: 1, justifyContent: "center", alignItems: "center" },
+  screen: { flex: 1, backgroundColor: "#000" },
+  monitorButton: {
+    position: "absolute",
+    bottom: 40,
+    alignSelf: "center",
+    backgroundColor: "rgba(255,255,255,0.15)",
+    paddingHorizontal: 20,
+    paddingVertical: 10,
+    borderRadius: 20,
+  },
   hud: {
     position: "absolute",
     top: 40,
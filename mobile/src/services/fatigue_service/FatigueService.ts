@@ -1,8 +1,28 @@
 import { FrameEvent } from '../../contracts/FrameContract';
+import { FatigueLevel } from '../../types/fatigue';
 
+/**
+ * State after the latest frame. Window statistics are summaries, never
+ * the frame history itself.
+ */
+export type FatigueState = {
+  level: FatigueLevel;
+  confidence: number;
+  faceDetected: boolean;
+  isCalibrating: boolean;
+  perclos: number;
+  blinkRate: number;
+  // frames folded in since the last reset
+  frames: number;
+  ts: number;
+};
+
+/**
+ * Incremental fatigue scoring: each frame is folded into internal state
+ * of bounded size (O(1) memory and work per frame). Callers must not
+ * keep their own frame history for it.
+ */
 export interface FatigueService {
-  evaluate(events: FrameEvent[]): {
-    level: 'LOW' | 'MEDIUM' | 'HIGH';
-    confidence: number;
-  };
-}
\ No newline at end of file
+  onFrame(event: FrameEvent): Promise<FatigueState>;
+  reset(): void;
+}
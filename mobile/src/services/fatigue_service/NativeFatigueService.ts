@@ -0,0 +1,41 @@
+import { FatigueService, FatigueState } from './FatigueService';
+import { FrameEvent } from '../../contracts/FrameContract';
+import FatigueDetector from '../../native/FatigueDetector';
+
+/**
+ * Scores frames with the native window engine and the camera service's
+ * classifier, so JS frame sources and native capture share one scoring
+ * core. The baseline, windows and alert state are this stream's own:
+ * nothing here (reset included) touches live monitoring. All window
+ * state lives natively in fixed-size buffers.
+ *
+ * The caller supplies FrameEvent.eyePoints; no JS frame source in the
+ * app produces them yet (camera monitoring runs natively).
+ */
+export class NativeFatigueService implements FatigueService {
+  private frames = 0;
+
+  async onFrame(event: FrameEvent): Promise<FatigueState> {
+    const r = await FatigueDetector.analyzeEyePoints(
+      event.eyePoints ?? [],
+      event.ts
+    );
+    this.frames++;
+
+    return {
+      level: r.fatigueLevel,
+      confidence: r.confidence,
+      faceDetected: r.faceDetected,
+      isCalibrating: r.isCalibrating,
+      perclos: r.perclos,
+      blinkRate: r.blinkRate,
+      frames: this.frames,
+      ts: r.timestamp,
+    };
+  }
+
+  reset() {
+    this.frames = 0;
+    FatigueDetector.resetEyePointState();
+  }
+}
@@ -1,15 +1,29 @@
-import { FatigueService } from './FatigueService';
+import { FatigueService, FatigueState } from './FatigueService';
 import { FrameEvent } from '../../contracts/FrameContract';
 
+/**
+ * Placeholder service (no scoring): always LOW with low confidence.
+ * Keeps only a frame counter.
+ */
 export class RuleBasedFatigueService implements FatigueService {
-  evaluate(events: FrameEvent[]) {
-    if (__DEV__) {
-      console.log('Events processed:', events.length);
-    }
+  private frames = 0;
+
+  async onFrame(event: FrameEvent): Promise<FatigueState> {
+    this.frames++;
 
     return {
-      level: 'LOW' as const,
+      level: 'LOW',
       confidence: 0.1,
+      faceDetected: !!event.eyePoints,
+      isCalibrating: false,
+      perclos: 0,
+      blinkRate: 0,
+      frames: this.frames,
+      ts: event.ts,
     };
   }
-}
\ No newline at end of file
+
+  reset() {
+    this.frames = 0;
+  }
+}
@@ -5,3 +5,9 @@
 
 export type FatigueLevel = "LOW" | "MEDIUM" | "HIGH";
 
+export type FrameQuality =
+  | "OK"
+  | "TOO_DARK"
+  | "OVEREXPOSED"
+  | "LOW_CONTRAST"
+  | "BLURRY";